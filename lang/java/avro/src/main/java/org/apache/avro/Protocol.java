@@ -248,7 +248,7 @@ public class Protocol extends JsonProperties {
 
   private Schema.Names types = new Schema.Names();
   private final Map<String, Message> messages = new LinkedHashMap<>();
-  private byte[] md5;
+  private volatile byte[] md5;
 
   /** An error that can be thrown by any message. */
   public static final Schema SYSTEM_ERROR = Schema.create(Schema.Type.STRING);
@@ -31,6 +31,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -466,6 +468,74 @@ public abstract class Schema extends JsonProperties implements Serializable {
     return (hashCode == other.hashCode) || (hashCode == NO_HASHCODE) || (other.hashCode == NO_HASHCODE);
   }
 
+  // computed on first use: the parsing form does not change once fields are set
+  private volatile String parsingForm;
+  private volatile Long parsingFingerprint64;
+  private volatile byte[] md5;
+  private volatile byte[] sha256;
+
+  /**
+   * Returns the Parsing Canonical Form of this schema, as defined by the Avro
+   * specification. Computed once.
+   *
+   * @see SchemaNormalization#toParsingForm(Schema)
+   */
+  public String getParsingForm() {
+    String form = parsingForm;
+    if (form == null)
+      parsingForm = form = SchemaNormalization.buildParsingForm(this);
+    return form;
+  }
+
+  /**
+   * Returns the 64-bit Rabin fingerprint of the Parsing Canonical Form of this
+   * schema. Computed once.
+   *
+   * @see SchemaNormalization#parsingFingerprint64(Schema)
+   */
+  public long getParsingFingerprint64() {
+    Long fingerprint = parsingFingerprint64;
+    if (fingerprint == null)
+      parsingFingerprint64 = fingerprint = SchemaNormalization.fingerprint64(parsingFormBytes());
+    return fingerprint;
+  }
+
+  /**
+   * Returns a fingerprint of the Parsing Canonical Form of this schema, computed
+   * by the algorithm named. Those named "CRC-64-AVRO", "MD5" and "SHA-256" are
+   * computed once.
+   *
+   * @see SchemaNormalization#parsingFingerprint(String, Schema)
+   */
+  public byte[] getParsingFingerprint(String fpName) throws NoSuchAlgorithmException {
+    switch (fpName) {
+    case "CRC-64-AVRO":
+      long fingerprint = getParsingFingerprint64();
+      byte[] result = new byte[8];
+      for (int i = 0; i < 8; i++) {
+        result[i] = (byte) fingerprint;
+        fingerprint >>= 8;
+      }
+      return result;
+    case "MD5":
+      byte[] md5 = this.md5;
+      if (md5 == null)
+        this.md5 = md5 = SchemaNormalization.fingerprint(fpName, parsingFormBytes());
+      return md5.clone();
+    case "SHA-256":
+      byte[] sha256 = this.sha256;
+      if (sha256 == null)
+        this.sha256 = sha256 = SchemaNormalization.fingerprint(fpName, parsingFormBytes());
+      return sha256.clone();
+    default:
+      return SchemaNormalization.fingerprint(fpName, parsingFormBytes());
+    }
+  }
+
+  private byte[] parsingFormBytes() {
+    return getParsingForm().getBytes(StandardCharsets.UTF_8);
+  }
+
   private static final Set<String> FIELD_RESERVED = Collections
       .unmodifiableSet(new HashSet<>(Arrays.asList("default", "doc", "name", "order", "type", "aliases")));
 
@@ -1334,11 +1404,23 @@ public abstract class Schema extends JsonProperties implements Serializable {
    * A parser for JSON-format schemas. Each named schema parsed with a parser is
    * added to the names known to the parser so that subsequently parsed schemas
    * may refer to it by name.
+   *
+   * Optionally, strings parsed by a parser that knows no names yet are looked up
+   * in a cache shared by all parsers, so that parsing the same text again
+   * returns the same schema instance. See {@link #setUseCache(boolean)}.
    */
   public static class Parser {
     private Names names = new Names();
     private boolean validate = true;
     private boolean validateDefaults = true;
+    private boolean useCache = false;
+
+    /** The default number of schemas kept by the cache. */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private static int cacheSize = DEFAULT_CACHE_SIZE;
+    // schemas by text and options, least recently used first
+    private static final LinkedHashMap<String, Schema> CACHE = new LinkedHashMap<>(16, 0.75f, true);
 
     /**
      * Adds the provided types to the set of defined, named types known to this
@@ -1380,6 +1462,49 @@ public abstract class Schema extends JsonProperties implements Serializable {
       return this.validateDefaults;
     }
 
+    /**
+     * Enable or disable the cache of parsed schemas for strings parsed while this
+     * parser knows no names. Schemas returned from the cache are shared, and so
+     * must not be modified. False by default.
+     */
+    public Parser setUseCache(boolean useCache) {
+      this.useCache = useCache;
+      return this;
+    }
+
+    /** True iff the cache of parsed schemas is used. */
+    public boolean getUseCache() {
+      return this.useCache;
+    }
+
+    /**
+     * Set the most schemas kept by the cache shared by all parsers, evicting the
+     * least recently used. Zero empties the cache and keeps no more schemas.
+     */
+    public static void setCacheSize(int size) {
+      if (size < 0)
+        throw new IllegalArgumentException("Negative cache size: " + size);
+      synchronized (CACHE) {
+        cacheSize = size;
+        evict();
+      }
+    }
+
+    /** Remove all schemas from the cache shared by all parsers. */
+    public static void clearCache() {
+      synchronized (CACHE) {
+        CACHE.clear();
+      }
+    }
+
+    private static void evict() {
+      Iterator<Schema> eldest = CACHE.values().iterator();
+      while (CACHE.size() > cacheSize) {
+        eldest.next();
+        eldest.remove();
+      }
+    }
+
     /**
      * Parse a schema from the provided file. If named, the schema is added to the
      * names known to this parser.
@@ -1409,6 +1534,8 @@ public abstract class Schema extends JsonProperties implements Serializable {
      * names known to this parser.
      */
     public Schema parse(String s) {
+      if (useCache && names.isEmpty())
+        return parseCached(s);
       try {
         return parse(FACTORY.createParser(s));
       } catch (IOException e) {
@@ -1416,6 +1543,59 @@ public abstract class Schema extends JsonProperties implements Serializable {
       }
     }
 
+    private Schema parseCached(String s) {
+      String key = (validate ? 'v' : '-') + (validateDefaults ? "d" : "-") + s;
+      Schema schema;
+      synchronized (CACHE) {
+        schema = CACHE.get(key);
+      }
+      if (schema != null) { // know its names, as if it were parsed
+        addNames(schema);
+        return schema;
+      }
+      try {
+        schema = parse(FACTORY.createParser(s));
+      } catch (IOException e) {
+        throw new SchemaParseException(e);
+      }
+      synchronized (CACHE) {
+        if (cacheSize > 0) {
+          CACHE.put(key, schema);
+          evict();
+        }
+      }
+      return schema;
+    }
+
+    private void addNames(Schema schema) {
+      switch (schema.getType()) {
+      case RECORD:
+        if (names.containsKey(((NamedSchema) schema).name))
+          return;
+        names.add(schema);
+        for (Field field : schema.getFields())
+          addNames(field.schema());
+        break;
+      case ENUM:
+      case FIXED:
+        if (!names.containsKey(((NamedSchema) schema).name))
+          names.add(schema);
+        break;
+      case ARRAY:
+        addNames(schema.getElementType());
+        break;
+      case MAP:
+        addNames(schema.getValueType());
+        break;
+      case UNION:
+        for (Schema type : schema.getTypes())
+          addNames(type);
+        break;
+      default:
+        break;
+      }
+    }
+
     private Schema parse(JsonParser parser) throws IOException {
       boolean saved = validateNames.get();
       boolean savedValidateDefaults = VALIDATE_DEFAULTS.get();
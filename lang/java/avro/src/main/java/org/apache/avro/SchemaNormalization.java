@@ -20,7 +20,6 @@ package org.apache.avro;
 import java.util.Map;
 import java.util.HashMap;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -36,8 +35,14 @@ public class SchemaNormalization {
 
   /**
    * Returns "Parsing Canonical Form" of a schema as defined by Avro spec.
+   *
+   * @see Schema#getParsingForm()
    */
   public static String toParsingForm(Schema s) {
+    return s.getParsingForm();
+  }
+
+  static String buildParsingForm(Schema s) {
     try {
       Map<String, String> env = new HashMap<>();
       return build(env, s, new StringBuilder()).toString();
@@ -92,7 +97,7 @@ public class SchemaNormalization {
    * supplied schema.
    */
   public static byte[] parsingFingerprint(String fpName, Schema s) throws NoSuchAlgorithmException {
-    return fingerprint(fpName, toParsingForm(s).getBytes(StandardCharsets.UTF_8));
+    return s.getParsingFingerprint(fpName);
   }
 
   /**
@@ -100,7 +105,7 @@ public class SchemaNormalization {
    * supplied schema.
    */
   public static long parsingFingerprint64(Schema s) {
-    return fingerprint64(toParsingForm(s).getBytes(StandardCharsets.UTF_8));
+    return s.getParsingFingerprint64();
   }
 
   private static Appendable build(Map<String, String> env, Schema s, Appendable o) throws IOException {
@@ -18,7 +18,6 @@
 package org.apache.avro.file;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
@@ -31,7 +30,7 @@ public class BZip2Codec extends Codec {
   public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
   private final byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
 
-  private ByteArrayOutputStream outputBuffer;
+  private NonCopyingByteArrayOutputStream outputBuffer;
 
   static class Option extends CodecFactory {
     @Override
@@ -47,28 +46,39 @@ public class BZip2Codec extends Codec {
 
   @Override
   public ByteBuffer compress(ByteBuffer uncompressedData) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(uncompressedData.remaining());
+    return trim(compress(uncompressedData, null));
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer compressedData) throws IOException {
+    return trim(decompress(compressedData, null));
+  }
+
+  @Override
+  public ByteBuffer compress(ByteBuffer uncompressedData, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(uncompressedData);
+    NonCopyingByteArrayOutputStream baos = getOutputBuffer(in.remaining());
 
     try (BZip2CompressorOutputStream outputStream = new BZip2CompressorOutputStream(baos)) {
-      outputStream.write(uncompressedData.array(), computeOffset(uncompressedData), uncompressedData.remaining());
+      outputStream.write(in.array(), computeOffset(in), in.remaining());
     }
 
-    return ByteBuffer.wrap(baos.toByteArray());
+    return copy(baos.getByteArrayAsByteBuffer(), reuse);
   }
 
   @Override
-  public ByteBuffer decompress(ByteBuffer compressedData) throws IOException {
-    ByteArrayInputStream bais = new ByteArrayInputStream(compressedData.array(), computeOffset(compressedData),
-        compressedData.remaining());
+  public ByteBuffer decompress(ByteBuffer compressedData, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(compressedData);
+    ByteArrayInputStream bais = new ByteArrayInputStream(in.array(), computeOffset(in), in.remaining());
     try (BZip2CompressorInputStream inputStream = new BZip2CompressorInputStream(bais)) {
-      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      NonCopyingByteArrayOutputStream baos = getOutputBuffer(in.remaining());
 
       int readCount = -1;
-      while ((readCount = inputStream.read(buffer, compressedData.position(), buffer.length)) > 0) {
+      while ((readCount = inputStream.read(buffer, 0, buffer.length)) > 0) {
         baos.write(buffer, 0, readCount);
       }
 
-      return ByteBuffer.wrap(baos.toByteArray());
+      return copy(baos.getByteArrayAsByteBuffer(), reuse);
     }
   }
 
@@ -85,9 +95,9 @@ public class BZip2Codec extends Codec {
   }
 
   // get and initialize the output buffer for use.
-  private ByteArrayOutputStream getOutputBuffer(int suggestedLength) {
+  private NonCopyingByteArrayOutputStream getOutputBuffer(int suggestedLength) {
     if (null == outputBuffer) {
-      outputBuffer = new ByteArrayOutputStream(suggestedLength);
+      outputBuffer = new NonCopyingByteArrayOutputStream(suggestedLength);
     }
     outputBuffer.reset();
     return outputBuffer;
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.util.Arrays;
+
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * A predicate over the statistics of a block, as recorded in a
+ * {@link BlockIndex} by {@link DataFileWriter#setBlockStatistics(String...)}.
+ * Passed to {@link DataFileReader#setBlockFilter(BlockFilter)} to skip blocks
+ * that hold no entries of interest without decompressing them.
+ *
+ * A filter only excludes blocks: entries of the blocks read must still be
+ * tested by the caller. Blocks whose statistics are not known, and predicates
+ * on fields without statistics, always match.
+ */
+public abstract class BlockFilter {
+  // the standard conversions, to compare values of logical types, such as an
+  // Instant, with statistics, which are kept as raw values
+  private static final GenericData CONVERSIONS = new GenericData();
+  static {
+    CONVERSIONS.addLogicalTypeConversion(new Conversions.DecimalConversion());
+    CONVERSIONS.addLogicalTypeConversion(new Conversions.UUIDConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.DateConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.TimeMillisConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.TimeMicrosConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.TimestampMillisConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.TimestampMicrosConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.LocalTimestampMillisConversion());
+    CONVERSIONS.addLogicalTypeConversion(new TimeConversions.LocalTimestampMicrosConversion());
+  }
+
+  /**
+   * Returns false if no entry of a block can match this filter, as shown by its
+   * statistics.
+   */
+  public abstract boolean mightMatch(BlockIndex index, int block);
+
+  /** Matches blocks that may hold entries whose field equals a value. */
+  public static BlockFilter eq(String field, Object value) {
+    check(value);
+    return new FieldFilter("eq", field, true) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return compare(value, min, schema) >= 0 && compare(value, max, schema) <= 0;
+      }
+    };
+  }
+
+  /** Matches blocks that may hold entries whose field is less than a value. */
+  public static BlockFilter lt(String field, Object value) {
+    check(value);
+    return new FieldFilter("lt", field, true) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return compare(value, min, schema) > 0;
+      }
+    };
+  }
+
+  /**
+   * Matches blocks that may hold entries whose field is less than or equal to a
+   * value.
+   */
+  public static BlockFilter le(String field, Object value) {
+    check(value);
+    return new FieldFilter("le", field, true) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return compare(value, min, schema) >= 0;
+      }
+    };
+  }
+
+  /** Matches blocks that may hold entries whose field is greater than a value. */
+  public static BlockFilter gt(String field, Object value) {
+    check(value);
+    return new FieldFilter("gt", field, true) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return compare(value, max, schema) < 0;
+      }
+    };
+  }
+
+  /**
+   * Matches blocks that may hold entries whose field is greater than or equal to
+   * a value.
+   */
+  public static BlockFilter ge(String field, Object value) {
+    check(value);
+    return new FieldFilter("ge", field, true) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return compare(value, max, schema) <= 0;
+      }
+    };
+  }
+
+  /**
+   * Matches blocks that may hold entries whose field lies between two values,
+   * inclusive.
+   */
+  public static BlockFilter between(String field, Object low, Object high) {
+    return and(ge(field, low), le(field, high));
+  }
+
+  /** Matches blocks that may hold entries whose field is null. */
+  public static BlockFilter isNull(String field) {
+    return new FieldFilter("isNull", field, false) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return nulls > 0;
+      }
+    };
+  }
+
+  /** Matches blocks that may hold entries whose field is not null. */
+  public static BlockFilter isNotNull(String field) {
+    return new FieldFilter("isNotNull", field, false) {
+      @Override
+      boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema) {
+        return nulls < count;
+      }
+    };
+  }
+
+  /** Matches blocks matched by every one of some filters. */
+  public static BlockFilter and(BlockFilter... filters) {
+    final BlockFilter[] all = filters.clone();
+    return new BlockFilter() {
+      @Override
+      public boolean mightMatch(BlockIndex index, int block) {
+        for (BlockFilter filter : all) {
+          if (!filter.mightMatch(index, block)) {
+            return false;
+          }
+        }
+        return true;
+      }
+
+      @Override
+      public String toString() {
+        return "and" + Arrays.toString(all);
+      }
+    };
+  }
+
+  /** Matches blocks matched by any one of some filters. */
+  public static BlockFilter or(BlockFilter... filters) {
+    final BlockFilter[] any = filters.clone();
+    return new BlockFilter() {
+      @Override
+      public boolean mightMatch(BlockIndex index, int block) {
+        for (BlockFilter filter : any) {
+          if (filter.mightMatch(index, block)) {
+            return true;
+          }
+        }
+        return false;
+      }
+
+      @Override
+      public String toString() {
+        return "or" + Arrays.toString(any);
+      }
+    };
+  }
+
+  private static void check(Object value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Null value, use isNull() instead");
+    }
+  }
+
+  // numbers are compared by value, so that e.g. an Integer may be compared with
+  // the statistics of a long field, and values of logical types and Java enums
+  // as the types they are converted to
+  @SuppressWarnings("unchecked")
+  private static int compare(Object value, Object bound, Schema schema) {
+    LogicalType type = schema.getLogicalType();
+    if (type != null) {
+      Conversion<?> conversion = CONVERSIONS.getConversionByClass(value.getClass(), type);
+      if (conversion != null) {
+        return ((Comparable<Object>) value).compareTo(Conversions.convertToLogicalType(bound, schema, type, conversion));
+      }
+    }
+    if (value instanceof Enum && schema.getType() == Schema.Type.ENUM) {
+      value = schema.getEnumSymbols().get(((Enum<?>) value).ordinal());
+    }
+    switch (schema.getType()) {
+    case INT:
+    case LONG:
+      if (!(value instanceof Float || value instanceof Double)) {
+        return Long.compare(((Number) value).longValue(), ((Number) bound).longValue());
+      }
+      // fall through
+    case FLOAT:
+    case DOUBLE:
+      return Double.compare(((Number) value).doubleValue(), ((Number) bound).doubleValue());
+    default:
+      return GenericData.get().compare(value, bound, schema);
+    }
+  }
+
+  /** A predicate on the minimum, maximum and null count of a field. */
+  private abstract static class FieldFilter extends BlockFilter {
+    private final String operator;
+    private final String field;
+    private final boolean comparison;
+
+    /**
+     * @param operator   the name of the predicate, as printed
+     * @param comparison true if the predicate compares values, and so never
+     *                   matches a null
+     */
+    FieldFilter(String operator, String field, boolean comparison) {
+      this.operator = operator;
+      this.field = field;
+      this.comparison = comparison;
+    }
+
+    /**
+     * Tests the statistics of a field in a block. The minimum and maximum are
+     * null when all entries are, which only predicates that are not comparisons
+     * see.
+     */
+    abstract boolean mightMatch(Object min, Object max, long nulls, long count, Schema schema);
+
+    @Override
+    public boolean mightMatch(BlockIndex index, int block) {
+      GenericRecord stats = index.getStatistics(block);
+      if (stats == null || stats.getSchema().getField(field) == null) {
+        return true;
+      }
+      GenericRecord stat = (GenericRecord) stats.get(field);
+      Object min = stat.get("min");
+      Object max = stat.get("max");
+      long nulls = (Long) stat.get("nulls");
+      if (min == null && comparison) { // all null
+        return false;
+      }
+      Schema schema = stat.getSchema().getField("min").schema().getTypes().get(1);
+      return mightMatch(min, max, nulls, index.getEntryCount(block), schema);
+    }
+
+    @Override
+    public String toString() {
+      return operator + "(" + field + ")";
+    }
+  }
+}
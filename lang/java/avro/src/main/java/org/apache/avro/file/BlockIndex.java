@@ -0,0 +1,529 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.JsonProperties;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * The position, entry count and uncompressed size of each block of a container
+ * file. With it a {@link DataFileReader} can move to any entry by reading only
+ * the block that holds it, and the entries of a file can be counted or divided
+ * into splits without reading the file.
+ *
+ * {@link DataFileWriter#setBlockIndex(boolean)} builds the index while writing.
+ * Files written to a {@link File} get the index in a sidecar file, named by
+ * {@link #sidecar(File)}, which is itself a container file with one entry per
+ * block, and is read back with {@link #load(File)}. An index can also be built
+ * from an existing file with {@link #scan(SeekableInput)}.
+ *
+ * An index may also hold the minimum, maximum and null count of chosen
+ * top-level fields in each block, as configured with
+ * {@link DataFileWriter#setBlockStatistics(String...)}, which a
+ * {@link BlockFilter} uses to skip blocks.
+ */
+public class BlockIndex {
+  /** Appended to the name of a data file to name its index. */
+  public static final String SUFFIX = ".index";
+
+  private static final String NAMESPACE = "org.apache.avro.file";
+  private static final String STATS = "stats";
+  private static final String LENGTH = "file.length";
+
+  private final byte[] sync;
+  private final Schema schema; // of the entries of the index file
+  private final Schema statsSchema; // BlockStatistics, or null
+  private int blocks;
+  private long[] offsets = new long[16];
+  private long[] counts = new long[16];
+  private long[] sizes = new long[16];
+  // number of entries before each block
+  private long[] firsts = new long[16];
+  private GenericRecord[] stats;
+  private long entries;
+  private long length = -1; // of the file when indexed
+
+  BlockIndex(byte[] sync) {
+    this(sync, null);
+  }
+
+  BlockIndex(byte[] sync, Schema statsSchema) {
+    this.sync = sync.clone();
+    this.statsSchema = statsSchema;
+    List<Schema.Field> fields = new ArrayList<>();
+    fields.add(new Schema.Field("offset", Schema.create(Schema.Type.LONG)));
+    fields.add(new Schema.Field("count", Schema.create(Schema.Type.LONG)));
+    fields.add(new Schema.Field("size", Schema.create(Schema.Type.LONG)));
+    if (statsSchema != null) {
+      Schema optional = Schema.createUnion(Schema.create(Schema.Type.NULL), statsSchema);
+      fields.add(new Schema.Field(STATS, optional, null, JsonProperties.NULL_VALUE));
+      this.stats = new GenericRecord[16];
+    }
+    this.schema = Schema.createRecord("BlockIndexEntry", null, NAMESPACE, false, fields);
+  }
+
+  /**
+   * Returns the schema of the statistics of the named fields of records of a
+   * schema: a record with a field of each name, holding the minimum, maximum and
+   * null count of the field in a block.
+   *
+   * @throws IllegalArgumentException if a field does not exist or is not of a
+   *                                  primitive, enum or fixed type, or an
+   *                                  optional one.
+   */
+  static Schema statisticsSchema(Schema schema, String... names) {
+    List<Schema.Field> fields = new ArrayList<>();
+    for (String name : names) {
+      Schema.Field field = schema.getField(name);
+      if (field == null) {
+        throw new IllegalArgumentException("No field " + name + " in " + schema.getFullName());
+      }
+      Schema value = Schema.createUnion(Schema.create(Schema.Type.NULL), valueSchema(field));
+      List<Schema.Field> stat = new ArrayList<>();
+      stat.add(new Schema.Field("min", value, null, JsonProperties.NULL_VALUE));
+      stat.add(new Schema.Field("max", value, null, JsonProperties.NULL_VALUE));
+      stat.add(new Schema.Field("nulls", Schema.create(Schema.Type.LONG), null, 0));
+      Schema statSchema = Schema.createRecord("FieldStatistics" + fields.size(), null, NAMESPACE, false, stat);
+      fields.add(new Schema.Field(name, statSchema));
+    }
+    return Schema.createRecord("BlockStatistics", null, NAMESPACE, false, fields);
+  }
+
+  // the schema of the values of a field, without null
+  private static Schema valueSchema(Schema.Field field) {
+    Schema value = field.schema();
+    if (value.getType() == Schema.Type.UNION) {
+      List<Schema> types = value.getTypes();
+      Integer nullIndex = value.getIndexNamed(Schema.Type.NULL.getName());
+      if (types.size() != 2 || nullIndex == null) {
+        throw new IllegalArgumentException("Can not collect statistics of union field " + field.name());
+      }
+      value = types.get(1 - nullIndex);
+    }
+    switch (value.getType()) {
+    case RECORD:
+    case ARRAY:
+    case MAP:
+    case UNION:
+    case NULL:
+      throw new IllegalArgumentException("Can not collect statistics of " + value.getType() + " field " + field.name());
+    default:
+      return value;
+    }
+  }
+
+  /** Returns the file that holds the index of a data file. */
+  public static File sidecar(File file) {
+    return new File(file.getPath() + SUFFIX);
+  }
+
+  /** Builds the index of an existing file by reading the header of each block. */
+  public static BlockIndex scan(SeekableInput in) throws IOException {
+    return scan(new DataFileReader<>(in, new GenericDatumReader<>()), null);
+  }
+
+  static BlockIndex scan(DataFileReader<?> reader, Schema statsSchema) throws IOException {
+    BlockIndex index = new BlockIndex(reader.getHeader().sync, statsSchema);
+    index.scanBlocks(reader);
+    return index;
+  }
+
+  /**
+   * Reads the index of a data file from its sidecar. Blocks appended to the file
+   * since the index was written are indexed by reading their headers. Their
+   * sizes and statistics are not known, so that a {@link BlockFilter} never
+   * skips them.
+   *
+   * @return the index, or null if the file has no sidecar or its sidecar is of
+   *         another file.
+   */
+  public static BlockIndex load(File file) throws IOException {
+    try (DataFileReader<?> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      return load(file, reader);
+    }
+  }
+
+  static BlockIndex load(File file, DataFileReader<?> reader) throws IOException {
+    File sidecar = sidecar(file);
+    if (!sidecar.isFile()) {
+      return null;
+    }
+    BlockIndex index = read(sidecar);
+    long length = file.length();
+    if (!Arrays.equals(index.sync, reader.getHeader().sync) || index.length < 0 || index.length > length) {
+      return null;
+    }
+    if (index.length < length) { // appended to without updating the index
+      reader.seek(index.length);
+      index.scanBlocks(reader);
+    }
+    return index;
+  }
+
+  private void scanBlocks(DataFileReader<?> reader) throws IOException {
+    while (true) {
+      long offset = reader.nextBlockPosition();
+      if (!reader.hasNextBlock()) {
+        length = offset;
+        return;
+      }
+      add(offset, reader.getBlockCount(), -1);
+      reader.skipRawBlock();
+    }
+  }
+
+  /** Reads an index written by {@link #write(File)}. */
+  public static BlockIndex read(File file) throws IOException {
+    try (InputStream in = new FileInputStream(file)) {
+      return read(in);
+    }
+  }
+
+  /** Reads an index written by {@link #write(OutputStream)}. */
+  public static BlockIndex read(InputStream in) throws IOException {
+    try (DataFileStream<GenericRecord> entries = new DataFileStream<>(in, new GenericDatumReader<>())) {
+      Schema.Field stats = entries.getSchema().getField(STATS);
+      Schema statsSchema = stats != null ? stats.schema().getTypes().get(1) : null;
+      BlockIndex index = new BlockIndex(entries.getHeader().sync, statsSchema);
+      if (entries.getMeta(LENGTH) != null) {
+        index.length = entries.getMetaLong(LENGTH);
+      }
+      while (entries.hasNext()) {
+        GenericRecord entry = entries.next();
+        index.add((Long) entry.get(0), (Long) entry.get(1), (Long) entry.get(2),
+            stats != null ? (GenericRecord) entry.get(3) : null);
+      }
+      return index;
+    }
+  }
+
+  /** Writes this index to a file. */
+  public void write(File file) throws IOException {
+    // closed here too, should writing fail before the stream is taken over
+    try (OutputStream out = new FileOutputStream(file)) {
+      write(out);
+    }
+  }
+
+  /**
+   * Writes this index to a stream, which is closed. The index shares the sync
+   * marker of the file it indexes, which identifies the file, and records the
+   * length of that file, which shows whether it was appended to since.
+   */
+  public void write(OutputStream stream) throws IOException {
+    try (DataFileWriter<GenericRecord> out = new DataFileWriter<>(new GenericDatumWriter<>(schema))) {
+      out.setMeta(LENGTH, length);
+      out.create(schema, stream, sync);
+      GenericRecord entry = new GenericData.Record(schema);
+      for (int i = 0; i < blocks; i++) {
+        entry.put(0, offsets[i]);
+        entry.put(1, counts[i]);
+        entry.put(2, sizes[i]);
+        if (stats != null) {
+          entry.put(3, stats[i]);
+        }
+        out.append(entry);
+      }
+    }
+  }
+
+  void add(long offset, long count, long size) {
+    add(offset, count, size, null);
+  }
+
+  void add(long offset, long count, long size, GenericRecord blockStats) {
+    if (blocks == offsets.length) {
+      int capacity = 2 * blocks;
+      offsets = Arrays.copyOf(offsets, capacity);
+      counts = Arrays.copyOf(counts, capacity);
+      sizes = Arrays.copyOf(sizes, capacity);
+      firsts = Arrays.copyOf(firsts, capacity);
+      if (stats != null) {
+        stats = Arrays.copyOf(stats, capacity);
+      }
+    }
+    offsets[blocks] = offset;
+    counts[blocks] = count;
+    sizes[blocks] = size;
+    if (stats != null) {
+      stats[blocks] = blockStats;
+    }
+    firsts[blocks] = entries;
+    entries += count;
+    blocks++;
+  }
+
+  /**
+   * Takes the uncompressed sizes and statistics of blocks from another index of
+   * the same blocks, as read from a sidecar that may be out of date.
+   */
+  void copySizes(BlockIndex other) {
+    if (!Arrays.equals(sync, other.sync) || blocks != other.blocks) {
+      return;
+    }
+    for (int i = 0; i < blocks; i++) {
+      if (offsets[i] != other.offsets[i] || counts[i] != other.counts[i]) {
+        return;
+      }
+    }
+    System.arraycopy(other.sizes, 0, sizes, 0, blocks);
+    if (stats != null && statsSchema.equals(other.statsSchema)) {
+      System.arraycopy(other.stats, 0, stats, 0, blocks);
+    }
+  }
+
+  /** Records the end of the last block written, as the length of the file. */
+  void setLength(long length) {
+    this.length = length;
+  }
+
+  /**
+   * True if this is the index of the file with the given header and length. An
+   * index of a file that was appended to since does not match, but one read
+   * with {@link #load(File)} is brought up to date.
+   */
+  public boolean matches(DataFileStream.Header header, long length) {
+    return Arrays.equals(sync, header.sync) && this.length == length;
+  }
+
+  /**
+   * The length of the indexed file, where its last block ends, or -1 if not
+   * known.
+   */
+  public long getLength() {
+    return length;
+  }
+
+  /** The number of blocks in the file. */
+  public int getBlockCount() {
+    return blocks;
+  }
+
+  /** The number of entries in the file. */
+  public long getEntryCount() {
+    return entries;
+  }
+
+  /**
+   * The position of a block, which may be passed to
+   * {@link DataFileReader#seek(long)}.
+   */
+  public long getOffset(int block) {
+    return offsets[check(block)];
+  }
+
+  /** The number of entries in a block. */
+  public long getEntryCount(int block) {
+    return counts[check(block)];
+  }
+
+  /** The number of entries in the blocks before a block. */
+  public long getFirstEntry(int block) {
+    return firsts[check(block)];
+  }
+
+  /**
+   * The size of a block before compression, or -1 if it is not known, as for
+   * blocks copied from another file without being decompressed.
+   */
+  public long getUncompressedSize(int block) {
+    return sizes[check(block)];
+  }
+
+  /**
+   * Returns the block at a position, as given by {@link #getOffset(int)}, or -1
+   * if no block starts there.
+   */
+  public int findOffset(long offset) {
+    int block = Arrays.binarySearch(offsets, 0, blocks, offset);
+    return block >= 0 ? block : -1;
+  }
+
+  /** The schema of the statistics of each block, or null if none are kept. */
+  public Schema getStatisticsSchema() {
+    return statsSchema;
+  }
+
+  /**
+   * The statistics of a block, with a field of each field for which they are
+   * kept, or null if they are not known, as for blocks copied from another file.
+   */
+  public GenericRecord getStatistics(int block) {
+    check(block);
+    return stats != null ? stats[block] : null;
+  }
+
+  /**
+   * Returns the block that holds an entry, counting entries from zero.
+   *
+   * @throws NoSuchElementException if the file has fewer entries.
+   */
+  public int findBlock(long entry) {
+    if (entry < 0 || entry >= entries) {
+      throw new NoSuchElementException("No entry " + entry + " in " + entries + " entries");
+    }
+    // the last block that starts at or before the entry
+    int low = 0;
+    int high = blocks - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (firsts[middle] <= entry) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private int check(int block) {
+    if (block < 0 || block >= blocks) {
+      throw new IndexOutOfBoundsException("No block " + block + " in " + blocks + " blocks");
+    }
+    return block;
+  }
+
+  /** Collects the statistics of the entries appended to a block. */
+  static class Collector {
+    private final Schema statsSchema;
+    private final GenericData data;
+    private final int[] positions;
+    private final Schema[] schemas;
+    private final Object[] mins;
+    private final Object[] maxs;
+    private final long[] nulls;
+    private boolean unknown;
+
+    Collector(Schema statsSchema, Schema schema, GenericData data) {
+      this.statsSchema = statsSchema;
+      this.data = data;
+      int n = statsSchema.getFields().size();
+      this.positions = new int[n];
+      this.schemas = new Schema[n];
+      this.mins = new Object[n];
+      this.maxs = new Object[n];
+      this.nulls = new long[n];
+      for (int i = 0; i < n; i++) {
+        Schema.Field field = schema.getField(statsSchema.getFields().get(i).name());
+        positions[i] = field.pos();
+        schemas[i] = valueSchema(field);
+      }
+    }
+
+    void add(Object datum) {
+      for (int i = 0; i < positions.length; i++) {
+        Object value = data.getField(datum, statsSchema.getFields().get(i).name(), positions[i]);
+        if (value == null) {
+          nulls[i]++;
+        } else {
+          if (value instanceof Enum) { // compared as symbols, as a copy may not be a Java enum
+            value = symbol(i, (Enum<?>) value);
+          }
+          // copied, as appended data may be reused
+          if (mins[i] == null || compare(i, value, mins[i]) < 0) {
+            mins[i] = data.deepCopy(schemas[i], value);
+          }
+          if (maxs[i] == null || compare(i, value, maxs[i]) > 0) {
+            maxs[i] = data.deepCopy(schemas[i], value);
+          }
+        }
+      }
+    }
+
+    // values converted by the model, as of logical types, are compared as such,
+    // since their raw form, like the bytes of a decimal, may sort differently
+    @SuppressWarnings("unchecked")
+    private int compare(int i, Object value, Object bound) {
+      if (conversion(i, value) != null) {
+        return ((Comparable<Object>) value).compareTo(bound);
+      }
+      return data.compare(value, bound, schemas[i]);
+    }
+
+    private Conversion<?> conversion(int i, Object value) {
+      LogicalType type = schemas[i].getLogicalType();
+      return type != null ? data.getConversionByClass(value.getClass(), type) : null;
+    }
+
+    /**
+     * Returns a value as a generic reader without conversions reads it, which is
+     * how the index is written and read back.
+     */
+    private Object raw(int i, Object value) {
+      if (value == null) {
+        return null;
+      }
+      Conversion<?> conversion = conversion(i, value);
+      if (conversion != null) {
+        return Conversions.convertToRawType(value, schemas[i], schemas[i].getLogicalType(), conversion);
+      }
+      if (value instanceof Enum) {
+        return symbol(i, (Enum<?>) value);
+      }
+      return value;
+    }
+
+    // the symbol of a Java enum, by position, as SpecificDatumWriter writes it
+    private GenericData.EnumSymbol symbol(int i, Enum<?> value) {
+      return new GenericData.EnumSymbol(schemas[i], schemas[i].getEnumSymbols().get(value.ordinal()));
+    }
+
+    /** Marks the block as holding entries whose values are not known. */
+    void addUnknown() {
+      unknown = true;
+    }
+
+    /** Returns the statistics of the block and starts the next one. */
+    GenericRecord finish() {
+      GenericRecord result = null;
+      if (!unknown) {
+        result = new GenericData.Record(statsSchema);
+        for (int i = 0; i < positions.length; i++) {
+          GenericRecord stat = new GenericData.Record(statsSchema.getFields().get(i).schema());
+          stat.put(0, raw(i, mins[i]));
+          stat.put(1, raw(i, maxs[i]));
+          stat.put(2, nulls[i]);
+          result.put(i, stat);
+        }
+      }
+      Arrays.fill(mins, null);
+      Arrays.fill(maxs, null);
+      Arrays.fill(nulls, 0);
+      unknown = false;
+      return result;
+    }
+  }
+}
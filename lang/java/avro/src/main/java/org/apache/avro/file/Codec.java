@@ -18,6 +18,7 @@
 package org.apache.avro.file;
 
 import java.io.IOException;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
 /**
@@ -30,12 +31,43 @@ public abstract class Codec {
   /** Name of the codec; written to the file's metadata. */
   public abstract String getName();
 
-  /** Compresses the input data */
+  /**
+   * Compresses the input data. Codecs that transform the data return a new
+   * buffer wrapping an array of exactly its length, as callers may use the
+   * array directly.
+   */
   public abstract ByteBuffer compress(ByteBuffer uncompressedData) throws IOException;
 
-  /** Decompress the data */
+  /**
+   * Decompress the data, following the same contract as
+   * {@link #compress(ByteBuffer)}.
+   */
   public abstract ByteBuffer decompress(ByteBuffer compressedData) throws IOException;
 
+  /**
+   * Compresses the input data into a caller-supplied buffer. The compressed data
+   * is returned between the position and limit of {@code reuse} when it is large
+   * enough, otherwise of a newly allocated buffer, which is direct if
+   * {@code reuse} is, and which callers should pass as {@code reuse} next time.
+   * {@code reuse} may be null and may be heap or direct, as may the input. The
+   * position of the input is left unchanged. Codecs that do not transform the
+   * data may return the input itself.
+   *
+   * The default implementation calls {@link #compress(ByteBuffer)} and copies its
+   * result; codecs override it to avoid allocating per call.
+   */
+  public ByteBuffer compress(ByteBuffer uncompressedData, ByteBuffer reuse) throws IOException {
+    return copy(compress(toHeap(uncompressedData)), reuse);
+  }
+
+  /**
+   * Decompresses the input data into a caller-supplied buffer, following the
+   * same contract as {@link #compress(ByteBuffer, ByteBuffer)}.
+   */
+  public ByteBuffer decompress(ByteBuffer compressedData, ByteBuffer reuse) throws IOException {
+    return copy(decompress(toHeap(compressedData)), reuse);
+  }
+
   /**
    * Codecs must implement an equals() method. Two codecs, A and B are equal if:
    * the result of A and B decompressing content compressed by A is the same AND
@@ -61,4 +93,89 @@ public abstract class Codec {
   protected static int computeOffset(ByteBuffer data) {
     return data.arrayOffset() + data.position();
   }
+
+  // scratch copies of input passed in the other kind of buffer than a codec needs
+  private ByteBuffer heapInput;
+  private ByteBuffer directInput;
+
+  /**
+   * Returns the data itself if it is backed by an array, otherwise a copy of it
+   * in a heap buffer owned by this codec that is only valid until the next call.
+   */
+  protected ByteBuffer toHeap(ByteBuffer data) {
+    if (data.hasArray()) {
+      return data;
+    }
+    heapInput = copy(data, heapInput);
+    return heapInput;
+  }
+
+  /**
+   * Returns the data itself if it is direct, otherwise a copy of it in a direct
+   * buffer owned by this codec that is only valid until the next call.
+   */
+  protected ByteBuffer toDirect(ByteBuffer data) {
+    if (data.isDirect()) {
+      return data;
+    }
+    directInput = copy(data, directInput != null ? directInput : ByteBuffer.allocateDirect(data.remaining()));
+    return directInput;
+  }
+
+  /**
+   * Returns the data itself if it wraps the whole of an array, otherwise a copy
+   * that does, as {@link #compress(ByteBuffer)} and
+   * {@link #decompress(ByteBuffer)} return.
+   */
+  protected static ByteBuffer trim(ByteBuffer data) {
+    if (data.hasArray() && data.arrayOffset() == 0 && data.position() == 0
+        && data.limit() == data.array().length) {
+      return data;
+    }
+    byte[] bytes = new byte[data.remaining()];
+    data.duplicate().get(bytes);
+    return ByteBuffer.wrap(bytes);
+  }
+
+  /**
+   * Returns {@code reuse} cleared for writing if it can hold {@code capacity}
+   * bytes, otherwise a new buffer of that capacity that is direct if
+   * {@code reuse} is.
+   */
+  protected static ByteBuffer ensureCapacity(ByteBuffer reuse, int capacity) {
+    if (reuse != null && reuse.capacity() >= capacity) {
+      ((Buffer) reuse).clear();
+      return reuse;
+    }
+    return reuse != null && reuse.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
+  /**
+   * Returns a buffer of twice the capacity of the given one, of the same kind,
+   * holding the bytes written to it so far and positioned after them.
+   */
+  protected static ByteBuffer grow(ByteBuffer full) {
+    int capacity = Math.max(2 * full.capacity(), 1024);
+    ByteBuffer grown = full.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    ((Buffer) full).flip();
+    return grown.put(full);
+  }
+
+  /**
+   * Copies the remaining bytes of the data into {@code reuse}, or into a new
+   * buffer if that cannot hold them, and returns the buffer ready for reading.
+   * The position of the data is left unchanged.
+   */
+  protected static ByteBuffer copy(ByteBuffer data, ByteBuffer reuse) {
+    ByteBuffer out = ensureCapacity(reuse, data.remaining());
+    if (data.hasArray()) {
+      out.put(data.array(), computeOffset(data), data.remaining());
+    } else {
+      int position = data.position();
+      out.put(data);
+      ((Buffer) data).position(position);
+    }
+    ((Buffer) out).flip();
+    return out;
+  }
 }
@@ -20,8 +20,11 @@ package org.apache.avro.file;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.NoSuchElementException;
 
+import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.InvalidAvroMagicException;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.commons.compress.utils.IOUtils;
@@ -38,6 +41,10 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
   private SeekableInputStream sin;
   private long blockStart;
   private int[] partialMatchTable;
+  private BlockIndex index;
+  private BlockFilter filter;
+  // a block sought to by seekToEntry, read even if the filter would skip it
+  private long unfilteredBlock = -1;
 
   /** Open a reader for a file. */
   public static <D> FileReader<D> openReader(File file, DatumReader<D> reader) throws IOException {
@@ -147,17 +154,99 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
     initialize(this.sin, header);
   }
 
+  /**
+   * Use an index of the blocks of this file, e.g. one read with
+   * {@link BlockIndex#load(File)}, for {@link #seekToEntry(long)},
+   * {@link #getEntryCount()} and {@link #setBlockFilter(BlockFilter)}. Removing
+   * the index removes any filter.
+   *
+   * @throws IllegalArgumentException if the index is not of this file, or the
+   *                                  file was appended to since it was indexed.
+   */
+  public void setBlockIndex(BlockIndex index) throws IOException {
+    if (index != null && !index.matches(getHeader(), sin.length())) {
+      throw new IllegalArgumentException("Block index is not of this file or is out of date");
+    }
+    this.index = index;
+    if (index == null) {
+      this.filter = null;
+    }
+  }
+
+  /**
+   * Skip blocks that the statistics in the block index show to hold no entries
+   * matching a filter, without reading their data. Entries of the blocks read
+   * must still be tested. When reading a range with {@link #pastSync(long)},
+   * call it after {@link #hasNext()}, which may move past several blocks.
+   *
+   * @param filter the filter, or null to read all blocks
+   * @throws IllegalStateException if no block index was set.
+   */
+  public void setBlockFilter(BlockFilter filter) {
+    if (filter != null) {
+      requireIndex();
+    }
+    this.filter = filter;
+  }
+
+  /** The filter blocks are skipped with, or null if none was set. */
+  public BlockFilter getBlockFilter() {
+    return filter;
+  }
+
+  /** The index of the blocks of this file, or null if none was set. */
+  public BlockIndex getBlockIndex() {
+    return index;
+  }
+
+  /**
+   * Return the number of entries in this file, as given by its block index.
+   *
+   * @throws IllegalStateException if no block index was set.
+   */
+  public long getEntryCount() {
+    return requireIndex().getEntryCount();
+  }
+
+  /**
+   * Move to an entry, counting from zero, so that it is returned by the next
+   * call to {@link #next()}. Only the block that holds the entry is read, as
+   * given by the block index. That block is read even if a block filter would
+   * skip it; later blocks are filtered as usual.
+   *
+   * @throws IllegalStateException  if no block index was set.
+   * @throws NoSuchElementException if the file has fewer entries.
+   */
+  public void seekToEntry(long entry) throws IOException {
+    BlockIndex blocks = requireIndex();
+    int block = blocks.findBlock(entry);
+    seek(blocks.getOffset(block));
+    unfilteredBlock = blocks.getOffset(block);
+    for (long i = blocks.getFirstEntry(block); i < entry; i++) {
+      skipEntry();
+    }
+  }
+
+  private BlockIndex requireIndex() {
+    if (index == null) {
+      throw new IllegalStateException("No block index");
+    }
+    return index;
+  }
+
   /**
    * Move to a specific, known synchronization point, one returned from
    * {@link DataFileWriter#sync()} while writing. If synchronization points were
    * not saved while writing a file, use {@link #sync(long)} instead.
    */
   public void seek(long position) throws IOException {
+    discardReadAhead();
     sin.seek(position);
     vin = DecoderFactory.get().binaryDecoder(this.sin, vin);
     datumIn = null;
     blockRemaining = 0;
     blockStart = position;
+    unfilteredBlock = -1;
   }
 
   /**
@@ -229,7 +318,56 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
 
   @Override
   protected void blockFinished() throws IOException {
-    blockStart = sin.tell() - vin.inputStream().available();
+    // when blocks are read ahead, the input is already past this block's end
+    blockStart = blockEnd >= 0 ? blockEnd : sin.tell() - vin.inputStream().available();
+  }
+
+  @Override
+  boolean hasNextBlock() {
+    if (filter == null) {
+      return super.hasNextBlock();
+    }
+    try {
+      while (true) {
+        // a block whose counts were already read is not at an indexed position
+        long position = nextBlockPosition();
+        if (!super.hasNextBlock()) {
+          return false;
+        }
+        if (position == unfilteredBlock) {
+          unfilteredBlock = -1;
+          return true;
+        }
+        int block = index.findOffset(position);
+        if (block < 0 || filter.mightMatch(index, block)) {
+          return true;
+        }
+        skipRawBlock();
+        long next = nextBlockPosition();
+        if (!blocksSkipped(next)) {
+          blockStart = next;
+        }
+      }
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
+  @Override
+  long nextBlockPosition() throws IOException {
+    return sin.tell() - vin.inputStream().available();
+  }
+
+  @Override
+  ByteBuffer sliceNext(int length) throws IOException {
+    if (!(sin.in instanceof SeekableMappedFileInput)) {
+      return null;
+    }
+    ByteBuffer slice = ((SeekableMappedFileInput) sin.in).slice(nextBlockPosition(), length);
+    if (slice != null) {
+      vin.skipFixed(length);
+    }
+    return slice;
   }
 
   /** Return the last synchronization point before our current position. */
@@ -245,7 +383,8 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
 
   @Override
   public long tell() throws IOException {
-    return sin.tell();
+    // blocks read ahead of the current one are not yet consumed
+    return blockEnd >= 0 ? blockEnd : sin.tell();
   }
 
   static class SeekableInputStream extends InputStream implements SeekableInput {
@@ -299,10 +438,10 @@ public class DataFileReader<D> extends DataFileStream<D> implements FileReader<D
       long length = in.length();
       long remaining = length - position;
       if (remaining > skip) {
-        in.seek(skip);
+        in.seek(position + skip);
         return in.tell() - position;
       } else {
-        in.seek(remaining);
+        in.seek(length);
         return in.tell() - position;
       }
     }
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.DataFileStream.Header;
+import org.apache.avro.io.DatumReader;
+import org.apache.commons.compress.utils.IOUtils;
+
+/**
+ * A {@link Spliterator} over the entries of a container file that splits by
+ * byte ranges, so that a file can be read by several threads at once, e.g.
+ * through {@link #stream(File, Supplier, boolean)}.
+ *
+ * As with input splits in MapReduce, each range holds the blocks whose
+ * synchronization marker precedes them within it, read with
+ * {@link DataFileReader#sync(long)} and {@link DataFileReader#pastSync(long)}.
+ * Each range has its own input and its own {@link DatumReader}, obtained from
+ * the given supplier. Entries are not reused.
+ *
+ * When the file has a {@link BlockIndex} sidecar, ranges are instead made of
+ * whole blocks with about the same number of entries, and the spliterator is
+ * {@link #SIZED}. The sidecar is read with {@link BlockIndex#load(File)}.
+ */
+public class DataFileSpliterator<D> implements Spliterator<D> {
+  /** The default smallest range that is split further. */
+  public static final long DEFAULT_MIN_SPLIT_SIZE = 1 << 20;
+
+  private final File file;
+  private final Supplier<DatumReader<D>> readers;
+  private final Header header;
+  private final BlockIndex index;
+  private final long minSplitSize;
+  // readers opened by this spliterator and all split from it, for close()
+  private final Set<DataFileReader<D>> open;
+  // a range of bytes, or of blocks when there is an index
+  private long start;
+  private final long end;
+  private long remaining; // entries left in a range of blocks
+  private DataFileReader<D> reader;
+
+  /**
+   * Construct a spliterator over the whole file, reading the header, with
+   * {@link #DEFAULT_MIN_SPLIT_SIZE}.
+   */
+  public DataFileSpliterator(File file, Supplier<DatumReader<D>> readers) throws IOException {
+    this(file, readers, DEFAULT_MIN_SPLIT_SIZE);
+  }
+
+  /**
+   * Construct a spliterator over the whole file, reading the header. Ranges
+   * smaller than twice <i>minSplitSize</i> are not split.
+   */
+  public DataFileSpliterator(File file, Supplier<DatumReader<D>> readers, long minSplitSize) throws IOException {
+    this.file = file;
+    this.readers = readers;
+    this.minSplitSize = Math.max(minSplitSize, DataFileConstants.SYNC_SIZE);
+    this.open = ConcurrentHashMap.newKeySet();
+    this.start = 0;
+    BlockIndex blocks;
+    try (DataFileReader<D> headerReader = new DataFileReader<>(file, readers.get())) {
+      this.header = headerReader.getHeader();
+      blocks = BlockIndex.load(file, headerReader);
+    }
+    if (blocks != null) {
+      this.index = blocks;
+      this.end = blocks.getBlockCount();
+      this.remaining = blocks.getEntryCount();
+    } else {
+      this.index = null;
+      this.end = file.length();
+    }
+  }
+
+  private DataFileSpliterator(DataFileSpliterator<D> parent, long start, long end) {
+    this.file = parent.file;
+    this.readers = parent.readers;
+    this.header = parent.header;
+    this.index = parent.index;
+    this.minSplitSize = parent.minSplitSize;
+    this.open = parent.open;
+    this.start = start;
+    this.end = end;
+    if (index != null) {
+      this.remaining = firstEntry(end) - firstEntry(start);
+    }
+  }
+
+  /**
+   * Returns a stream of the entries of a file that is read by several threads if
+   * <i>parallel</i>. Closing the stream closes any input still open.
+   */
+  public static <D> Stream<D> stream(File file, Supplier<DatumReader<D>> readers, boolean parallel)
+      throws IOException {
+    DataFileSpliterator<D> spliterator = new DataFileSpliterator<>(file, readers);
+    return StreamSupport.stream(spliterator, parallel).onClose(spliterator::close);
+  }
+
+  /** The header of the file. */
+  public Header getHeader() {
+    return header;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super D> action) {
+    try {
+      if (reader == null && !open()) {
+        return false;
+      }
+      if (index != null ? remaining > 0 : reader.hasNext() && !reader.pastSync(end)) {
+        D datum = reader.next();
+        if (index != null) {
+          remaining--;
+        }
+        action.accept(datum);
+        return true;
+      }
+      finish();
+      return false;
+    } catch (IOException e) {
+      throw new AvroRuntimeException(e);
+    }
+  }
+
+  @Override
+  public void forEachRemaining(Consumer<? super D> action) {
+    while (tryAdvance(action)) {
+    }
+  }
+
+  /**
+   * Hands the first half of the remaining range to a new spliterator, unless
+   * reading has started or the range is too small.
+   */
+  @Override
+  public Spliterator<D> trySplit() {
+    long middle;
+    if (reader != null) {
+      return null;
+    } else if (index != null) {
+      if (end - start < 2) {
+        return null;
+      }
+      // the block holding the middle entry, but leaving a block on either side
+      long first = firstEntry(start);
+      middle = index.findBlock(first + (firstEntry(end) - first) / 2);
+      middle = Math.min(Math.max(middle, start + 1), end - 1);
+    } else {
+      if (end - start < 2 * minSplitSize) {
+        return null;
+      }
+      middle = start + (end - start) / 2;
+    }
+    DataFileSpliterator<D> prefix = new DataFileSpliterator<>(this, start, middle);
+    start = middle;
+    if (index != null) {
+      remaining -= prefix.remaining;
+    }
+    return prefix;
+  }
+
+  /**
+   * The number of entries left if there is a block index, else the number of
+   * bytes in the range, as the number of entries is unknown.
+   */
+  @Override
+  public long estimateSize() {
+    if (index != null) {
+      return remaining;
+    }
+    return reader == null ? end - start : Long.MAX_VALUE;
+  }
+
+  @Override
+  public int characteristics() {
+    return index != null ? ORDERED | SIZED | SUBSIZED : ORDERED;
+  }
+
+  /** Closes the inputs still open by this spliterator and those split from it. */
+  public void close() {
+    for (DataFileReader<D> r : open) {
+      IOUtils.closeQuietly(r);
+    }
+    open.clear();
+  }
+
+  private boolean open() throws IOException {
+    if (start >= end) {
+      return false;
+    }
+    SeekableFileInput in = new SeekableFileInput(file);
+    try {
+      if (index != null) {
+        in.seek(index.getOffset((int) start));
+        reader = DataFileReader.openReader(in, readers.get(), header, false);
+      } else {
+        in.seek(start);
+        reader = DataFileReader.openReader(in, readers.get(), header, true);
+      }
+    } catch (IOException | RuntimeException e) {
+      IOUtils.closeQuietly(in);
+      throw e;
+    }
+    open.add(reader);
+    return true;
+  }
+
+  // the number of entries before a block, or in the file past the last block
+  private long firstEntry(long block) {
+    return block < index.getBlockCount() ? index.getFirstEntry((int) block) : index.getEntryCount();
+  }
+
+  private void finish() throws IOException {
+    open.remove(reader);
+    reader.close();
+    reader = null;
+    start = end;
+  }
+}
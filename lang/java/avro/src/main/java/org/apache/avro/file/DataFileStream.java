@@ -21,8 +21,10 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Closeable;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -31,10 +33,17 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.InvalidAvroMagicException;
 import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.BinaryDecoder;
@@ -80,6 +89,18 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
   byte[] syncBuffer = new byte[DataFileConstants.SYNC_SIZE];
   private Codec codec;
 
+  private int readAheadThreads = 0;
+  private long readAheadBytes;
+  private ExecutorService decompressor;
+  private ThreadLocal<Codec> decompressorCodec;
+  private final ArrayDeque<ReadAheadBlock> readAhead = new ArrayDeque<>();
+  private final ArrayDeque<DataBlock> freeBlocks = new ArrayDeque<>();
+  private long readAheadBuffered; // compressed bytes held in readAhead
+  /**
+   * Input position following the current block when it was read ahead, else -1.
+   */
+  long blockEnd = -1;
+
   /**
    * Construct a reader for an input stream. For file-based input, use
    * {@link DataFileReader}. This will buffer, wrapping with a
@@ -184,6 +205,56 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     return Long.parseLong(getMetaString(key));
   }
 
+  /**
+   * Configures this stream to decompress blocks ahead of the one being read, on
+   * a pool of background threads.
+   *
+   * When <i>threads</i> is greater than zero, {@link #hasNext()} reads up to
+   * twice <i>threads</i> blocks beyond the current one and hands them to
+   * <i>threads</i> decompressor threads, each with its own {@link Codec}
+   * instance, so that decompression overlaps with decoding the current block.
+   * Blocks are still read from the input, in order, by the calling thread. No
+   * more blocks are read ahead once <i>maxBytes</i> of compressed data are
+   * waiting, though at least one block is always read ahead. Each of those
+   * blocks is held in memory in decompressed form once its thread completes.
+   * The threads are daemons, and exit when idle or once the last block is read,
+   * so that a stream read to its end need not be closed to release them.
+   *
+   * Read-ahead applies to {@link #hasNext()}, {@link #next()} and
+   * {@link #nextBlock()}; it has no effect on files using the null codec. The
+   * default, zero, decompresses each block on the calling thread when it is
+   * reached.
+   *
+   * @param threads  the number of decompressor threads, or zero to disable
+   *                 read-ahead
+   * @param maxBytes the number of compressed bytes that may be read ahead
+   * @return this stream
+   * @throws IllegalStateException if blocks have already been read ahead
+   */
+  public DataFileStream<D> setReadAhead(int threads, long maxBytes) {
+    if (threads < 0) {
+      throw new IllegalArgumentException("Invalid number of read-ahead threads: " + threads);
+    }
+    if (maxBytes < 0) {
+      throw new IllegalArgumentException("Invalid read-ahead size: " + maxBytes);
+    }
+    if (!readAhead.isEmpty()) {
+      throw new IllegalStateException("Blocks have already been read ahead");
+    }
+    shutdownDecompressor();
+    this.readAheadThreads = threads;
+    this.readAheadBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * @return the number of threads used to decompress blocks ahead, or zero if
+   *         blocks are decompressed on the calling thread.
+   */
+  public int getReadAheadThreads() {
+    return readAheadThreads;
+  }
+
   /**
    * Returns an iterator over entries in this file. Note that this iterator is
    * shared with other users of the file: it does not contain a separate pointer
@@ -208,12 +279,13 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
             throw new IOException("Block read partially, the data may be corrupt");
           }
         }
-        if (hasNextBlock()) {
+        if (readAheadThreads > 0 && !(codec instanceof NullCodec)) {
+          nextReadAheadBlock();
+        } else if (hasNextBlock()) {
           block = nextRawBlock(block);
           block.decompressUsing(codec);
           blockBuffer = block.getAsByteBuffer();
-          datumIn = DecoderFactory.get().binaryDecoder(blockBuffer.array(),
-              blockBuffer.arrayOffset() + blockBuffer.position(), blockBuffer.remaining(), datumIn);
+          datumIn = DecoderFactory.get().binaryDecoder(blockBuffer, datumIn);
         }
       }
       return blockRemaining != 0;
@@ -224,6 +296,127 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
   }
 
+  /**
+   * Makes the oldest block read ahead current, after reading further blocks
+   * ahead as allowed. Leaves blockRemaining zero at the end of the file.
+   */
+  private void nextReadAheadBlock() throws IOException {
+    if (decompressor == null) {
+      // idle threads exit, so that a stream that is not closed does not keep them
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(readAheadThreads, readAheadThreads, 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(), new CodecThreadFactory("avro-decompressor"));
+      pool.allowCoreThreadTimeOut(true);
+      decompressor = pool;
+      decompressorCodec = ThreadLocal.withInitial(this::resolveCodec);
+    }
+    if (block != null) {
+      freeBlocks.add(block);
+      block = null;
+      blockEnd = -1;
+    }
+    readAheadBlocks();
+    ReadAheadBlock next = readAhead.poll();
+    if (next == null) { // at the end; the pool is created again if more is read
+      shutdownDecompressor();
+      return;
+    }
+    readAheadBuffered -= next.compressedSize;
+    try {
+      block = next.block.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while decompressing block", e);
+    } catch (ExecutionException e) {
+      discardReadAhead();
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new AvroRuntimeException(e.getCause());
+    }
+    blockEnd = next.end;
+    // reading ahead overwrites the counts of the block reached in the input
+    readAheadBlocks();
+    blockRemaining = blockCount = block.getNumEntries();
+    blockSize = next.compressedSize;
+    blockBuffer = block.getAsByteBuffer();
+    datumIn = DecoderFactory.get().binaryDecoder(blockBuffer, datumIn);
+  }
+
+  private void readAheadBlocks() throws IOException {
+    while (readAhead.size() < 2 * readAheadThreads && (readAhead.isEmpty() || readAheadBuffered < readAheadBytes)
+        && hasNextBlock()) {
+      final DataBlock raw = nextRawBlock(freeBlocks.poll());
+      final int compressedSize = raw.getBlockSize();
+      readAhead.add(new ReadAheadBlock(compressedSize, nextBlockPosition(), decompressor.submit(() -> {
+        raw.decompressUsing(decompressorCodec.get());
+        return raw;
+      })));
+      readAheadBuffered += compressedSize;
+    }
+  }
+
+  /**
+   * Drops all blocks read ahead. Used when the input is repositioned.
+   */
+  void discardReadAhead() {
+    for (ReadAheadBlock pending : readAhead) {
+      pending.block.cancel(false);
+    }
+    readAhead.clear();
+    readAheadBuffered = 0;
+    availableBlock = false;
+    blockEnd = -1;
+  }
+
+  private void shutdownDecompressor() {
+    discardReadAhead();
+    if (decompressor != null) {
+      decompressor.shutdown();
+      decompressor = null;
+      decompressorCodec = null;
+    }
+  }
+
+  /**
+   * The position in the input following the last block read, or -1 if the input
+   * does not track positions.
+   */
+  long nextBlockPosition() throws IOException {
+    return -1;
+  }
+
+  /**
+   * Accounts blocks skipped in the input, up to a position, to the last block
+   * read ahead or else the current block, so that the next block read is seen to
+   * start at the position once that one is finished.
+   *
+   * @return false if there is no block to account them to
+   */
+  boolean blocksSkipped(long position) {
+    ReadAheadBlock last = readAhead.peekLast();
+    if (last != null) {
+      last.end = position;
+    } else if (blockEnd >= 0) {
+      blockEnd = position;
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  /** A block being decompressed ahead of the current one. */
+  private static class ReadAheadBlock {
+    private final int compressedSize;
+    private long end;
+    private final Future<DataBlock> block;
+
+    ReadAheadBlock(int compressedSize, long end, Future<DataBlock> block) {
+      this.compressedSize = compressedSize;
+      this.end = end;
+      this.block = block;
+    }
+  }
+
   /**
    * Read the next datum in the file.
    * 
@@ -254,7 +447,12 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     return result;
   }
 
-  /** Expert: Return the next block in the file, as binary-encoded data. */
+  /**
+   * Expert: Return the next block in the file, as binary-encoded data. The
+   * buffers that blocks are decompressed into are reused, and may be direct, so
+   * this returns a copy on the heap, which remains valid as further blocks are
+   * read.
+   */
   public ByteBuffer nextBlock() throws IOException {
     if (!hasNext())
       throw new NoSuchElementException();
@@ -262,7 +460,7 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
       throw new IllegalStateException("Not at block start.");
     blockRemaining = 0;
     datumIn = null;
-    return blockBuffer;
+    return Codec.copy(blockBuffer, null);
   }
 
   /** Expert: Return the count of items in the current block. */
@@ -304,14 +502,22 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     if (!hasNextBlock()) {
       throw new NoSuchElementException();
     }
-    if (reuse == null || reuse.data.length < (int) blockSize) {
-      reuse = new DataBlock(blockRemaining, (int) blockSize);
+    ByteBuffer slice = sliceNext((int) blockSize);
+    if (slice != null) {
+      if (reuse == null) {
+        reuse = new DataBlock(slice, blockRemaining);
+      } else {
+        reuse.reset(slice, blockRemaining);
+      }
     } else {
-      reuse.numEntries = blockRemaining;
-      reuse.blockSize = (int) blockSize;
+      if (reuse == null) {
+        reuse = new DataBlock(blockRemaining, (int) blockSize);
+      } else {
+        reuse.reset(blockRemaining, (int) blockSize);
+      }
+      // throws if it can't read the size requested
+      vin.readFixed(reuse.raw.array(), 0, (int) blockSize);
     }
-    // throws if it can't read the size requested
-    vin.readFixed(reuse.data, 0, reuse.blockSize);
     vin.readFixed(syncBuffer);
     availableBlock = false;
     if (!Arrays.equals(syncBuffer, header.sync))
@@ -319,6 +525,37 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     return reuse;
   }
 
+  /** Moves past the block whose counts were read, without reading its data. */
+  void skipRawBlock() throws IOException {
+    if (!hasNextBlock()) {
+      throw new NoSuchElementException();
+    }
+    vin.skipFixed((int) blockSize);
+    vin.readFixed(syncBuffer);
+    availableBlock = false;
+    blockRemaining = 0;
+    if (!Arrays.equals(syncBuffer, header.sync))
+      throw new IOException("Invalid sync!");
+  }
+
+  /** Moves past the next entry without reading it into an object. */
+  void skipEntry() throws IOException {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    GenericDatumReader.skip(header.schema, datumIn);
+    if (0 == --blockRemaining) {
+      blockFinished();
+    }
+  }
+
+  /**
+   * Returns the next <i>length</i> bytes of the input without copying them,
+   * moving past them, or null if the input can not provide them so.
+   */
+  ByteBuffer sliceNext(int length) throws IOException {
+    return null;
+  }
+
   /** Not supported. */
   @Override
   public void remove() {
@@ -328,31 +565,43 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
   /** Close this reader. */
   @Override
   public void close() throws IOException {
+    shutdownDecompressor();
     vin.inputStream().close();
   }
 
   static class DataBlock {
-    private byte[] data;
+    // the content of the block, between position and limit
+    private ByteBuffer data;
     private long numEntries;
-    private int blockSize;
-    private int offset = 0;
     private boolean flushOnWrite = true;
+    // kept from block to block: what was read from the input, and what a codec
+    // produced in either direction, so that reusing a block reuses its memory
+    private ByteBuffer raw;
+    private ByteBuffer compressed;
+    private ByteBuffer decompressed;
 
     private DataBlock(long numEntries, int blockSize) {
-      this.data = new byte[blockSize];
-      this.numEntries = numEntries;
-      this.blockSize = blockSize;
+      reset(numEntries, blockSize);
     }
 
     DataBlock(ByteBuffer block, long numEntries) {
-      this.data = block.array();
-      this.blockSize = block.remaining();
-      this.offset = block.arrayOffset() + block.position();
+      reset(block, numEntries);
+    }
+
+    /** Prepares this block to read <i>blockSize</i> bytes from the input. */
+    private void reset(long numEntries, int blockSize) {
+      if (raw == null || raw.capacity() < blockSize) {
+        raw = ByteBuffer.allocate(blockSize);
+      }
+      ((Buffer) raw).clear().limit(blockSize);
+      this.data = raw;
       this.numEntries = numEntries;
     }
 
-    byte[] getData() {
-      return data;
+    /** Makes this block hold the given data, keeping the codec buffers. */
+    void reset(ByteBuffer block, long numEntries) {
+      this.data = block;
+      this.numEntries = numEntries;
     }
 
     long getNumEntries() {
@@ -360,7 +609,7 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
     }
 
     int getBlockSize() {
-      return blockSize;
+      return data.remaining();
     }
 
     boolean isFlushOnWrite() {
@@ -371,26 +620,35 @@ public class DataFileStream<D> implements Iterator<D>, Iterable<D>, Closeable {
       this.flushOnWrite = flushOnWrite;
     }
 
+    /** The content of this block; only valid until the block is reused. */
     ByteBuffer getAsByteBuffer() {
-      return ByteBuffer.wrap(data, offset, blockSize);
+      return data;
     }
 
     void decompressUsing(Codec c) throws IOException {
-      ByteBuffer result = c.decompress(getAsByteBuffer());
-      data = result.array();
-      blockSize = result.remaining();
+      ByteBuffer result = c.decompress(data, decompressed);
+      if (result != data) {
+        decompressed = result;
+      }
+      data = result;
     }
 
     void compressUsing(Codec c) throws IOException {
-      ByteBuffer result = c.compress(getAsByteBuffer());
-      data = result.array();
-      blockSize = result.remaining();
+      ByteBuffer result = c.compress(data, compressed);
+      if (result != data) {
+        compressed = result;
+      }
+      data = result;
     }
 
     void writeBlockTo(BinaryEncoder e, byte[] sync) throws IOException {
       e.writeLong(this.numEntries);
-      e.writeLong(this.blockSize);
-      e.writeFixed(this.data, offset, this.blockSize);
+      e.writeLong(data.remaining());
+      if (data.hasArray()) {
+        e.writeFixed(data.array(), data.arrayOffset() + data.position(), data.remaining());
+      } else {
+        e.writeFixed(data);
+      }
       e.writeFixed(sync);
       if (flushOnWrite) {
         e.flush();
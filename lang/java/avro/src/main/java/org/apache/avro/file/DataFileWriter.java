@@ -20,7 +20,6 @@ package org.apache.avro.file;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import java.io.BufferedOutputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FilterOutputStream;
@@ -29,16 +28,25 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
 import org.apache.avro.file.DataFileStream.DataBlock;
+import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.EncoderFactory;
@@ -75,9 +83,24 @@ public class DataFileWriter<D> implements Closeable, Flushable {
 
   private boolean isOpen;
   private Codec codec;
+  private CodecFactory codecFactory;
 
   private boolean flushOnEveryBlock = true;
 
+  private int compressionThreads = 0;
+  private ExecutorService compressor;
+  private ThreadLocal<Codec> compressorCodec;
+  private final ArrayDeque<PendingBlock> pendingBlocks = new ArrayDeque<>();
+  private final ArrayDeque<NonCopyingByteArrayOutputStream> freeBuffers = new ArrayDeque<>();
+  private boolean indexBlocks;
+  private BlockIndex index;
+  private File indexFile;
+  private long indexBase; // length of the file appended to
+  private String[] statsFields;
+  private BlockIndex.Collector stats;
+  // blocks are reused with the buffers their codec compressed into
+  private final ArrayDeque<DataBlock> freeBlocks = new ArrayDeque<>();
+
   /** Construct a writer, not yet open. */
   public DataFileWriter(DatumWriter<D> dout) {
     this.dout = dout;
@@ -99,11 +122,101 @@ public class DataFileWriter<D> implements Closeable, Flushable {
    */
   public DataFileWriter<D> setCodec(CodecFactory c) {
     assertNotOpen();
+    this.codecFactory = c;
     this.codec = c.createInstance();
     setMetaInternal(DataFileConstants.CODEC, codec.getName());
     return this;
   }
 
+  /**
+   * Configures this writer to compress blocks on a pool of background threads.
+   * May not be reset after writes have begun.
+   *
+   * When <i>threads</i> is greater than zero, each full block is handed to one
+   * of <i>threads</i> compressor threads, each with its own {@link Codec}
+   * instance, while {@link #append(Object)} continues to fill the next block.
+   * Compressed blocks are written to the file in the order in which they were
+   * filled, so the file is identical to one written without compression threads.
+   * At most twice <i>threads</i> blocks are held in memory awaiting compression
+   * or output; when that limit is reached, {@link #append(Object)} waits for the
+   * oldest block to be written.
+   *
+   * {@link #sync()}, {@link #flush()} and {@link #close()} wait for all pending
+   * blocks to be written. The default, zero, compresses each block on the
+   * appending thread.
+   *
+   * @param threads the number of compressor threads, or zero to compress inline
+   * @return this DataFileWriter
+   */
+  public DataFileWriter<D> setCompressionThreads(int threads) {
+    assertNotOpen();
+    if (threads < 0) {
+      throw new IllegalArgumentException("Invalid number of compression threads: " + threads);
+    }
+    this.compressionThreads = threads;
+    return this;
+  }
+
+  /**
+   * @return the number of threads used to compress blocks, or zero if blocks are
+   *         compressed on the appending thread.
+   */
+  public int getCompressionThreads() {
+    return compressionThreads;
+  }
+
+  /**
+   * Configures this writer to record the position, entry count and uncompressed
+   * size of each block in a {@link BlockIndex}. May not be reset after writes
+   * have begun.
+   *
+   * When the file is created with {@link #create(Schema, File)} or opened with
+   * {@link #appendTo(File)}, {@link #close()} writes the index to the file named
+   * by {@link BlockIndex#sidecar(File)}. Otherwise it is available from
+   * {@link #getBlockIndex()}. When appending, the blocks already in the file are
+   * indexed by reading their headers. Appending to a {@link File} without an
+   * index deletes any index the file had.
+   *
+   * @param indexBlocks true to index blocks
+   * @return this DataFileWriter
+   */
+  public DataFileWriter<D> setBlockIndex(boolean indexBlocks) {
+    assertNotOpen();
+    this.indexBlocks = indexBlocks;
+    return this;
+  }
+
+  /**
+   * Configures this writer to record in its {@link BlockIndex} the minimum,
+   * maximum and null count of the named top-level fields in each block, so that
+   * readers may skip blocks with a {@link BlockFilter}. Fields must be of a
+   * primitive, enum or fixed type, or a union of one with null. Implies
+   * {@link #setBlockIndex(boolean)}. May not be reset after writes have begun.
+   *
+   * Statistics are not known for blocks written by
+   * {@link #appendEncoded(ByteBuffer)} or copied by
+   * {@link #appendAllFrom(DataFileStream, boolean)}, which readers never skip.
+   *
+   * @param fields the names of the fields, or none to record no statistics
+   * @return this DataFileWriter
+   */
+  public DataFileWriter<D> setBlockStatistics(String... fields) {
+    assertNotOpen();
+    this.statsFields = fields.length > 0 ? fields.clone() : null;
+    if (statsFields != null) {
+      this.indexBlocks = true;
+    }
+    return this;
+  }
+
+  /**
+   * @return the index of the blocks written so far, or null if blocks are not
+   *         indexed.
+   */
+  public BlockIndex getBlockIndex() {
+    return index;
+  }
+
   /**
    * Set the synchronization interval for this file, in bytes. Valid values range
    * from 32 to 2^30 Suggested values are between 2K and 2M
@@ -133,7 +246,9 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   public DataFileWriter<D> create(Schema schema, File file) throws IOException {
     SyncableFileOutputStream sfos = new SyncableFileOutputStream(file);
     try {
-      return create(schema, sfos, null);
+      create(schema, sfos, null);
+      indexFile = indexBlocks ? BlockIndex.sidecar(file) : null;
+      return this;
     } catch (final Throwable e) {
       IOUtils.closeQuietly(sfos);
       throw e;
@@ -159,6 +274,10 @@ public class DataFileWriter<D> implements Closeable, Flushable {
       throw new IOException("sync must be exactly 16 bytes");
     }
 
+    if (indexBlocks) {
+      index = new BlockIndex(this.sync, statisticsSchema());
+    }
+
     init(outs);
 
     vout.writeFixed(DataFileConstants.MAGIC); // write magic
@@ -173,6 +292,9 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     vout.writeMapEnd();
     vout.writeFixed(this.sync); // write initial sync
     vout.flush(); // vout may be buffered, flush before writing to out
+    if (index != null) {
+      index.setLength(out.tell());
+    }
     return this;
   }
 
@@ -202,7 +324,18 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   public DataFileWriter<D> appendTo(File file) throws IOException {
     try (SeekableInput input = new SeekableFileInput(file)) {
       OutputStream output = new SyncableFileOutputStream(file, true);
-      return appendTo(input, output);
+      appendTo(input, output);
+      if (indexBlocks) {
+        indexFile = BlockIndex.sidecar(file);
+        // sizes of the blocks already written are only known to the old index
+        if (indexFile.isFile()) {
+          index.copySizes(BlockIndex.read(indexFile));
+        }
+      } else {
+        // an index left as is would no longer cover the whole file
+        Files.deleteIfExists(BlockIndex.sidecar(file).toPath());
+      }
+      return this;
     }
     // output does not need to be closed here. It will be closed by invoking close()
     // of this writer.
@@ -224,9 +357,14 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     byte[] codecBytes = this.meta.get(DataFileConstants.CODEC);
     if (codecBytes != null) {
       String strCodec = new String(codecBytes, StandardCharsets.UTF_8);
-      this.codec = CodecFactory.fromString(strCodec).createInstance();
+      this.codecFactory = CodecFactory.fromString(strCodec);
     } else {
-      this.codec = CodecFactory.nullCodec().createInstance();
+      this.codecFactory = CodecFactory.nullCodec();
+    }
+    this.codec = codecFactory.createInstance();
+    if (indexBlocks) {
+      index = BlockIndex.scan(reader, statisticsSchema());
+      indexBase = in.length();
     }
 
     init(out);
@@ -240,14 +378,29 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     EncoderFactory efactory = new EncoderFactory();
     this.vout = efactory.binaryEncoder(out, null);
     dout.setSchema(schema);
-    buffer = new NonCopyingByteArrayOutputStream(Math.min((int) (syncInterval * 1.25), Integer.MAX_VALUE / 2 - 1));
+    buffer = newBuffer();
     this.bufOut = efactory.binaryEncoder(buffer, null);
+    if (index != null && index.getStatisticsSchema() != null) {
+      GenericData data = dout instanceof GenericDatumWriter ? ((GenericDatumWriter<D>) dout).getData()
+          : GenericData.get();
+      stats = new BlockIndex.Collector(index.getStatisticsSchema(), schema, data);
+    }
     if (this.codec == null) {
-      this.codec = CodecFactory.nullCodec().createInstance();
+      this.codecFactory = CodecFactory.nullCodec();
+      this.codec = codecFactory.createInstance();
+    }
+    // the null codec does no work worth handing off to another thread
+    if (compressionThreads > 0 && !(codec instanceof NullCodec)) {
+      this.compressor = Executors.newFixedThreadPool(compressionThreads, new CodecThreadFactory("avro-compressor"));
+      this.compressorCodec = ThreadLocal.withInitial(codecFactory::createInstance);
     }
     this.isOpen = true;
   }
 
+  private NonCopyingByteArrayOutputStream newBuffer() {
+    return new NonCopyingByteArrayOutputStream(Math.min((int) (syncInterval * 1.25), Integer.MAX_VALUE / 2 - 1));
+  }
+
   private static byte[] generateSync() {
     try {
       MessageDigest digester = MessageDigest.getInstance("MD5");
@@ -312,6 +465,9 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     int usedBuffer = bufferInUse();
     try {
       dout.write(datum, bufOut);
+      if (stats != null) {
+        stats.add(datum);
+      }
     } catch (IOException | RuntimeException e) {
       resetBufferTo(usedBuffer);
       throw new AppendWriteException(e);
@@ -338,6 +494,9 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   public void appendEncoded(ByteBuffer datum) throws IOException {
     assertOpen();
     bufOut.writeFixed(datum);
+    if (stats != null) {
+      stats.addUnknown();
+    }
     blockCount++;
     writeIfBlockFull();
   }
@@ -379,33 +538,38 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
     // flush anything written so far
     writeBlock();
+    writePendingBlocks(0);
     Codec otherCodec = otherFile.resolveCodec();
     DataBlock nextBlockRaw = null;
     if (codec.equals(otherCodec) && !recompress) {
       // copy raw bytes
       while (otherFile.hasNextBlock()) {
         nextBlockRaw = otherFile.nextRawBlock(nextBlockRaw);
-        nextBlockRaw.writeBlockTo(vout, sync);
+        writeBlock(nextBlockRaw, -1, null);
       }
     } else {
       while (otherFile.hasNextBlock()) {
         nextBlockRaw = otherFile.nextRawBlock(nextBlockRaw);
         nextBlockRaw.decompressUsing(otherCodec);
+        int uncompressedSize = nextBlockRaw.getBlockSize();
         nextBlockRaw.compressUsing(codec);
-        nextBlockRaw.writeBlockTo(vout, sync);
+        writeBlock(nextBlockRaw, uncompressedSize, null);
       }
     }
   }
 
   private void writeBlock() throws IOException {
+    if (compressor != null) {
+      submitBlock();
+      return;
+    }
     if (blockCount > 0) {
       try {
         bufOut.flush();
-        ByteBuffer uncompressed = buffer.getByteArrayAsByteBuffer();
-        DataBlock block = new DataBlock(uncompressed, blockCount);
-        block.setFlushOnWrite(flushOnEveryBlock);
+        DataBlock block = nextBlock();
         block.compressUsing(codec);
-        block.writeBlockTo(vout, sync);
+        writeBlock(block, buffer.size(), stats != null ? stats.finish() : null);
+        freeBlocks.add(block);
       } finally {
         buffer.reset();
         blockCount = 0;
@@ -413,6 +577,104 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
   }
 
+  /**
+   * Hands the current block to the compressor threads and continues appending to
+   * a recycled buffer. Waits for the oldest pending block to be written when too
+   * many blocks are in flight.
+   */
+  private void submitBlock() throws IOException {
+    if (blockCount > 0) {
+      bufOut.flush();
+      final DataBlock block = nextBlock();
+      pendingBlocks.add(new PendingBlock(buffer, stats != null ? stats.finish() : null, compressor.submit(() -> {
+        block.compressUsing(compressorCodec.get());
+        return block;
+      })));
+      NonCopyingByteArrayOutputStream next = freeBuffers.poll();
+      buffer = next != null ? next : newBuffer();
+      bufOut = EncoderFactory.get().binaryEncoder(buffer, bufOut);
+      blockCount = 0;
+      writePendingBlocks(2 * compressionThreads);
+    }
+  }
+
+  /**
+   * Writes compressed blocks, in order, until at most <i>maxPending</i> remain in
+   * flight.
+   */
+  private void writePendingBlocks(int maxPending) throws IOException {
+    while (pendingBlocks.size() > maxPending) {
+      PendingBlock pending = pendingBlocks.peek();
+      DataBlock block;
+      try {
+        block = pending.block.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while compressing block", e);
+      } catch (ExecutionException e) {
+        // the file can not continue without the block; drop everything in flight
+        discardPendingBlocks();
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new AvroRuntimeException(e.getCause());
+      }
+      pendingBlocks.poll();
+      writeBlock(block, pending.buffer.size(), pending.stats);
+      // the uncompressed buffer may be reused once its block is out
+      pending.buffer.reset();
+      freeBuffers.add(pending.buffer);
+      freeBlocks.add(block);
+    }
+  }
+
+  private void writeBlock(DataBlock block, long uncompressedSize, GenericRecord blockStats) throws IOException {
+    if (index != null) {
+      index.add(indexBase + out.tell() + vout.bytesBuffered(), block.getNumEntries(), uncompressedSize, blockStats);
+    }
+    block.writeBlockTo(vout, sync);
+    if (index != null) {
+      index.setLength(indexBase + out.tell() + vout.bytesBuffered());
+    }
+  }
+
+  private Schema statisticsSchema() {
+    return statsFields != null ? BlockIndex.statisticsSchema(schema, statsFields) : null;
+  }
+
+  /** Returns a block, recycled if possible, holding the current buffer. */
+  private DataBlock nextBlock() {
+    ByteBuffer uncompressed = buffer.getByteArrayAsByteBuffer();
+    DataBlock block = freeBlocks.poll();
+    if (block == null) {
+      block = new DataBlock(uncompressed, blockCount);
+    } else {
+      block.reset(uncompressed, blockCount);
+    }
+    block.setFlushOnWrite(flushOnEveryBlock);
+    return block;
+  }
+
+  private void discardPendingBlocks() {
+    for (PendingBlock pending : pendingBlocks) {
+      pending.block.cancel(false);
+    }
+    pendingBlocks.clear();
+  }
+
+  /** A block being compressed, with the buffer holding its uncompressed data. */
+  private static class PendingBlock {
+    private final NonCopyingByteArrayOutputStream buffer;
+    private final GenericRecord stats;
+    private final Future<DataBlock> block;
+
+    PendingBlock(NonCopyingByteArrayOutputStream buffer, GenericRecord stats, Future<DataBlock> block) {
+      this.buffer = buffer;
+      this.stats = stats;
+      this.block = block;
+    }
+  }
+
   /**
    * Return the current position as a value that may be passed to
    * {@link DataFileReader#seek(long)}. Forces the end of the current block,
@@ -426,6 +688,7 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   public long sync() throws IOException {
     assertOpen();
     writeBlock();
+    writePendingBlocks(0);
     return out.tell();
   }
 
@@ -457,9 +720,21 @@ public class DataFileWriter<D> implements Closeable, Flushable {
   @Override
   public void close() throws IOException {
     if (isOpen) {
-      flush();
-      out.close();
-      isOpen = false;
+      try {
+        flush();
+        out.close();
+      } finally {
+        // closed even if flushing failed, as blocks in flight are dropped
+        isOpen = false;
+        if (compressor != null) {
+          discardPendingBlocks();
+          compressor.shutdown();
+          compressor = null;
+        }
+      }
+      if (indexFile != null) {
+        index.write(indexFile);
+      }
     }
   }
 
@@ -500,14 +775,4 @@ public class DataFileWriter<D> implements Closeable, Flushable {
     }
   }
 
-  private static class NonCopyingByteArrayOutputStream extends ByteArrayOutputStream {
-    NonCopyingByteArrayOutputStream(int initialSize) {
-      super(initialSize);
-    }
-
-    ByteBuffer getByteArrayAsByteBuffer() {
-      return ByteBuffer.wrap(buf, 0, count);
-    }
-  }
-
 }
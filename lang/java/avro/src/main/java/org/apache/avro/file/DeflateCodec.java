@@ -17,14 +17,12 @@
  */
 package org.apache.avro.file;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
 import java.util.zip.Inflater;
-import java.util.zip.InflaterOutputStream;
 
 /**
  * Implements DEFLATE (RFC1951) compression and decompression.
@@ -49,7 +47,8 @@ public class DeflateCodec extends Codec {
     }
   }
 
-  private ByteArrayOutputStream outputBuffer;
+  // heap buffer deflated or inflated into when the caller's buffer is direct
+  private ByteBuffer outputBuffer;
   private Deflater deflater;
   private Inflater inflater;
   // currently only do 'nowrap' -- RFC 1951, not zlib
@@ -67,20 +66,78 @@ public class DeflateCodec extends Codec {
 
   @Override
   public ByteBuffer compress(ByteBuffer data) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
-    try (OutputStream outputStream = new DeflaterOutputStream(baos, getDeflater())) {
-      outputStream.write(data.array(), computeOffset(data), data.remaining());
-    }
-    return ByteBuffer.wrap(baos.toByteArray());
+    return trim(compress(data, null));
   }
 
   @Override
   public ByteBuffer decompress(ByteBuffer data) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
-    try (OutputStream outputStream = new InflaterOutputStream(baos, getInflater())) {
-      outputStream.write(data.array(), computeOffset(data), data.remaining());
+    return trim(decompress(data, null));
+  }
+
+  @Override
+  public ByteBuffer compress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(data);
+    Deflater deflater = getDeflater();
+    deflater.setInput(in.array(), computeOffset(in), in.remaining());
+    deflater.finish();
+    ByteBuffer out = getOutputBuffer(reuse, in.remaining() / 2);
+    while (!deflater.finished()) {
+      if (!out.hasRemaining()) {
+        out = grow(out);
+      }
+      int n = deflater.deflate(out.array(), computeOffset(out), out.remaining());
+      ((Buffer) out).position(out.position() + n);
+    }
+    return finish(out, reuse);
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(data);
+    Inflater inflater = getInflater();
+    inflater.setInput(in.array(), computeOffset(in), in.remaining());
+    ByteBuffer out = getOutputBuffer(reuse, in.remaining() * 4);
+    try {
+      while (!inflater.finished()) {
+        if (!out.hasRemaining()) {
+          out = grow(out);
+        }
+        int n = inflater.inflate(out.array(), computeOffset(out), out.remaining());
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        ((Buffer) out).position(out.position() + n);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    }
+    return finish(out, reuse);
+  }
+
+  // get a heap buffer to deflate or inflate into, grown as needed: the
+  // caller's if it is on the heap, otherwise our own, copied from by finish().
+  private ByteBuffer getOutputBuffer(ByteBuffer reuse, int suggestedLength) {
+    if (reuse == null) {
+      return ByteBuffer.allocate(Math.max(suggestedLength, 1024));
+    }
+    ByteBuffer out = reuse;
+    if (reuse.isDirect()) {
+      if (null == outputBuffer) {
+        outputBuffer = ByteBuffer.allocate(Math.max(suggestedLength, 1024));
+      }
+      out = outputBuffer;
     }
-    return ByteBuffer.wrap(baos.toByteArray());
+    ((Buffer) out).clear();
+    return out;
+  }
+
+  private ByteBuffer finish(ByteBuffer out, ByteBuffer reuse) {
+    ((Buffer) out).flip();
+    if (reuse != null && reuse.isDirect()) {
+      outputBuffer = out;
+      return copy(out, reuse);
+    }
+    return out;
   }
 
   // get and initialize the inflater for use.
@@ -101,15 +158,6 @@ public class DeflateCodec extends Codec {
     return deflater;
   }
 
-  // get and initialize the output buffer for use.
-  private ByteArrayOutputStream getOutputBuffer(int suggestedLength) {
-    if (null == outputBuffer) {
-      outputBuffer = new ByteArrayOutputStream(suggestedLength);
-    }
-    outputBuffer.reset();
-    return outputBuffer;
-  }
-
   @Override
   public int hashCode() {
     return nowrap ? 0 : 1;
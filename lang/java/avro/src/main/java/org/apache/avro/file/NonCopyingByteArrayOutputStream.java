@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteArrayOutputStream} whose contents can be read through a
+ * {@link ByteBuffer} without copying. The buffer is reused for as long as the
+ * underlying array is.
+ */
+class NonCopyingByteArrayOutputStream extends ByteArrayOutputStream {
+  private ByteBuffer view;
+
+  NonCopyingByteArrayOutputStream(int initialSize) {
+    super(initialSize);
+  }
+
+  /**
+   * Returns the bytes written so far. The buffer is only valid until the next
+   * write or reset.
+   */
+  ByteBuffer getByteArrayAsByteBuffer() {
+    if (view == null || view.array() != buf) {
+      view = ByteBuffer.wrap(buf);
+    }
+    ((Buffer) view).clear().limit(count);
+    return view;
+  }
+}
@@ -50,6 +50,16 @@ final class NullCodec extends Codec {
     return data;
   }
 
+  @Override
+  public ByteBuffer compress(ByteBuffer buffer, ByteBuffer reuse) throws IOException {
+    return buffer;
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    return data;
+  }
+
   @Override
   public boolean equals(Object other) {
     if (this == other)
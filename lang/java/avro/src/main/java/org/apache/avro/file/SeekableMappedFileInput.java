@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link SeekableInput} that reads a local file through memory mappings,
+ * avoiding a system call per read. Files larger than 2GB are mapped as several
+ * regions.
+ *
+ * A {@link DataFileReader} reading from this input takes the blocks of the file
+ * straight from the mapping, so uncompressed blocks are decoded without being
+ * copied first.
+ */
+public class SeekableMappedFileInput implements SeekableInput {
+  static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+  private final long length;
+  private final int regionSize;
+  private MappedByteBuffer[] regions;
+  private long position;
+
+  public SeekableMappedFileInput(File file) throws IOException {
+    this(file, DEFAULT_REGION_SIZE);
+  }
+
+  SeekableMappedFileInput(File file, int regionSize) throws IOException {
+    this.regionSize = regionSize;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      // mappings stay valid once the channel is closed
+      FileChannel channel = raf.getChannel();
+      this.length = channel.size();
+      this.regions = new MappedByteBuffer[(int) ((length + regionSize - 1) / regionSize)];
+      for (int i = 0; i < regions.length; i++) {
+        long start = (long) i * regionSize;
+        regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, length - start));
+      }
+    }
+  }
+
+  @Override
+  public void seek(long p) throws IOException {
+    if (p < 0) {
+      throw new IOException("Illegal seek: " + p);
+    }
+    position = p;
+  }
+
+  @Override
+  public long tell() throws IOException {
+    return position;
+  }
+
+  @Override
+  public long length() throws IOException {
+    return length;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (regions == null) {
+      throw new IOException("Stream closed");
+    }
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= length) {
+      return -1;
+    }
+    // reads stop at the end of a region; callers read again for the rest
+    ByteBuffer region = regions[(int) (position / regionSize)];
+    int offset = (int) (position % regionSize);
+    int n = Math.min(len, region.limit() - offset);
+    ((Buffer) region).position(offset);
+    region.get(b, off, n);
+    position += n;
+    return n;
+  }
+
+  /**
+   * Returns a buffer over <i>length</i> bytes of the file starting at
+   * <i>start</i>, without copying them, or null if they are empty or cross
+   * regions.
+   */
+  ByteBuffer slice(long start, int length) throws IOException {
+    if (regions == null) {
+      throw new IOException("Stream closed");
+    }
+    if (start < 0 || start + length > this.length) {
+      throw new EOFException();
+    }
+    int offset = (int) (start % regionSize);
+    if (length == 0 || offset + (long) length > regionSize) {
+      return null;
+    }
+    ByteBuffer slice = regions[(int) (start / regionSize)].duplicate();
+    ((Buffer) slice).limit(offset + length).position(offset);
+    return slice;
+  }
+
+  /** Releases the mappings, which are unmapped once no buffer refers to them. */
+  @Override
+  public void close() throws IOException {
+    regions = null;
+  }
+}
@@ -51,33 +51,75 @@ public class SnappyCodec extends Codec {
 
   @Override
   public ByteBuffer compress(ByteBuffer in) throws IOException {
-    int offset = computeOffset(in);
-    ByteBuffer out = ByteBuffer.allocate(Snappy.maxCompressedLength(in.remaining()) + 4);
-    int size = Snappy.compress(in.array(), offset, in.remaining(), out.array(), 0);
-    crc32.reset();
-    crc32.update(in.array(), offset, in.remaining());
-    out.putInt(size, (int) crc32.getValue());
+    return trim(compress(in, null));
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer in) throws IOException {
+    return trim(decompress(in, null));
+  }
 
+  @Override
+  public ByteBuffer compress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer out = ensureCapacity(reuse, Snappy.maxCompressedLength(data.remaining()) + 4);
+    int size;
+    if (out.isDirect()) {
+      ByteBuffer in = toDirect(data);
+      size = Snappy.compress(in, out);
+      update(in);
+    } else {
+      ByteBuffer in = toHeap(data);
+      int offset = computeOffset(in);
+      size = Snappy.compress(in.array(), offset, in.remaining(), out.array(), out.arrayOffset());
+      crc32.reset();
+      crc32.update(in.array(), offset, in.remaining());
+    }
     ((Buffer) out).limit(size + 4);
+    out.putInt(size, (int) crc32.getValue());
 
     return out;
   }
 
   @Override
-  public ByteBuffer decompress(ByteBuffer in) throws IOException {
-    int offset = computeOffset(in);
-    ByteBuffer out = ByteBuffer.allocate(Snappy.uncompressedLength(in.array(), offset, in.remaining() - 4));
-    int size = Snappy.uncompress(in.array(), offset, in.remaining() - 4, out.array(), 0);
+  public ByteBuffer decompress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    int limit = ((Buffer) data).limit();
+    ByteBuffer out;
+    int size;
+    if (reuse != null && reuse.isDirect()) {
+      ByteBuffer in = toDirect(data);
+      int inLimit = ((Buffer) in).limit();
+      ((Buffer) in).limit(inLimit - 4);
+      try {
+        out = ensureCapacity(reuse, Snappy.uncompressedLength(in));
+        size = Snappy.uncompress(in, out);
+      } finally {
+        ((Buffer) in).limit(inLimit);
+      }
+      update(out);
+    } else {
+      ByteBuffer in = toHeap(data);
+      int offset = computeOffset(in);
+      out = ensureCapacity(reuse, Snappy.uncompressedLength(in.array(), offset, in.remaining() - 4));
+      size = Snappy.uncompress(in.array(), offset, in.remaining() - 4, out.array(), out.arrayOffset());
+      crc32.reset();
+      crc32.update(out.array(), out.arrayOffset(), size);
+    }
     ((Buffer) out).limit(size);
 
-    crc32.reset();
-    crc32.update(out.array(), 0, size);
-    if (in.getInt(((Buffer) in).limit() - 4) != (int) crc32.getValue())
+    if (data.getInt(limit - 4) != (int) crc32.getValue())
       throw new IOException("Checksum failure");
 
     return out;
   }
 
+  // checksum the remaining bytes of a direct buffer without moving its position
+  private void update(ByteBuffer buffer) {
+    int position = buffer.position();
+    crc32.reset();
+    crc32.update(buffer);
+    ((Buffer) buffer).position(position);
+  }
+
   @Override
   public int hashCode() {
     return getName().hashCode();
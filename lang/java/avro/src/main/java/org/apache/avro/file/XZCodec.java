@@ -18,7 +18,6 @@
 package org.apache.avro.file;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -45,7 +44,7 @@ public class XZCodec extends Codec {
     }
   }
 
-  private ByteArrayOutputStream outputBuffer;
+  private NonCopyingByteArrayOutputStream outputBuffer;
   private int compressionLevel;
 
   public XZCodec(int compressionLevel) {
@@ -59,28 +58,40 @@ public class XZCodec extends Codec {
 
   @Override
   public ByteBuffer compress(ByteBuffer data) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
+    return trim(compress(data, null));
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer data) throws IOException {
+    return trim(decompress(data, null));
+  }
+
+  @Override
+  public ByteBuffer compress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(data);
+    NonCopyingByteArrayOutputStream baos = getOutputBuffer(in.remaining());
     try (OutputStream outputStream = new XZCompressorOutputStream(baos, compressionLevel)) {
-      outputStream.write(data.array(), computeOffset(data), data.remaining());
+      outputStream.write(in.array(), computeOffset(in), in.remaining());
     }
-    return ByteBuffer.wrap(baos.toByteArray());
+    return copy(baos.getByteArrayAsByteBuffer(), reuse);
   }
 
   @Override
-  public ByteBuffer decompress(ByteBuffer data) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
-    InputStream bytesIn = new ByteArrayInputStream(data.array(), computeOffset(data), data.remaining());
+  public ByteBuffer decompress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(data);
+    NonCopyingByteArrayOutputStream baos = getOutputBuffer(in.remaining());
+    InputStream bytesIn = new ByteArrayInputStream(in.array(), computeOffset(in), in.remaining());
 
     try (InputStream ios = new XZCompressorInputStream(bytesIn)) {
       IOUtils.copy(ios, baos);
     }
-    return ByteBuffer.wrap(baos.toByteArray());
+    return copy(baos.getByteArrayAsByteBuffer(), reuse);
   }
 
   // get and initialize the output buffer for use.
-  private ByteArrayOutputStream getOutputBuffer(int suggestedLength) {
+  private NonCopyingByteArrayOutputStream getOutputBuffer(int suggestedLength) {
     if (null == outputBuffer) {
-      outputBuffer = new ByteArrayOutputStream(suggestedLength);
+      outputBuffer = new NonCopyingByteArrayOutputStream(suggestedLength);
     }
     outputBuffer.reset();
     return outputBuffer;
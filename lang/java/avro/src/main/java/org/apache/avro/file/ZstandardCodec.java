@@ -18,10 +18,9 @@
 package org.apache.avro.file;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.Buffer;
 import java.nio.ByteBuffer;
 
 import org.apache.commons.compress.utils.IOUtils;
@@ -45,7 +44,9 @@ public class ZstandardCodec extends Codec {
 
   private final int compressionLevel;
   private final boolean useChecksum;
-  private ByteArrayOutputStream outputBuffer;
+  private NonCopyingByteArrayOutputStream outputBuffer;
+  // the header of a frame in a heap buffer, read for its decompressed size
+  private final byte[] frameHeader = new byte[ZstandardLoader.FRAME_HEADER_SIZE_MAX];
 
   /**
    * Create a ZstandardCodec instance with the given compressionLevel and checksum
@@ -63,33 +64,67 @@ public class ZstandardCodec extends Codec {
 
   @Override
   public ByteBuffer compress(ByteBuffer data) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(data.remaining());
-    try (OutputStream outputStream = ZstandardLoader.output(baos, compressionLevel, useChecksum)) {
-      outputStream.write(data.array(), computeOffset(data), data.remaining());
-    }
-    return ByteBuffer.wrap(baos.toByteArray());
+    return trim(compress(data, null));
   }
 
   @Override
   public ByteBuffer decompress(ByteBuffer compressedData) throws IOException {
-    ByteArrayOutputStream baos = getOutputBuffer(compressedData.remaining());
-    InputStream bytesIn = new ByteArrayInputStream(compressedData.array(), computeOffset(compressedData),
-        compressedData.remaining());
+    return trim(decompress(compressedData, null));
+  }
+
+  @Override
+  public ByteBuffer compress(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = input(data, reuse);
+    ByteBuffer out = ensureCapacity(reuse, ZstandardLoader.compressBound(in.remaining()));
+    int size = ZstandardLoader.compress(out, in, compressionLevel, useChecksum);
+    ((Buffer) out).limit(size);
+    return out;
+  }
+
+  @Override
+  public ByteBuffer decompress(ByteBuffer compressedData, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = input(compressedData, reuse);
+    long contentSize = ZstandardLoader.frameContentSize(in, frameHeader);
+    if (contentSize < 0 || contentSize > Integer.MAX_VALUE) {
+      // frames written by streaming compression, as by earlier releases, do not
+      // record their size, so they are not decompressed in one shot
+      return decompressStream(in, reuse);
+    }
+    ByteBuffer out = ensureCapacity(reuse, (int) contentSize);
+    int size;
+    // blocks holding several frames are larger than their first frame
+    while ((size = ZstandardLoader.decompress(out, in)) < 0) {
+      out = ensureCapacity(out, Math.max(2 * out.capacity(), 1024));
+    }
+    ((Buffer) out).limit(size);
+    return out;
+  }
+
+  private ByteBuffer decompressStream(ByteBuffer data, ByteBuffer reuse) throws IOException {
+    ByteBuffer in = toHeap(data);
+    NonCopyingByteArrayOutputStream baos = getOutputBuffer(in.remaining() * 4);
+    InputStream bytesIn = new ByteArrayInputStream(in.array(), computeOffset(in), in.remaining());
     try (InputStream ios = ZstandardLoader.input(bytesIn)) {
       IOUtils.copy(ios, baos);
     }
-    return ByteBuffer.wrap(baos.toByteArray());
+    return copy(baos.getByteArrayAsByteBuffer(), reuse);
   }
 
   // get and initialize the output buffer for use.
-  private ByteArrayOutputStream getOutputBuffer(int suggestedLength) {
-    if (outputBuffer == null) {
-      outputBuffer = new ByteArrayOutputStream(suggestedLength);
+  private NonCopyingByteArrayOutputStream getOutputBuffer(int suggestedLength) {
+    if (null == outputBuffer) {
+      outputBuffer = new NonCopyingByteArrayOutputStream(suggestedLength);
     }
     outputBuffer.reset();
     return outputBuffer;
   }
 
+  // zstd works between two heap or two direct buffers, so the input is copied
+  // if it is not of the same kind as the output
+  private ByteBuffer input(ByteBuffer data, ByteBuffer reuse) {
+    return reuse != null && reuse.isDirect() ? toDirect(data) : toHeap(data);
+  }
+
   @Override
   public int hashCode() {
     return getName().hashCode();
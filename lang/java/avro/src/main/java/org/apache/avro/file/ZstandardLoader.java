@@ -19,26 +19,91 @@ package org.apache.avro.file;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
 import com.github.luben.zstd.ZstdInputStream;
-import com.github.luben.zstd.ZstdOutputStream;
 
 /* causes lazier classloader initialization of ZStandard libraries, so that
  * we get NoClassDefFoundError when we try and use the Codec's compress
  * or decompress methods rather than when we instantiate it */
 final class ZstandardLoader {
 
+  // ZSTD_FRAMEHEADERSIZE_MAX, as FRAME_HEADER_SIZE_MAX is not implemented
+  // by all zstd-jni builds
+  static final int FRAME_HEADER_SIZE_MAX = 18;
+
   static InputStream input(InputStream compressed) throws IOException {
     return new ZstdInputStream(compressed);
   }
 
-  static OutputStream output(OutputStream compressed, int level, boolean checksum) throws IOException {
+  static int compressBound(int length) {
+    return (int) Zstd.compressBound(length);
+  }
+
+  // one-shot compression between two heap or two direct buffers, writing from
+  // the position of dst and reading the remaining bytes of src
+  static int compress(ByteBuffer dst, ByteBuffer src, int level, boolean checksum) throws IOException {
     int bounded = Math.max(Math.min(level, Zstd.maxCompressionLevel()), Zstd.minCompressionLevel());
-    ZstdOutputStream zstdOutputStream = new ZstdOutputStream(compressed, bounded);
-    zstdOutputStream.setCloseFrameOnFlush(false);
-    zstdOutputStream.setChecksum(checksum);
-    return zstdOutputStream;
+    long size;
+    try {
+      if (dst.isDirect()) {
+        size = Zstd.compressDirectByteBuffer(dst, dst.position(), dst.remaining(), src, src.position(),
+            src.remaining(), bounded, checksum);
+      } else {
+        size = Zstd.compressByteArray(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining(), src.array(),
+            src.arrayOffset() + src.position(), src.remaining(), bounded, checksum);
+      }
+    } catch (ZstdException e) {
+      size = -e.getErrorCode();
+    }
+    if (Zstd.isError(size)) {
+      throw new IOException("Zstandard compression failed: " + Zstd.getErrorName(size));
+    }
+    return (int) size;
+  }
+
+  // one-shot decompression between two heap or two direct buffers; returns -1
+  // if dst does not have room for the decompressed data
+  static int decompress(ByteBuffer dst, ByteBuffer src) throws IOException {
+    long size;
+    try {
+      if (dst.isDirect()) {
+        size = Zstd.decompressDirectByteBuffer(dst, dst.position(), dst.remaining(), src, src.position(),
+            src.remaining());
+      } else {
+        size = Zstd.decompressByteArray(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining(),
+            src.array(), src.arrayOffset() + src.position(), src.remaining());
+      }
+    } catch (ZstdException e) {
+      size = -e.getErrorCode();
+    }
+    if (Zstd.isError(size)) {
+      if (Zstd.getErrorCode(size) == Zstd.errDstSizeTooSmall()) {
+        return -1;
+      }
+      throw new IOException("Zstandard decompression failed: " + Zstd.getErrorName(size));
+    }
+    return (int) size;
+  }
+
+  // the decompressed size recorded in the header of the frame at the position
+  // of src, or -1 if the frame does not record it, as when it was written by
+  // streaming compression; the header of a heap frame is copied into the
+  // FRAME_HEADER_SIZE_MAX bytes of header, as zstd reads it from an array start
+  static long frameContentSize(ByteBuffer src, byte[] header) {
+    long size;
+    if (src.isDirect()) {
+      size = Zstd.decompressedDirectByteBufferSize(src, src.position(), src.remaining());
+    } else {
+      int length = Math.min(src.remaining(), FRAME_HEADER_SIZE_MAX);
+      System.arraycopy(src.array(), src.arrayOffset() + src.position(), header, 0, length);
+      Arrays.fill(header, length, FRAME_HEADER_SIZE_MAX, (byte) 0);
+      size = Zstd.decompressedSize(header);
+    }
+    // zero also stands for an unknown size or an invalid header
+    return size > 0 ? size : -1;
   }
 }
@@ -53,6 +53,7 @@ import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.io.FastReaderBuilder;
+import org.apache.avro.io.FastWriterBuilder;
 import org.apache.avro.util.Utf8;
 import org.apache.avro.util.internal.Accessor;
 
@@ -200,6 +201,26 @@ public class GenericData {
     return this.fastReaderBuilder;
   }
 
+  public static final String FAST_WRITER_PROP = "org.apache.avro.fastwrite";
+  private boolean fastWriterEnabled = "true".equalsIgnoreCase(System.getProperty(FAST_WRITER_PROP));
+  private FastWriterBuilder fastWriterBuilder = null;
+
+  public GenericData setFastWriterEnabled(boolean flag) {
+    this.fastWriterEnabled = flag;
+    return this;
+  }
+
+  public boolean isFastWriterEnabled() {
+    return fastWriterEnabled && FastWriterBuilder.isSupportedData(this);
+  }
+
+  public FastWriterBuilder getFastWriterBuilder() {
+    if (fastWriterBuilder == null) {
+      fastWriterBuilder = new FastWriterBuilder(this);
+    }
+    return this.fastWriterBuilder;
+  }
+
   /**
    * Default implementation of {@link GenericRecord}. Note that this
    * implementation does not fill in default values for fields if they are not
@@ -1365,7 +1386,8 @@ public class GenericData {
   /*
    * Called to create new array instances. Subclasses may override to use a
    * different array implementation. By default, this returns a {@link
-   * GenericData.Array}.
+   * GenericData.Array}, or for elements of a primitive type, without
+   * properties, one of {@link PrimitivesArrays}.
    */
   public Object newArray(Object old, int size, Schema schema) {
     if (old instanceof GenericArray) {
@@ -1374,8 +1396,15 @@ public class GenericData {
     } else if (old instanceof Collection) {
       ((Collection<?>) old).clear();
       return old;
-    } else
+    } else {
+      // properties such as java-class may have values read as other types
+      if (!schema.getElementType().hasProps()) {
+        GenericArray<?> array = PrimitivesArrays.newArray(size, schema);
+        if (array != null)
+          return array;
+      }
       return new GenericData.Array<Object>(size, schema);
+    }
   }
 
   /**
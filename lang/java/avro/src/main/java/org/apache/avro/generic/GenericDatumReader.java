@@ -34,7 +34,7 @@ import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.Decoder;
-import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.ResolverCache;
 import org.apache.avro.io.ResolvingDecoder;
 import org.apache.avro.util.Utf8;
 import org.apache.avro.util.WeakIdentityHashMap;
@@ -110,8 +110,9 @@ public class GenericDatumReader<D> implements DatumReader<D> {
 
   /**
    * Gets a resolving decoder for use by this GenericDatumReader. Unstable API.
-   * Currently uses a thread local cache to prevent constructing the resolvers too
-   * often, because that is very expensive.
+   * Currently uses a thread local cache of resolvers, backed by the
+   * {@link ResolverCache} shared by all threads, to prevent generating their
+   * grammars too often, because that is very expensive.
    */
   protected final ResolvingDecoder getResolver(Schema actual, Schema expected) throws IOException {
     Thread currThread = Thread.currentThread();
@@ -127,7 +128,7 @@ public class GenericDatumReader<D> implements DatumReader<D> {
     }
     resolver = cache.get(expected);
     if (resolver == null) {
-      resolver = DecoderFactory.get().resolvingDecoder(Schema.applyAliases(actual, expected), expected, null);
+      resolver = ResolverCache.get().resolvingDecoder(actual, expected, null);
       cache.put(expected, resolver);
     }
 
@@ -287,8 +288,11 @@ public class GenericDatumReader<D> implements DatumReader<D> {
       LogicalType logicalType = expectedType.getLogicalType();
       Conversion<?> conversion = getData().getConversionFor(logicalType);
       Object array = newArray(old, (int) l, expected);
+      boolean primitive = logicalType == null && PrimitivesArrays.isArrayOf(array, expectedType.getType());
       do {
-        if (logicalType != null && conversion != null) {
+        if (primitive) {
+          ((PrimitivesArrays.PrimitiveArray<?>) array).read(in, (int) l);
+        } else if (logicalType != null && conversion != null) {
           for (long i = 0; i < l; i++) {
             addToArray(array, base + i,
                 readWithConversion(peekArray(array), expectedType, logicalType, conversion, in));
@@ -0,0 +1,637 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.generic;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Type;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+
+/**
+ * Implementations of {@link GenericArray} for arrays of ints, longs, floats,
+ * doubles and booleans, backed by arrays of the primitive type rather than of
+ * boxed values. Returned by {@link GenericData#newArray(Object, int, Schema)}
+ * for such schemas, and read by {@link GenericDatumReader} without boxing.
+ */
+public class PrimitivesArrays {
+
+  private PrimitivesArrays() {
+  }
+
+  /**
+   * Return a new array for a schema whose elements are of a primitive type, or
+   * null if they are not.
+   */
+  public static PrimitiveArray<?> newArray(int capacity, Schema schema) {
+    switch (schema.getElementType().getType()) {
+    case INT:
+      return new IntArray(capacity, schema);
+    case LONG:
+      return new LongArray(capacity, schema);
+    case FLOAT:
+      return new FloatArray(capacity, schema);
+    case DOUBLE:
+      return new DoubleArray(capacity, schema);
+    case BOOLEAN:
+      return new BooleanArray(capacity, schema);
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Return true if an object is the array of this class for elements of a type,
+   * so that they may be read into it or written from it without boxing.
+   */
+  public static boolean isArrayOf(Object array, Type elementType) {
+    switch (elementType) {
+    case INT:
+      return array instanceof IntArray;
+    case LONG:
+      return array instanceof LongArray;
+    case FLOAT:
+      return array instanceof FloatArray;
+    case DOUBLE:
+      return array instanceof DoubleArray;
+    case BOOLEAN:
+      return array instanceof BooleanArray;
+    default:
+      return false;
+    }
+  }
+
+  /** Base class of arrays backed by an array of a primitive type. */
+  public abstract static class PrimitiveArray<T> extends AbstractList<T>
+      implements GenericArray<T>, Comparable<GenericArray<T>> {
+    private final Schema schema;
+    int size;
+
+    PrimitiveArray(Schema schema) {
+      if (schema == null || !Type.ARRAY.equals(schema.getType()))
+        throw new AvroRuntimeException("Not an array schema: " + schema);
+      this.schema = schema;
+    }
+
+    @Override
+    public Schema getSchema() {
+      return schema;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      size = 0;
+    }
+
+    /** Primitive values are never reused: always returns null. */
+    @Override
+    public T peek() {
+      return null;
+    }
+
+    @Override
+    public int compareTo(GenericArray<T> that) {
+      return GenericData.get().compare(this, that, this.getSchema());
+    }
+
+    /**
+     * Expert: Append a number of elements read from a decoder, in bulk where the
+     * decoder permits.
+     */
+    public abstract void read(Decoder in, int count) throws IOException;
+
+    /**
+     * Expert: Write the elements to an encoder as items of an array, in bulk
+     * where the encoder permits.
+     */
+    public abstract void write(Encoder out) throws IOException;
+
+    abstract int capacity();
+
+    abstract void resize(int capacity);
+
+    void ensureCapacity(int capacity) {
+      if (capacity > capacity())
+        resize(Math.max(capacity, size + (size >> 1) + 1));
+    }
+
+    void checkIndex(int i) {
+      if (i >= size || i < 0)
+        throw new IndexOutOfBoundsException("Index " + i + " out of bounds.");
+    }
+
+    void checkLocation(int location) {
+      if (location > size || location < 0)
+        throw new IndexOutOfBoundsException("Index " + location + " out of bounds.");
+    }
+  }
+
+  /** An array of ints. */
+  public static class IntArray extends PrimitiveArray<Integer> {
+    private static final int[] EMPTY = new int[0];
+    private int[] elements = EMPTY;
+
+    public IntArray(int capacity, Schema schema) {
+      super(schema);
+      if (capacity != 0)
+        elements = new int[capacity];
+    }
+
+    /** Return an element without boxing it. */
+    public int getInt(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Replace an element without boxing it. */
+    public void setInt(int i, int value) {
+      checkIndex(i);
+      elements[i] = value;
+    }
+
+    /** Append an element without boxing it. */
+    public void addInt(int value) {
+      ensureCapacity(size + 1);
+      elements[size++] = value;
+    }
+
+    /** Return a copy of the elements. */
+    public int[] toIntArray() {
+      return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Integer get(int i) {
+      return getInt(i);
+    }
+
+    @Override
+    public Integer set(int i, Integer o) {
+      checkIndex(i);
+      int response = elements[i];
+      elements[i] = o;
+      return response;
+    }
+
+    @Override
+    public void add(int location, Integer o) {
+      checkLocation(location);
+      ensureCapacity(size + 1);
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Integer remove(int i) {
+      checkIndex(i);
+      int result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        int tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+
+    @Override
+    public void read(Decoder in, int count) throws IOException {
+      ensureCapacity(size + count);
+      in.readInts(elements, size, count);
+      size += count;
+    }
+
+    @Override
+    public void write(Encoder out) throws IOException {
+      out.writeInts(elements, 0, size);
+    }
+
+    @Override
+    int capacity() {
+      return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+      elements = Arrays.copyOf(elements, capacity);
+    }
+  }
+
+  /** An array of longs. */
+  public static class LongArray extends PrimitiveArray<Long> {
+    private static final long[] EMPTY = new long[0];
+    private long[] elements = EMPTY;
+
+    public LongArray(int capacity, Schema schema) {
+      super(schema);
+      if (capacity != 0)
+        elements = new long[capacity];
+    }
+
+    /** Return an element without boxing it. */
+    public long getLong(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Replace an element without boxing it. */
+    public void setLong(int i, long value) {
+      checkIndex(i);
+      elements[i] = value;
+    }
+
+    /** Append an element without boxing it. */
+    public void addLong(long value) {
+      ensureCapacity(size + 1);
+      elements[size++] = value;
+    }
+
+    /** Return a copy of the elements. */
+    public long[] toLongArray() {
+      return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Long get(int i) {
+      return getLong(i);
+    }
+
+    @Override
+    public Long set(int i, Long o) {
+      checkIndex(i);
+      long response = elements[i];
+      elements[i] = o;
+      return response;
+    }
+
+    @Override
+    public void add(int location, Long o) {
+      checkLocation(location);
+      ensureCapacity(size + 1);
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Long remove(int i) {
+      checkIndex(i);
+      long result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        long tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+
+    @Override
+    public void read(Decoder in, int count) throws IOException {
+      ensureCapacity(size + count);
+      in.readLongs(elements, size, count);
+      size += count;
+    }
+
+    @Override
+    public void write(Encoder out) throws IOException {
+      out.writeLongs(elements, 0, size);
+    }
+
+    @Override
+    int capacity() {
+      return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+      elements = Arrays.copyOf(elements, capacity);
+    }
+  }
+
+  /** An array of floats. */
+  public static class FloatArray extends PrimitiveArray<Float> {
+    private static final float[] EMPTY = new float[0];
+    private float[] elements = EMPTY;
+
+    public FloatArray(int capacity, Schema schema) {
+      super(schema);
+      if (capacity != 0)
+        elements = new float[capacity];
+    }
+
+    /** Return an element without boxing it. */
+    public float getFloat(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Replace an element without boxing it. */
+    public void setFloat(int i, float value) {
+      checkIndex(i);
+      elements[i] = value;
+    }
+
+    /** Append an element without boxing it. */
+    public void addFloat(float value) {
+      ensureCapacity(size + 1);
+      elements[size++] = value;
+    }
+
+    /** Return a copy of the elements. */
+    public float[] toFloatArray() {
+      return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Float get(int i) {
+      return getFloat(i);
+    }
+
+    @Override
+    public Float set(int i, Float o) {
+      checkIndex(i);
+      float response = elements[i];
+      elements[i] = o;
+      return response;
+    }
+
+    @Override
+    public void add(int location, Float o) {
+      checkLocation(location);
+      ensureCapacity(size + 1);
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Float remove(int i) {
+      checkIndex(i);
+      float result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        float tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+
+    @Override
+    public void read(Decoder in, int count) throws IOException {
+      ensureCapacity(size + count);
+      in.readFloats(elements, size, count);
+      size += count;
+    }
+
+    @Override
+    public void write(Encoder out) throws IOException {
+      out.writeFloats(elements, 0, size);
+    }
+
+    @Override
+    int capacity() {
+      return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+      elements = Arrays.copyOf(elements, capacity);
+    }
+  }
+
+  /** An array of doubles. */
+  public static class DoubleArray extends PrimitiveArray<Double> {
+    private static final double[] EMPTY = new double[0];
+    private double[] elements = EMPTY;
+
+    public DoubleArray(int capacity, Schema schema) {
+      super(schema);
+      if (capacity != 0)
+        elements = new double[capacity];
+    }
+
+    /** Return an element without boxing it. */
+    public double getDouble(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Replace an element without boxing it. */
+    public void setDouble(int i, double value) {
+      checkIndex(i);
+      elements[i] = value;
+    }
+
+    /** Append an element without boxing it. */
+    public void addDouble(double value) {
+      ensureCapacity(size + 1);
+      elements[size++] = value;
+    }
+
+    /** Return a copy of the elements. */
+    public double[] toDoubleArray() {
+      return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Double get(int i) {
+      return getDouble(i);
+    }
+
+    @Override
+    public Double set(int i, Double o) {
+      checkIndex(i);
+      double response = elements[i];
+      elements[i] = o;
+      return response;
+    }
+
+    @Override
+    public void add(int location, Double o) {
+      checkLocation(location);
+      ensureCapacity(size + 1);
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Double remove(int i) {
+      checkIndex(i);
+      double result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        double tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+
+    @Override
+    public void read(Decoder in, int count) throws IOException {
+      ensureCapacity(size + count);
+      in.readDoubles(elements, size, count);
+      size += count;
+    }
+
+    @Override
+    public void write(Encoder out) throws IOException {
+      out.writeDoubles(elements, 0, size);
+    }
+
+    @Override
+    int capacity() {
+      return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+      elements = Arrays.copyOf(elements, capacity);
+    }
+  }
+
+  /** An array of booleans. */
+  public static class BooleanArray extends PrimitiveArray<Boolean> {
+    private static final boolean[] EMPTY = new boolean[0];
+    private boolean[] elements = EMPTY;
+
+    public BooleanArray(int capacity, Schema schema) {
+      super(schema);
+      if (capacity != 0)
+        elements = new boolean[capacity];
+    }
+
+    /** Return an element without boxing it. */
+    public boolean getBoolean(int i) {
+      checkIndex(i);
+      return elements[i];
+    }
+
+    /** Replace an element without boxing it. */
+    public void setBoolean(int i, boolean value) {
+      checkIndex(i);
+      elements[i] = value;
+    }
+
+    /** Append an element without boxing it. */
+    public void addBoolean(boolean value) {
+      ensureCapacity(size + 1);
+      elements[size++] = value;
+    }
+
+    /** Return a copy of the elements. */
+    public boolean[] toBooleanArray() {
+      return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public Boolean get(int i) {
+      return getBoolean(i);
+    }
+
+    @Override
+    public Boolean set(int i, Boolean o) {
+      checkIndex(i);
+      boolean response = elements[i];
+      elements[i] = o;
+      return response;
+    }
+
+    @Override
+    public void add(int location, Boolean o) {
+      checkLocation(location);
+      ensureCapacity(size + 1);
+      System.arraycopy(elements, location, elements, location + 1, size - location);
+      elements[location] = o;
+      size++;
+    }
+
+    @Override
+    public Boolean remove(int i) {
+      checkIndex(i);
+      boolean result = elements[i];
+      --size;
+      System.arraycopy(elements, i + 1, elements, i, (size - i));
+      return result;
+    }
+
+    @Override
+    public void reverse() {
+      for (int left = 0, right = size - 1; left < right; left++, right--) {
+        boolean tmp = elements[left];
+        elements[left] = elements[right];
+        elements[right] = tmp;
+      }
+    }
+
+    @Override
+    public void read(Decoder in, int count) throws IOException {
+      ensureCapacity(size + count);
+      in.readBooleans(elements, size, count);
+      size += count;
+    }
+
+    @Override
+    public void write(Encoder out) throws IOException {
+      out.writeBooleans(elements, 0, size);
+    }
+
+    @Override
+    int capacity() {
+      return elements.length;
+    }
+
+    @Override
+    void resize(int capacity) {
+      elements = Arrays.copyOf(elements, capacity);
+    }
+  }
+}
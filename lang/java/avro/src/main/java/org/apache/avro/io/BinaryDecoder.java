@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 import org.apache.avro.AvroRuntimeException;
@@ -109,6 +110,22 @@ public class BinaryDecoder extends Decoder {
     return this;
   }
 
+  BinaryDecoder(ByteBuffer data, int bufferSize) {
+    super();
+    configure(data, bufferSize);
+  }
+
+  BinaryDecoder configure(ByteBuffer data, int bufferSize) {
+    if (source instanceof ByteBufferByteSource && buf.length == bufferSize) {
+      // moving on to the next buffer keeps the decoder's own
+      ((ByteBufferByteSource) source).data = data.duplicate();
+      pos = minPos = limit = 0;
+    } else {
+      configureSource(bufferSize, new ByteBufferByteSource(data));
+    }
+    return this;
+  }
+
   /**
    * Initializes this decoder with a new ByteSource. Detaches the old source (if
    * it exists) from this Decoder. The old source's state no longer depends on
@@ -275,6 +292,38 @@ public class BinaryDecoder extends Decoder {
     return Double.longBitsToDouble((((long) n1) & 0xffffffffL) | (((long) n2) << 32));
   }
 
+  @Override
+  public void readFloats(float[] dst, int off, int len) throws IOException {
+    while (len > 0) {
+      int inBuffer = Math.min(len, (limit - pos) / 4);
+      if (inBuffer == 0) { // straddles the end of the buffer
+        dst[off++] = readFloat();
+        len--;
+        continue;
+      }
+      ByteBuffer.wrap(buf, pos, inBuffer * 4).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(dst, off, inBuffer);
+      pos += inBuffer * 4;
+      off += inBuffer;
+      len -= inBuffer;
+    }
+  }
+
+  @Override
+  public void readDoubles(double[] dst, int off, int len) throws IOException {
+    while (len > 0) {
+      int inBuffer = Math.min(len, (limit - pos) / 8);
+      if (inBuffer == 0) { // straddles the end of the buffer
+        dst[off++] = readDouble();
+        len--;
+        continue;
+      }
+      ByteBuffer.wrap(buf, pos, inBuffer * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(dst, off, inBuffer);
+      pos += inBuffer * 8;
+      off += inBuffer;
+      len -= inBuffer;
+    }
+  }
+
   @Override
   public Utf8 readString(Utf8 old) throws IOException {
     long length = readLong();
@@ -339,6 +388,47 @@ public class BinaryDecoder extends Decoder {
     return readInt();
   }
 
+  /**
+   * Skips a run of values, as compiled by {@link FastReaderBuilder} for fields a
+   * reader does not keep. Each positive entry skips that many bytes, each
+   * negative one that many varints and each zero a length and the bytes it
+   * counts.
+   */
+  void skipRun(int[] run) throws IOException {
+    for (int op : run) {
+      if (op > 0) {
+        doSkipBytes(op);
+      } else if (op < 0) {
+        skipVarints(-op);
+      } else {
+        doSkipBytes(readLong());
+      }
+    }
+  }
+
+  private void skipVarints(int count) throws IOException {
+    while (count > 0) {
+      // a varint is at most 10 bytes: scan those sure to be in the buffer
+      // without bounds checks, and decode the rest
+      int inBuffer = Math.min(count, (limit - pos) / 10);
+      if (inBuffer == 0) {
+        readLong();
+        count--;
+        continue;
+      }
+      count -= inBuffer;
+      while (inBuffer-- > 0) {
+        int len = 0;
+        while (buf[pos + len] < 0) {
+          if (++len == 10) {
+            throw new InvalidNumberEncodingException("Invalid long encoding");
+          }
+        }
+        pos += len + 1;
+      }
+    }
+  }
+
   protected void doSkipBytes(long length) throws IOException {
     int remaining = limit - pos;
     if (length <= remaining) {
@@ -897,6 +987,66 @@ public class BinaryDecoder extends Decoder {
     }
   }
 
+  /**
+   * Reads from a {@link ByteBuffer} that has no accessible array, such as a slice
+   * of a memory-mapped file. The decoder's buffer is filled from it as needed and
+   * large reads are copied straight from it, so its content is never copied as a
+   * whole.
+   */
+  private static class ByteBufferByteSource extends ByteSource {
+    private ByteBuffer data;
+
+    private ByteBufferByteSource(ByteBuffer data) {
+      super();
+      this.data = data.duplicate();
+    }
+
+    @Override
+    protected void skipSourceBytes(long length) throws IOException {
+      if (trySkipBytes(length) < length) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    protected long trySkipBytes(long length) throws IOException {
+      int skipped = (int) Math.min(length, data.remaining());
+      ((Buffer) data).position(data.position() + skipped);
+      return skipped;
+    }
+
+    @Override
+    protected void readRaw(byte[] data, int off, int len) throws IOException {
+      if (tryReadRaw(data, off, len) < len) {
+        throw new EOFException();
+      }
+    }
+
+    @Override
+    protected int tryReadRaw(byte[] data, int off, int len) throws IOException {
+      int read = Math.min(len, this.data.remaining());
+      this.data.get(data, off, read);
+      return read;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (ba.getLim() - ba.getPos() == 0) {
+        return data.hasRemaining() ? data.get() & 0xff : -1;
+      } else {
+        int position = ba.getPos();
+        int result = ba.getBuf()[position] & 0xff;
+        ba.setPos(position + 1);
+        return result;
+      }
+    }
+
+    @Override
+    public boolean isEof() {
+      return !data.hasRemaining();
+    }
+  }
+
   /**
    * This byte source is special. It will avoid copying data by using the source's
    * byte[] as a buffer in the decoder.
@@ -277,6 +277,48 @@ public class BlockingBinaryEncoder extends BufferedBinaryEncoder {
     pos += BinaryData.encodeDouble(d, buf, pos);
   }
 
+  // each item must be started, so the bulk writes of the superclass don't apply
+
+  @Override
+  public void writeInts(int[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeInt(src[i]);
+    }
+  }
+
+  @Override
+  public void writeLongs(long[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeLong(src[i]);
+    }
+  }
+
+  @Override
+  public void writeFloats(float[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeFloat(src[i]);
+    }
+  }
+
+  @Override
+  public void writeDoubles(double[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeDouble(src[i]);
+    }
+  }
+
+  @Override
+  public void writeBooleans(boolean[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeBoolean(src[i]);
+    }
+  }
+
   @Override
   public void writeFixed(byte[] bytes, int start, int len) throws IOException {
     doWriteBytes(bytes, start, len);
@@ -20,6 +20,7 @@ package org.apache.avro.io;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
 import java.util.Objects;
@@ -149,6 +150,67 @@ public class BufferedBinaryEncoder extends BinaryEncoder {
     pos += BinaryData.encodeDouble(d, buf, pos);
   }
 
+  @Override
+  public void writeInts(int[] src, int off, int len) throws IOException {
+    int end = off + len;
+    while (off < end) {
+      ensureBounds(5);
+      // encode as many as surely fit in the space left
+      int last = off + Math.min(end - off, (buf.length - pos) / 5);
+      for (; off < last; off++) {
+        pos += BinaryData.encodeInt(src[off], buf, pos);
+      }
+    }
+  }
+
+  @Override
+  public void writeLongs(long[] src, int off, int len) throws IOException {
+    int end = off + len;
+    while (off < end) {
+      ensureBounds(10);
+      int last = off + Math.min(end - off, (buf.length - pos) / 10);
+      for (; off < last; off++) {
+        pos += BinaryData.encodeLong(src[off], buf, pos);
+      }
+    }
+  }
+
+  @Override
+  public void writeFloats(float[] src, int off, int len) throws IOException {
+    int end = off + len;
+    while (off < end) {
+      ensureBounds(4);
+      int n = Math.min(end - off, (buf.length - pos) / 4);
+      ByteBuffer.wrap(buf, pos, n * 4).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().put(src, off, n);
+      pos += n * 4;
+      off += n;
+    }
+  }
+
+  @Override
+  public void writeDoubles(double[] src, int off, int len) throws IOException {
+    int end = off + len;
+    while (off < end) {
+      ensureBounds(8);
+      int n = Math.min(end - off, (buf.length - pos) / 8);
+      ByteBuffer.wrap(buf, pos, n * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(src, off, n);
+      pos += n * 8;
+      off += n;
+    }
+  }
+
+  @Override
+  public void writeBooleans(boolean[] src, int off, int len) throws IOException {
+    int end = off + len;
+    while (off < end) {
+      ensureBounds(1);
+      int last = off + Math.min(end - off, buf.length - pos);
+      for (; off < last; off++) {
+        buf[pos++] = (byte) (src[off] ? 1 : 0);
+      }
+    }
+  }
+
   @Override
   public void writeFixed(byte[] bytes, int start, int len) throws IOException {
     if (len > bulkLimit) {
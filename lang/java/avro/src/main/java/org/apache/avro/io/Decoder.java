@@ -207,6 +207,76 @@ public abstract class Decoder {
    */
   public abstract long arrayNext() throws IOException;
 
+  /**
+   * Reads a number of items of a block of an array of ints into an array, as
+   * would as many calls to {@link #readInt()}. Implementations may read them
+   * in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful reader and int is not the
+   *                           type of the items to be read
+   */
+  public void readInts(int[] dst, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      dst[i] = readInt();
+    }
+  }
+
+  /**
+   * Reads a number of items of a block of an array of longs into an array, as
+   * would as many calls to {@link #readLong()}. Implementations may read them
+   * in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful reader and long is not the
+   *                           type of the items to be read
+   */
+  public void readLongs(long[] dst, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      dst[i] = readLong();
+    }
+  }
+
+  /**
+   * Reads a number of items of a block of an array of floats into an array, as
+   * would as many calls to {@link #readFloat()}. Implementations may read them
+   * in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful reader and float is not the
+   *                           type of the items to be read
+   */
+  public void readFloats(float[] dst, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      dst[i] = readFloat();
+    }
+  }
+
+  /**
+   * Reads a number of items of a block of an array of doubles into an array, as
+   * would as many calls to {@link #readDouble()}. Implementations may read them
+   * in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful reader and double is not the
+   *                           type of the items to be read
+   */
+  public void readDoubles(double[] dst, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      dst[i] = readDouble();
+    }
+  }
+
+  /**
+   * Reads a number of items of a block of an array of booleans into an array, as
+   * would as many calls to {@link #readBoolean()}. Implementations may read them
+   * in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful reader and boolean is not the
+   *                           type of the items to be read
+   */
+  public void readBooleans(boolean[] dst, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      dst[i] = readBoolean();
+    }
+  }
+
   /**
    * Used for quickly skipping through an array. Note you can either skip the
    * entire array, or read the entire array (with {@link #readArrayStart}), but
@@ -19,6 +19,7 @@ package org.apache.avro.io;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.avro.Schema;
 
@@ -219,6 +220,34 @@ public class DecoderFactory {
     }
   }
 
+  /**
+   * Creates or reinitializes a {@link BinaryDecoder} with the remaining bytes of
+   * the buffer provided as the source of data. A buffer backed by an array is
+   * read in place, as by {@link #binaryDecoder(byte[], int, int, BinaryDecoder)}.
+   * Other buffers, such as slices of a memory-mapped file, are read into the
+   * decoder's buffer as needed, as with an input stream, without first copying
+   * their content. The position of the buffer is not changed.
+   *
+   * @param buffer The buffer to initialize to
+   * @param reuse  The BinaryDecoder to attempt to reinitialize. if null a new
+   *               BinaryDecoder is created.
+   * @return A BinaryDecoder that uses <i>buffer</i> as its source of data. If
+   *         <i>reuse</i> is null, this will be a new instance. <i>reuse</i> may
+   *         be reinitialized if appropriate, otherwise a new instance is
+   *         returned. Clients must not assume that <i>reuse</i> is reinitialized
+   *         and returned.
+   */
+  public BinaryDecoder binaryDecoder(ByteBuffer buffer, BinaryDecoder reuse) {
+    if (buffer.hasArray()) {
+      return binaryDecoder(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), reuse);
+    }
+    if (null == reuse || !reuse.getClass().equals(BinaryDecoder.class)) {
+      return new BinaryDecoder(buffer, binaryDecoderBufferSize);
+    } else {
+      return reuse.configure(buffer, binaryDecoderBufferSize);
+    }
+  }
+
   /** @deprecated use {@link #binaryDecoder(byte[], BinaryDecoder)} instead */
   @Deprecated
   public BinaryDecoder createBinaryDecoder(byte[] bytes, BinaryDecoder reuse) {
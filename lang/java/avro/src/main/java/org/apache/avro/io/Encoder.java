@@ -253,6 +253,81 @@ public abstract class Encoder implements Flushable {
    */
   public abstract void startItem() throws IOException;
 
+  /**
+   * Writes a number of items of an array of ints from an array, as would as many
+   * calls to {@link #startItem()} and {@link #writeInt(int)}. Implementations
+   * may write them in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful writer and int is not the
+   *                           type of the items to be written
+   */
+  public void writeInts(int[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeInt(src[i]);
+    }
+  }
+
+  /**
+   * Writes a number of items of an array of longs from an array, as would as
+   * many calls to {@link #startItem()} and {@link #writeLong(long)}.
+   * Implementations may write them in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful writer and long is not the
+   *                           type of the items to be written
+   */
+  public void writeLongs(long[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeLong(src[i]);
+    }
+  }
+
+  /**
+   * Writes a number of items of an array of floats from an array, as would as
+   * many calls to {@link #startItem()} and {@link #writeFloat(float)}.
+   * Implementations may write them in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful writer and float is not the
+   *                           type of the items to be written
+   */
+  public void writeFloats(float[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeFloat(src[i]);
+    }
+  }
+
+  /**
+   * Writes a number of items of an array of doubles from an array, as would as
+   * many calls to {@link #startItem()} and {@link #writeDouble(double)}.
+   * Implementations may write them in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful writer and double is not the
+   *                           type of the items to be written
+   */
+  public void writeDoubles(double[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeDouble(src[i]);
+    }
+  }
+
+  /**
+   * Writes a number of items of an array of booleans from an array, as would as
+   * many calls to {@link #startItem()} and {@link #writeBoolean(boolean)}.
+   * Implementations may write them in bulk.
+   *
+   * @throws AvroTypeException If this is a stateful writer and boolean is not
+   *                           the type of the items to be written
+   */
+  public void writeBooleans(boolean[] src, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      startItem();
+      writeBoolean(src[i]);
+    }
+  }
+
   /**
    * Call this method to finish writing an array. See {@link #writeArrayStart} for
    * usage information.
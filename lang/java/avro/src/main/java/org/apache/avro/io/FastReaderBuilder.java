@@ -17,9 +17,14 @@ package org.apache.avro.io;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.lang.reflect.Array;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -41,6 +46,7 @@ import org.apache.avro.Resolver.WriterUnion;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.generic.GenericArray;
+import org.apache.avro.generic.PrimitivesArrays;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.InstanceSupplier;
 import org.apache.avro.generic.GenericDatumReader;
@@ -49,9 +55,12 @@ import org.apache.avro.generic.GenericFixed;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.avro.io.FastReaderBuilder.RecordReader.Stage;
 import org.apache.avro.io.parsing.ResolvingGrammarGenerator;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumReader;
 import org.apache.avro.reflect.ReflectionUtil;
 import org.apache.avro.specific.SpecificData;
 import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.avro.util.ClassUtils;
 import org.apache.avro.util.Utf8;
 import org.apache.avro.util.WeakIdentityHashMap;
 import org.apache.avro.util.internal.Accessor;
@@ -64,6 +73,9 @@ public class FastReaderBuilder {
    */
   private final GenericData data;
 
+  /** Whether records may be instances of classes read through reflection */
+  private final boolean reflect;
+
   /** first schema is reader schema, second is writer schema */
   private final Map<Schema, Map<Schema, RecordReader>> readerCache = Collections
       .synchronizedMap(new WeakIdentityHashMap<>());
@@ -81,11 +93,13 @@ public class FastReaderBuilder {
   }
 
   public static boolean isSupportedData(GenericData data) {
-    return data.getClass() == GenericData.class || data.getClass() == SpecificData.class;
+    return data.getClass() == GenericData.class || data.getClass() == SpecificData.class
+        || data.getClass() == ReflectData.class;
   }
 
   public FastReaderBuilder(GenericData parentData) {
     this.data = parentData;
+    this.reflect = parentData instanceof ReflectData;
   }
 
   public FastReaderBuilder withKeyClassEnabled(boolean enabled) {
@@ -146,34 +160,179 @@ public class FastReaderBuilder {
     // generate supplier for the new object instances
     Object testInstance = action.instanceSupplier.newInstance(null, action.reader);
     IntFunction<Conversion<?>> conversionSupplier = getConversionSupplier(testInstance);
+    // fields of records of other classes than generated ones are set by reflection
+    boolean reflectRecord = reflect && !(testInstance instanceof IndexedRecord);
 
     ExecutionStep[] readSteps = new ExecutionStep[action.fieldActions.length + action.readerOrder.length
         - action.firstDefault];
 
     int i = 0;
+    int stepCounter = 0;
     int fieldCounter = 0;
     // compute what to do with writer's fields
-    for (; i < action.fieldActions.length; i++) {
+    while (i < action.fieldActions.length) {
       Action fieldAction = action.fieldActions[i];
       if (fieldAction instanceof Skip) {
-        readSteps[i] = (r, decoder) -> GenericDatumReader.skip(fieldAction.writer, decoder);
+        // skip all fields up to the next one read in a single step
+        int end = i + 1;
+        while (end < action.fieldActions.length && action.fieldActions[end] instanceof Skip) {
+          end++;
+        }
+        Schema[] skipped = new Schema[end - i];
+        for (int j = i; j < end; j++) {
+          skipped[j - i] = action.fieldActions[j].writer;
+        }
+        readSteps[stepCounter++] = createSkipStep(skipped);
+        i = end;
       } else {
         Field readerField = action.readerOrder[fieldCounter++];
-        Conversion<?> conversion = conversionSupplier.apply(readerField.pos());
-        FieldReader reader = getReaderFor(fieldAction, conversion);
-        readSteps[i] = createFieldSetter(readerField, reader);
+        if (reflectRecord) {
+          readSteps[stepCounter++] = createReflectFieldSetter(testInstance, action.reader, readerField, fieldAction);
+        } else {
+          Conversion<?> conversion = conversionSupplier.apply(readerField.pos());
+          FieldReader reader = getReaderFor(fieldAction, conversion);
+          readSteps[stepCounter++] = createFieldSetter(readerField, reader);
+        }
+        i++;
       }
     }
 
     // add defaulting if required
-    for (; i < readSteps.length; i++) {
-      readSteps[i] = getDefaultingStep(action.readerOrder[fieldCounter++]);
+    while (fieldCounter < action.readerOrder.length) {
+      Field readerField = action.readerOrder[fieldCounter++];
+      readSteps[stepCounter++] = reflectRecord ? getReflectDefaultingStep(testInstance, action.reader, readerField)
+          : getDefaultingStep(readerField);
     }
 
-    recordReader.finishInitialization(readSteps, action.reader, action.instanceSupplier);
+    recordReader.finishInitialization(Arrays.copyOf(readSteps, stepCounter), action.reader, action.instanceSupplier);
     return recordReader;
   }
 
+  /**
+   * Creates a step that skips consecutive writer fields. Runs of fields whose
+   * encoding has no nested counts, i.e. not arrays, maps or unions, are skipped
+   * at once on a {@link BinaryDecoder} without decoding their values, and each
+   * other field by {@link GenericDatumReader#skip(Schema, Decoder)}.
+   */
+  private static ExecutionStep createSkipStep(Schema[] skipped) {
+    ExecutionStep[] steps = new ExecutionStep[skipped.length];
+    int count = 0;
+    for (int i = 0; i < skipped.length;) {
+      SkipRun run = new SkipRun();
+      int end = i;
+      while (end < skipped.length && run.add(skipped[end], new IdentityHashMap<>())) {
+        end++;
+      }
+      if (end == i) {
+        Schema schema = skipped[i++];
+        steps[count++] = (r, decoder) -> GenericDatumReader.skip(schema, decoder);
+      } else {
+        int[] ops = run.toArray();
+        Schema[] fields = Arrays.copyOfRange(skipped, i, end);
+        steps[count++] = (r, decoder) -> {
+          if (decoder instanceof BinaryDecoder) {
+            ((BinaryDecoder) decoder).skipRun(ops);
+          } else {
+            for (Schema schema : fields) {
+              GenericDatumReader.skip(schema, decoder);
+            }
+          }
+        };
+        i = end;
+      }
+    }
+    if (count == 1) {
+      return steps[0];
+    }
+    ExecutionStep[] all = Arrays.copyOf(steps, count);
+    return (r, decoder) -> {
+      for (ExecutionStep step : all) {
+        step.execute(r, decoder);
+      }
+    };
+  }
+
+  /** The operations of {@link BinaryDecoder#skipRun(int[])} for some schemas. */
+  private static class SkipRun {
+    private int[] ops = new int[8];
+    private int size;
+
+    /**
+     * Appends the skipping of a value of a schema, or returns false, appending
+     * nothing, if it has nested counts.
+     */
+    boolean add(Schema schema, Map<Schema, Boolean> seen) {
+      int mark = size;
+      if (addValue(schema, seen)) {
+        return true;
+      }
+      size = mark;
+      return false;
+    }
+
+    private boolean addValue(Schema schema, Map<Schema, Boolean> seen) {
+      switch (schema.getType()) {
+      case NULL:
+        return true;
+      case BOOLEAN:
+        return addFixed(1);
+      case FLOAT:
+        return addFixed(4);
+      case DOUBLE:
+        return addFixed(8);
+      case FIXED:
+        return schema.getFixedSize() == 0 || addFixed(schema.getFixedSize());
+      case INT:
+      case LONG:
+      case ENUM:
+        if (size > 0 && ops[size - 1] < 0 && ops[size - 1] > Integer.MIN_VALUE) {
+          ops[size - 1]--;
+        } else {
+          append(-1);
+        }
+        return true;
+      case STRING:
+      case BYTES:
+        append(0);
+        return true;
+      case RECORD:
+        // a recursive record always holds a union, array or map
+        if (seen.put(schema, Boolean.TRUE) != null) {
+          return false;
+        }
+        for (Field field : schema.getFields()) {
+          if (!addValue(field.schema(), seen)) {
+            return false;
+          }
+        }
+        seen.remove(schema);
+        return true;
+      default:
+        return false;
+      }
+    }
+
+    private boolean addFixed(int length) {
+      if (size > 0 && ops[size - 1] > 0 && ops[size - 1] <= Integer.MAX_VALUE - length) {
+        ops[size - 1] += length;
+      } else {
+        append(length);
+      }
+      return true;
+    }
+
+    private void append(int op) {
+      if (size == ops.length) {
+        ops = Arrays.copyOf(ops, 2 * size);
+      }
+      ops[size++] = op;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(ops, size);
+    }
+  }
+
   private ExecutionStep createFieldSetter(Field field, FieldReader reader) {
     int pos = field.pos();
     if (reader.canReuse()) {
@@ -189,6 +348,21 @@ public class FastReaderBuilder {
     }
   }
 
+  private ExecutionStep createReflectFieldSetter(Object record, Schema schema, Field field, Action fieldAction)
+      throws IOException {
+    return Accessor.createFieldSetter((ReflectData) data, record, schema, field,
+        fieldAction.type == Action.Type.DO_NOTHING, getReaderFor(fieldAction, null), getNonConvertedReader(fieldAction));
+  }
+
+  // sets a field of a record of a class to its default by reading its encoded
+  // default value, as a resolving decoder would supply it
+  private ExecutionStep getReflectDefaultingStep(Object record, Schema schema, Field field) throws IOException {
+    ExecutionStep setter = createReflectFieldSetter(record, schema, field,
+        Resolver.resolve(field.schema(), field.schema(), data));
+    byte[] encoded = getEncodedValue(field);
+    return (object, decoder) -> setter.execute(object, DecoderFactory.get().binaryDecoder(encoded, null));
+  }
+
   private ExecutionStep getDefaultingStep(Schema.Field field) throws IOException {
     Object defaultValue = data.getDefaultValue(field);
 
@@ -309,7 +483,7 @@ public class FastReaderBuilder {
     case STRING:
       return createStringReader(readerSchema, writerSchema);
     case INT:
-      return (old, decoder) -> decoder.readInt();
+      return createIntReader(readerSchema);
     case LONG:
       return (old, decoder) -> decoder.readLong();
     case FLOAT:
@@ -317,7 +491,7 @@ public class FastReaderBuilder {
     case DOUBLE:
       return (old, decoder) -> decoder.readDouble();
     case BYTES:
-      return createBytesReader();
+      return createBytesReader(readerSchema);
     case FIXED:
       return createFixedReader(readerSchema, writerSchema);
     case RECORD: // covered by action type
@@ -375,7 +549,7 @@ public class FastReaderBuilder {
 
   private FieldReader createSimpleStringReader(Schema readerSchema) {
     String stringProperty = readerSchema.getProp(GenericData.STRING_PROP);
-    if (GenericData.StringType.String.name().equals(stringProperty)) {
+    if (reflect || GenericData.StringType.String.name().equals(stringProperty)) {
       return (old, decoder) -> decoder.readString();
     } else {
       return (old, decoder) -> decoder.readString(old instanceof Utf8 ? (Utf8) old : null);
@@ -384,7 +558,7 @@ public class FastReaderBuilder {
 
   private FieldReader createBytesPromotingToStringReader(Schema readerSchema) {
     String stringProperty = readerSchema.getProp(GenericData.STRING_PROP);
-    if (GenericData.StringType.String.name().equals(stringProperty)) {
+    if (reflect || GenericData.StringType.String.name().equals(stringProperty)) {
       return (old, decoder) -> getStringFromByteBuffer(decoder.readBytes(null));
     } else {
       return (old, decoder) -> getUtf8FromByteBuffer(old, decoder.readBytes(null));
@@ -446,8 +620,12 @@ public class FastReaderBuilder {
   }
 
   private Optional<Class<?>> findClass(String clazz) {
+    if (clazz == null) {
+      return Optional.empty();
+    }
     try {
-      return Optional.of(data.getClassLoader().loadClass(clazz));
+      // by name, as Class.forName, which also finds array classes
+      return Optional.of(ClassUtils.forName(data.getClassLoader(), clazz));
     } catch (ReflectiveOperationException e) {
       return Optional.empty();
     }
@@ -455,7 +633,18 @@ public class FastReaderBuilder {
 
   @SuppressWarnings("unchecked")
   private FieldReader createArrayReader(Schema readerSchema, Container action) throws IOException {
+    if (reflect) {
+      FieldReader reflectReader = createReflectArrayReader(readerSchema, action);
+      if (reflectReader != null) {
+        return reflectReader;
+      }
+    }
     FieldReader elementReader = getReaderFor(action.elementAction, null);
+    Schema elementType = readerSchema.getElementType();
+    if (action.elementAction.type == Action.Type.DO_NOTHING && !elementType.hasProps()
+        && PrimitivesArrays.newArray(0, readerSchema) != null) {
+      return createPrimitiveArrayReader(readerSchema, elementReader);
+    }
 
     return reusingReader((reuse, decoder) -> {
       if (reuse instanceof GenericArray) {
@@ -486,6 +675,144 @@ public class FastReaderBuilder {
     });
   }
 
+  // reads arrays of unconverted primitives in bulk, without boxing
+  @SuppressWarnings("unchecked")
+  private FieldReader createPrimitiveArrayReader(Schema readerSchema, FieldReader elementReader) {
+    Schema.Type elementType = readerSchema.getElementType().getType();
+    return reusingReader((reuse, decoder) -> {
+      long l = decoder.readArrayStart();
+      List<Object> array = (reuse instanceof List) ? (List<Object>) reuse
+          : (List<Object>) PrimitivesArrays.newArray((int) l, readerSchema);
+      array.clear();
+      boolean bulk = PrimitivesArrays.isArrayOf(array, elementType);
+      for (; l > 0; l = decoder.arrayNext()) {
+        if (bulk) {
+          ((PrimitivesArrays.PrimitiveArray<?>) array).read(decoder, (int) l);
+        } else {
+          for (long i = 0; i < l; i++) {
+            array.add(elementReader.read(null, decoder));
+          }
+        }
+      }
+      return array;
+    });
+  }
+
+  /**
+   * Creates a reader of arrays into the collections and Java arrays of
+   * {@link ReflectData}, as {@link ReflectDatumReader} reads them, or returns
+   * null for arrays read as generic ones.
+   */
+  @SuppressWarnings("unchecked")
+  private FieldReader createReflectArrayReader(Schema readerSchema, Container action) throws IOException {
+    Class<?> collectionClass = findClass(readerSchema.getProp(SpecificData.CLASS_PROP)).orElse(null);
+    Class<?> elementClass = findClass(readerSchema.getProp(SpecificData.ELEMENT_PROP)).orElse(null);
+    Schema elementSchema = readerSchema.getElementType();
+    if (elementClass == null) {
+      // logical types cannot conflict with java-element-class
+      Conversion<?> elementConversion = data.getConversionFor(elementSchema.getLogicalType());
+      if (elementConversion != null) {
+        elementClass = elementConversion.getConvertedType();
+      }
+    }
+    if (collectionClass == null && elementClass == null) {
+      return null;
+    }
+
+    FieldReader elementReader = getReaderFor(action.elementAction, null);
+    if (collectionClass != null && Map.class.isAssignableFrom(collectionClass)) {
+      // maps with keys other than strings are written as arrays of pairs
+      Class<?> mapClass = collectionClass;
+      return (reuse, decoder) -> {
+        Map<Object, Object> map = (Map<Object, Object>) SpecificData.newInstance(mapClass, readerSchema);
+        for (long l = decoder.readArrayStart(); l > 0; l = decoder.arrayNext()) {
+          for (long i = 0; i < l; i++) {
+            IndexedRecord pair = (IndexedRecord) elementReader.read(null, decoder);
+            map.put(pair.get(0), pair.get(1));
+          }
+        }
+        return map;
+      };
+    }
+    if (collectionClass != null && !collectionClass.isArray()) {
+      Class<?> listClass = collectionClass;
+      boolean arrayList = collectionClass.isAssignableFrom(ArrayList.class);
+      return reusingReader((reuse, decoder) -> {
+        Collection<Object> collection;
+        if (reuse instanceof Collection) {
+          collection = (Collection<Object>) reuse;
+          collection.clear();
+        } else {
+          collection = arrayList ? new ArrayList<>() : (Collection<Object>) SpecificData.newInstance(listClass, readerSchema);
+        }
+        for (long l = decoder.readArrayStart(); l > 0; l = decoder.arrayNext()) {
+          for (long i = 0; i < l; i++) {
+            collection.add(elementReader.read(null, decoder));
+          }
+        }
+        return collection;
+      });
+    }
+
+    if (elementClass == null) {
+      elementClass = collectionClass.getComponentType();
+    }
+    Class<?> componentType = elementClass;
+    boolean bulk = action.elementAction.type == Action.Type.DO_NOTHING && elementSchema.getLogicalType() == null;
+    return (reuse, decoder) -> {
+      long l = decoder.readArrayStart();
+      Object array = Array.newInstance(componentType, (int) l);
+      int size = 0;
+      for (; l > 0; l = decoder.arrayNext()) {
+        if (size + l > Array.getLength(array)) {
+          array = resizeArray(array, size, (int) (size + l));
+        }
+        size = readJavaArray(array, size, (int) l, bulk, elementReader, decoder);
+      }
+      return size == Array.getLength(array) ? array : resizeArray(array, size, size);
+    };
+  }
+
+  // reads items into a Java array from an index, in bulk where possible
+  private static int readJavaArray(Object array, int from, int count, boolean bulk, FieldReader elementReader,
+      Decoder decoder) throws IOException {
+    if (bulk) {
+      if (array instanceof int[]) {
+        decoder.readInts((int[]) array, from, count);
+        return from + count;
+      } else if (array instanceof long[]) {
+        decoder.readLongs((long[]) array, from, count);
+        return from + count;
+      } else if (array instanceof float[]) {
+        decoder.readFloats((float[]) array, from, count);
+        return from + count;
+      } else if (array instanceof double[]) {
+        decoder.readDoubles((double[]) array, from, count);
+        return from + count;
+      } else if (array instanceof boolean[]) {
+        decoder.readBooleans((boolean[]) array, from, count);
+        return from + count;
+      }
+    }
+    if (array instanceof Object[]) {
+      Object[] objects = (Object[]) array;
+      for (int i = from; i < from + count; i++) {
+        objects[i] = elementReader.read(null, decoder);
+      }
+    } else {
+      for (int i = from; i < from + count; i++) {
+        Array.set(array, i, elementReader.read(null, decoder));
+      }
+    }
+    return from + count;
+  }
+
+  private static Object resizeArray(Object array, int size, int length) {
+    Object result = Array.newInstance(array.getClass().getComponentType(), length);
+    System.arraycopy(array, 0, result, 0, size);
+    return result;
+  }
+
   private FieldReader createEnumReader(EnumAdjust action) {
     return reusingReader((reuse, decoder) -> {
       int index = decoder.readEnum();
@@ -505,7 +832,28 @@ public class FastReaderBuilder {
     });
   }
 
-  private FieldReader createBytesReader() {
+  // ints of classes other than Integer, as reflect reads them
+  private FieldReader createIntReader(Schema readerSchema) {
+    String intClass = reflect ? readerSchema.getProp(SpecificData.CLASS_PROP) : null;
+    if (Byte.class.getName().equals(intClass)) {
+      return (old, decoder) -> (byte) decoder.readInt();
+    } else if (Short.class.getName().equals(intClass)) {
+      return (old, decoder) -> (short) decoder.readInt();
+    } else if (Character.class.getName().equals(intClass)) {
+      return (old, decoder) -> (char) decoder.readInt();
+    }
+    return (old, decoder) -> decoder.readInt();
+  }
+
+  private FieldReader createBytesReader(Schema readerSchema) {
+    if (reflect && findClass(readerSchema.getProp(SpecificData.CLASS_PROP)).map(Class::isArray).orElse(false)) {
+      return (old, decoder) -> {
+        ByteBuffer bytes = decoder.readBytes(null);
+        byte[] result = new byte[bytes.remaining()];
+        bytes.get(result);
+        return result;
+      };
+    }
     return reusingReader(
         (reuse, decoder) -> decoder.readBytes(reuse instanceof ByteBuffer ? (ByteBuffer) reuse : null));
   }
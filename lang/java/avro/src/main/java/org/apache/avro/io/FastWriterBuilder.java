@@ -0,0 +1,431 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
+import org.apache.avro.LogicalType;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Field;
+import org.apache.avro.UnresolvedUnionException;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericEnumSymbol;
+import org.apache.avro.generic.GenericFixed;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.generic.PrimitivesArrays;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecordBase;
+import org.apache.avro.util.WeakIdentityHashMap;
+import org.apache.avro.util.internal.Accessor;
+
+/**
+ * Builds {@link DatumWriter}s that write data of a schema by running steps
+ * computed once for it, the counterpart of {@link FastReaderBuilder}. The type
+ * of each value, the writer of each field and of each branch of a union, and
+ * whether a logical type needs a conversion, are decided when the writer is
+ * built rather than for every value written.
+ */
+public class FastWriterBuilder {
+
+  /** Generic/SpecificData instance used to resolve unions and conversions */
+  private final GenericData data;
+
+  private final Map<Schema, RecordWriter> writerCache = Collections.synchronizedMap(new WeakIdentityHashMap<>());
+
+  public static FastWriterBuilder get() {
+    return new FastWriterBuilder(GenericData.get());
+  }
+
+  public static FastWriterBuilder getSpecific() {
+    return new FastWriterBuilder(SpecificData.get());
+  }
+
+  public static boolean isSupportedData(GenericData data) {
+    return data.getClass() == GenericData.class || data.getClass() == SpecificData.class;
+  }
+
+  public FastWriterBuilder(GenericData parentData) {
+    this.data = parentData;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <D> DatumWriter<D> createDatumWriter(Schema schema) {
+    return (DatumWriter<D>) getWriterFor(schema);
+  }
+
+  private FieldWriter getWriterFor(Schema schema) {
+    FieldWriter writer = getNonConvertedWriter(schema);
+    LogicalType logicalType = schema.getLogicalType();
+    if (logicalType == null) {
+      return writer;
+    }
+    return (datum, out) -> {
+      if (datum != null) {
+        Conversion<?> conversion = data.getConversionByClass(datum.getClass(), logicalType);
+        datum = convert(schema, logicalType, conversion, datum);
+      }
+      writer.write(datum, out);
+    };
+  }
+
+  private FieldWriter getNonConvertedWriter(Schema schema) {
+    FieldWriter writer = getWriterForType(schema);
+    String name = schema.getFullName();
+    return (datum, out) -> {
+      try {
+        writer.write(datum, out);
+      } catch (NullPointerException e) {
+        throw npe(e, " of " + name);
+      }
+    };
+  }
+
+  private FieldWriter getWriterForType(Schema schema) {
+    switch (schema.getType()) {
+    case RECORD:
+      return createRecordWriter(schema);
+    case ENUM:
+      return createEnumWriter(schema);
+    case ARRAY:
+      return createArrayWriter(schema);
+    case MAP:
+      return createMapWriter(schema);
+    case UNION:
+      return createUnionWriter(schema);
+    case FIXED:
+      int size = schema.getFixedSize();
+      return (datum, out) -> out.writeFixed(((GenericFixed) datum).bytes(), 0, size);
+    case STRING:
+      return createStringWriter();
+    case BYTES:
+      return (datum, out) -> out.writeBytes((ByteBuffer) datum);
+    case INT:
+      return (datum, out) -> out.writeInt(((Number) datum).intValue());
+    case LONG:
+      return (datum, out) -> out.writeLong(((Number) datum).longValue());
+    case FLOAT:
+      return (datum, out) -> out.writeFloat(((Number) datum).floatValue());
+    case DOUBLE:
+      return (datum, out) -> out.writeDouble(((Number) datum).doubleValue());
+    case BOOLEAN:
+      return (datum, out) -> out.writeBoolean((Boolean) datum);
+    case NULL:
+      return (datum, out) -> out.writeNull();
+    default:
+      throw new IllegalStateException("Error getting writer for type " + schema.getFullName());
+    }
+  }
+
+  private RecordWriter createRecordWriter(Schema schema) {
+    // record writers are registered before they are initialized, to prevent
+    // endless loops on recursive types
+    RecordWriter recordWriter = writerCache.computeIfAbsent(schema, k -> new RecordWriter());
+    synchronized (recordWriter) {
+      if (!recordWriter.initialized && !recordWriter.initializing) {
+        recordWriter.initializing = true;
+        try {
+          List<Field> fields = schema.getFields();
+          ExecutionStep[] steps = new ExecutionStep[fields.size()];
+          for (int i = 0; i < steps.length; i++) {
+            steps[i] = createFieldStep(fields.get(i));
+          }
+          recordWriter.finishInitialization(steps, useCustomCoders());
+        } finally {
+          if (!recordWriter.initialized) {
+            // writers of nested records built meanwhile may refer to this one,
+            // so none are kept, and a later call starts over
+            recordWriter.initializing = false;
+            writerCache.clear();
+          }
+        }
+      }
+    }
+    return recordWriter;
+  }
+
+  private boolean useCustomCoders() {
+    return data instanceof SpecificData && ((SpecificData) data).useCustomCoders();
+  }
+
+  private ExecutionStep createFieldStep(Field field) {
+    int pos = field.pos();
+    Schema fieldSchema = field.schema();
+    LogicalType logicalType = fieldSchema.getLogicalType();
+    FieldWriter writer = getNonConvertedWriter(fieldSchema);
+    if (logicalType == null) {
+      return (record, out) -> {
+        Object value = ((IndexedRecord) record).get(pos);
+        try {
+          writer.write(value, out);
+        } catch (UnresolvedUnionException | NullPointerException | ClassCastException | AvroTypeException e) {
+          throw fieldException(e, field, value);
+        }
+      };
+    }
+    FieldWriter convertingWriter = getWriterFor(fieldSchema);
+    return (record, out) -> {
+      Object value = ((IndexedRecord) record).get(pos);
+      try {
+        if (record instanceof SpecificRecordBase) {
+          // specific records convert with their own conversion, if any
+          Conversion<?> conversion = ((SpecificRecordBase) record).getConversion(pos);
+          writer.write(conversion == null ? value : convert(fieldSchema, logicalType, conversion, value), out);
+        } else {
+          convertingWriter.write(value, out);
+        }
+      } catch (UnresolvedUnionException | NullPointerException | ClassCastException | AvroTypeException e) {
+        throw fieldException(e, field, value);
+      }
+    };
+  }
+
+  private FieldWriter createEnumWriter(Schema schema) {
+    boolean specific = data instanceof SpecificData;
+    return (datum, out) -> {
+      if (specific && datum instanceof Enum) {
+        out.writeEnum(((Enum<?>) datum).ordinal());
+      } else {
+        if (!(datum instanceof GenericEnumSymbol))
+          throw new AvroTypeException("Not an enum: " + datum + " for schema: " + schema);
+        out.writeEnum(schema.getEnumOrdinal(datum.toString()));
+      }
+    };
+  }
+
+  private FieldWriter createArrayWriter(Schema schema) {
+    Schema element = schema.getElementType();
+    FieldWriter elementWriter = getWriterFor(element);
+    // arrays of unconverted primitives backed by Java arrays are written in bulk
+    boolean bulk = element.getLogicalType() == null && PrimitivesArrays.newArray(0, schema) != null;
+    Schema.Type elementType = element.getType();
+    return (datum, out) -> {
+      Collection<?> array = (Collection<?>) datum;
+      long size = array.size();
+      out.writeArrayStart();
+      out.setItemCount(size);
+      if (bulk && PrimitivesArrays.isArrayOf(array, elementType)) {
+        ((PrimitivesArrays.PrimitiveArray<?>) array).write(out);
+      } else {
+        long actualSize = 0;
+        for (Object value : array) {
+          out.startItem();
+          elementWriter.write(value, out);
+          actualSize++;
+        }
+        if (actualSize != size) {
+          throw new ConcurrentModificationException(
+              "Size of array written was " + size + ", but number of elements written was " + actualSize + ". ");
+        }
+      }
+      out.writeArrayEnd();
+    };
+  }
+
+  private FieldWriter createMapWriter(Schema schema) {
+    FieldWriter valueWriter = getWriterFor(schema.getValueType());
+    return (datum, out) -> {
+      Map<?, ?> map = (Map<?, ?>) datum;
+      int size = map.size();
+      int actualSize = 0;
+      out.writeMapStart();
+      out.setItemCount(size);
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        out.startItem();
+        Object key = entry.getKey();
+        out.writeString(key instanceof CharSequence ? (CharSequence) key : key.toString());
+        valueWriter.write(entry.getValue(), out);
+        actualSize++;
+      }
+      out.writeMapEnd();
+      if (actualSize != size) {
+        throw new ConcurrentModificationException(
+            "Size of map written was " + size + ", but number of entries written was " + actualSize + ". ");
+      }
+    };
+  }
+
+  private FieldWriter createUnionWriter(Schema schema) {
+    List<Schema> types = schema.getTypes();
+    FieldWriter[] branchWriters = new FieldWriter[types.size()];
+    for (int i = 0; i < branchWriters.length; i++) {
+      branchWriters[i] = getWriterFor(types.get(i));
+    }
+    return new UnionWriter(data, schema, branchWriters);
+  }
+
+  private FieldWriter createStringWriter() {
+    if (data instanceof SpecificData) {
+      SpecificData specificData = (SpecificData) data;
+      return (datum, out) -> {
+        if (!(datum instanceof CharSequence) && Accessor.isStringable(specificData, datum.getClass())) {
+          datum = datum.toString(); // convert to string
+        }
+        out.writeString((CharSequence) datum);
+      };
+    }
+    return (datum, out) -> out.writeString((CharSequence) datum);
+  }
+
+  private static <T> Object convert(Schema schema, LogicalType logicalType, Conversion<T> conversion, Object datum) {
+    try {
+      if (conversion == null) {
+        return datum;
+      } else {
+        return Conversions.convertToRawType(datum, schema, logicalType, conversion);
+      }
+    } catch (AvroRuntimeException e) {
+      // thrown as a ClassCastException, as by GenericDatumWriter
+      Throwable cause = e.getCause();
+      if (cause != null && cause.getClass() == ClassCastException.class) {
+        throw (ClassCastException) cause;
+      } else {
+        throw e;
+      }
+    }
+  }
+
+  private static NullPointerException npe(NullPointerException e, String s) {
+    NullPointerException result = new NullPointerException(e.getMessage() + s);
+    result.initCause(e.getCause() == null ? e : e.getCause());
+    return result;
+  }
+
+  // adds the field to an exception, as GenericDatumWriter.writeField does
+  private static RuntimeException fieldException(RuntimeException e, Field field, Object value) {
+    String s = " in field " + field.name();
+    if (e instanceof UnresolvedUnionException) {
+      UnresolvedUnionException result = new UnresolvedUnionException(field.schema(), field, value);
+      result.addSuppressed(e);
+      return result;
+    } else if (e instanceof NullPointerException) {
+      return npe((NullPointerException) e, s);
+    } else if (e instanceof ClassCastException) {
+      ClassCastException result = new ClassCastException(e.getMessage() + s);
+      result.initCause(e.getCause() == null ? e : e.getCause());
+      return result;
+    } else {
+      AvroTypeException result = new AvroTypeException(e.getMessage() + s);
+      result.initCause(e.getCause() == null ? e : e.getCause());
+      return result;
+    }
+  }
+
+  public interface FieldWriter extends DatumWriter<Object> {
+    @Override
+    public void write(Object datum, Encoder out) throws IOException;
+
+    @Override
+    default void setSchema(Schema schema) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  public static class RecordWriter implements FieldWriter {
+    private ExecutionStep[] writeSteps;
+    private boolean useCustomCoders;
+    private boolean initializing;
+    private volatile boolean initialized;
+
+    void finishInitialization(ExecutionStep[] writeSteps, boolean useCustomCoders) {
+      this.writeSteps = writeSteps;
+      this.useCustomCoders = useCustomCoders;
+      this.initialized = true;
+    }
+
+    @Override
+    public void write(Object datum, Encoder out) throws IOException {
+      if (useCustomCoders && datum instanceof SpecificRecordBase) {
+        SpecificRecordBase record = (SpecificRecordBase) datum;
+        if (Accessor.hasCustomCoders(record)) {
+          record.customEncode(out);
+          return;
+        }
+      }
+      for (ExecutionStep step : writeSteps) {
+        step.execute(datum, out);
+      }
+    }
+  }
+
+  /**
+   * Writes a union, remembering the branch of the last class of value whose
+   * branch depends on its class alone, i.e. that is neither a record, enum nor
+   * fixed, nor has a conversion, so that values of that class are not resolved
+   * by {@link GenericData#resolveUnion(Schema, Object)} each time.
+   */
+  static class UnionWriter implements FieldWriter {
+    private final GenericData data;
+    private final Schema union;
+    private final FieldWriter[] branchWriters;
+    private final Integer nullIndex;
+    private Branch last = new Branch(Void.class, -1);
+
+    private static class Branch {
+      private final Class<?> type;
+      private final int index;
+
+      Branch(Class<?> type, int index) {
+        this.type = type;
+        this.index = index;
+      }
+    }
+
+    UnionWriter(GenericData data, Schema union, FieldWriter[] branchWriters) {
+      this.data = data;
+      this.union = union;
+      this.branchWriters = branchWriters;
+      this.nullIndex = union.getIndexNamed(Schema.Type.NULL.getName());
+    }
+
+    @Override
+    public void write(Object datum, Encoder out) throws IOException {
+      int index = resolve(datum);
+      out.writeIndex(index);
+      branchWriters[index].write(datum, out);
+    }
+
+    private int resolve(Object datum) {
+      if (datum == null) {
+        return nullIndex != null ? nullIndex : data.resolveUnion(union, datum);
+      }
+      Class<?> type = datum.getClass();
+      Branch branch = last;
+      if (branch.type == type) {
+        return branch.index;
+      }
+      int index = data.resolveUnion(union, datum);
+      if (!(datum instanceof IndexedRecord || datum instanceof GenericEnumSymbol || datum instanceof GenericFixed
+          || datum instanceof Enum) && data.getConversionByClass(type) == null) {
+        last = new Branch(type, index);
+      }
+      return index;
+    }
+  }
+
+  public interface ExecutionStep {
+    public void execute(Object record, Encoder encoder) throws IOException;
+  }
+
+}
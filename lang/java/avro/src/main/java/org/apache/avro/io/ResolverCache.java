@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * A bounded cache of the resolving grammars of pairs of writer's and reader's
+ * schemas, shared by all threads. Generating a grammar is expensive, while the
+ * grammar itself is immutable, so each {@link ResolvingDecoder} created from
+ * this cache only holds its own parser state.
+ *
+ * Grammars are keyed by the full JSON of both schemas, whose fingerprints only
+ * serve as the hash, as writers' schemas read from files may be crafted to
+ * collide. The least recently used grammars are evicted first.
+ */
+public class ResolverCache {
+
+  /** The default number of grammars kept by {@link #get()}. */
+  public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+  private static final ResolverCache INSTANCE = new ResolverCache(DEFAULT_MAX_ENTRIES);
+
+  private final int maxEntries;
+  private final LinkedHashMap<Key, FutureTask<Object>> resolvers = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /** Return the cache shared by all datum readers. */
+  public static ResolverCache get() {
+    return INSTANCE;
+  }
+
+  /** Construct a cache that keeps at most a number of grammars. */
+  public ResolverCache(int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("Invalid maximum entries: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Return a new resolving decoder from a writer's to a reader's schema, reading
+   * from a decoder. The reader's aliases are applied to the writer's schema.
+   *
+   * @see DecoderFactory#resolvingDecoder(Schema, Schema, Decoder)
+   */
+  public ResolvingDecoder resolvingDecoder(Schema writer, Schema reader, Decoder in) throws IOException {
+    return new ResolvingDecoder(getResolver(writer, reader), in);
+  }
+
+  /**
+   * Return the resolving grammar from a writer's to a reader's schema, as would
+   * {@link ResolvingDecoder#resolve(Schema, Schema)} after applying the reader's
+   * aliases to the writer's schema, generating it if it is not cached.
+   */
+  public Object getResolver(Schema writer, Schema reader) throws IOException {
+    Key key = new Key(writer.toString(), reader.toString());
+    FutureTask<Object> resolver;
+    boolean generate = false;
+    synchronized (resolvers) {
+      resolver = resolvers.get(key);
+      if (resolver == null) {
+        resolver = new FutureTask<>(() -> ResolvingDecoder.resolve(Schema.applyAliases(writer, reader), reader));
+        resolvers.put(key, resolver);
+        generate = true;
+        Iterator<FutureTask<Object>> eldest = resolvers.values().iterator();
+        while (resolvers.size() > maxEntries) {
+          eldest.next();
+          eldest.remove();
+          evictions.increment();
+        }
+      }
+    }
+    if (generate) {
+      misses.increment();
+      resolver.run(); // without holding the lock: other threads wait for it
+    } else {
+      hits.increment();
+    }
+    try {
+      return resolver.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while resolving schemas");
+    } catch (ExecutionException e) {
+      synchronized (resolvers) { // don't keep the failure
+        resolvers.remove(key, resolver);
+      }
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new AvroRuntimeException(cause);
+    }
+  }
+
+  /** Return the number of lookups that found a cached grammar. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Return the number of lookups that generated a grammar. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /** Return the number of grammars evicted to keep within the bound. */
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /** Return the number of grammars cached. */
+  public int size() {
+    synchronized (resolvers) {
+      return resolvers.size();
+    }
+  }
+
+  /** Remove all cached grammars. */
+  public void clear() {
+    synchronized (resolvers) {
+      resolvers.clear();
+    }
+  }
+
+  private static long fingerprint(String json) {
+    return SchemaNormalization.fingerprint64(json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static class Key {
+    private final String writer;
+    private final String reader;
+    private final int hash;
+
+    Key(String writer, String reader) {
+      this.writer = writer;
+      this.reader = reader;
+      this.hash = Long.hashCode(fingerprint(writer) * 31 + fingerprint(reader));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      // fingerprints are easily made to collide, so the schemas are compared
+      return hash == that.hash && writer.equals(that.writer) && reader.equals(that.reader);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -19,7 +19,6 @@
 package org.apache.avro.message;
 
 import org.apache.avro.Schema;
-import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.GenericData;
 
 import java.io.IOException;
@@ -119,7 +118,7 @@ public class BinaryMessageDecoder<D> extends MessageDecoder.BaseDecoder<D> {
    * @param writeSchema a {@link Schema} to use when decoding buffers
    */
   public void addSchema(Schema writeSchema) {
-    long fp = SchemaNormalization.parsingFingerprint64(writeSchema);
+    long fp = writeSchema.getParsingFingerprint64();
     final Schema actualReadSchema = this.readSchema != null ? this.readSchema : writeSchema;
     codecByFingerprint.put(fp, new RawMessageDecoder<D>(model, writeSchema, actualReadSchema));
   }
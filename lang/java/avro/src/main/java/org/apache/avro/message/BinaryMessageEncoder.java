@@ -21,7 +21,6 @@ package org.apache.avro.message;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Schema;
-import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.GenericData;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -110,7 +109,7 @@ public class BinaryMessageEncoder<D> implements MessageEncoder<D> {
 
     private static byte[] getWriteHeader(Schema schema) {
       try {
-        byte[] fp = SchemaNormalization.parsingFingerprint("CRC-64-AVRO", schema);
+        byte[] fp = schema.getParsingFingerprint("CRC-64-AVRO");
 
         byte[] ret = new byte[V1_HEADER.length + fp.length];
         System.arraycopy(V1_HEADER, 0, ret, 0, V1_HEADER.length);
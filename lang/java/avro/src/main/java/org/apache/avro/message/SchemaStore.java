@@ -20,7 +20,6 @@
 package org.apache.avro.message;
 
 import org.apache.avro.Schema;
-import org.apache.avro.SchemaNormalization;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -52,7 +51,7 @@ public interface SchemaStore {
      * @param schema a {@link Schema}
      */
     public void addSchema(Schema schema) {
-      long fp = SchemaNormalization.parsingFingerprint64(schema);
+      long fp = schema.getParsingFingerprint64();
       schemas.put(fp, schema);
     }
 
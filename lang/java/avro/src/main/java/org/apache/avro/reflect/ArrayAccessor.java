@@ -32,10 +32,7 @@ class ArrayAccessor {
   static void writeArray(boolean[] data, Encoder out) throws IOException {
     int size = data.length;
     out.setItemCount(size);
-    for (boolean datum : data) {
-      out.startItem();
-      out.writeBoolean(datum);
-    }
+    out.writeBooleans(data, 0, size);
   }
 
   // short, and char arrays are upcast to avro int
@@ -61,37 +58,25 @@ class ArrayAccessor {
   static void writeArray(int[] data, Encoder out) throws IOException {
     int size = data.length;
     out.setItemCount(size);
-    for (int datum : data) {
-      out.startItem();
-      out.writeInt(datum);
-    }
+    out.writeInts(data, 0, size);
   }
 
   static void writeArray(long[] data, Encoder out) throws IOException {
     int size = data.length;
     out.setItemCount(size);
-    for (long datum : data) {
-      out.startItem();
-      out.writeLong(datum);
-    }
+    out.writeLongs(data, 0, size);
   }
 
   static void writeArray(float[] data, Encoder out) throws IOException {
     int size = data.length;
     out.setItemCount(size);
-    for (float datum : data) {
-      out.startItem();
-      out.writeFloat(datum);
-    }
+    out.writeFloats(data, 0, size);
   }
 
   static void writeArray(double[] data, Encoder out) throws IOException {
     int size = data.length;
     out.setItemCount(size);
-    for (double datum : data) {
-      out.startItem();
-      out.writeDouble(datum);
-    }
+    out.writeDoubles(data, 0, size);
   }
 
   static Object readArray(Object array, Class<?> elementType, long l, ResolvingDecoder in) throws IOException {
@@ -119,10 +104,8 @@ class ArrayAccessor {
       if (array.length < limit) {
         array = Arrays.copyOf(array, limit);
       }
-      while (index < limit) {
-        array[index] = in.readBoolean();
-        index++;
-      }
+      in.readBooleans(array, index, limit - index);
+      index = limit;
     } while ((l = in.arrayNext()) > 0);
     return array;
   }
@@ -134,10 +117,8 @@ class ArrayAccessor {
       if (array.length < limit) {
         array = Arrays.copyOf(array, limit);
       }
-      while (index < limit) {
-        array[index] = in.readInt();
-        index++;
-      }
+      in.readInts(array, index, limit - index);
+      index = limit;
     } while ((l = in.arrayNext()) > 0);
     return array;
   }
@@ -179,10 +160,8 @@ class ArrayAccessor {
       if (array.length < limit) {
         array = Arrays.copyOf(array, limit);
       }
-      while (index < limit) {
-        array[index] = in.readLong();
-        index++;
-      }
+      in.readLongs(array, index, limit - index);
+      index = limit;
     } while ((l = in.arrayNext()) > 0);
     return array;
   }
@@ -194,10 +173,8 @@ class ArrayAccessor {
       if (array.length < limit) {
         array = Arrays.copyOf(array, limit);
       }
-      while (index < limit) {
-        array[index] = in.readFloat();
-        index++;
-      }
+      in.readFloats(array, index, limit - index);
+      index = limit;
     } while ((l = in.arrayNext()) > 0);
     return array;
   }
@@ -209,10 +186,8 @@ class ArrayAccessor {
       if (array.length < limit) {
         array = Arrays.copyOf(array, limit);
       }
-      while (index < limit) {
-        array[index] = in.readDouble();
-        index++;
-      }
+      in.readDoubles(array, index, limit - index);
+      index = limit;
     } while ((l = in.arrayNext()) > 0);
     return array;
   }
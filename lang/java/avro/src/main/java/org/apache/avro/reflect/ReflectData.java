@@ -33,9 +33,13 @@ import org.apache.avro.generic.IndexedRecord;
 import org.apache.avro.io.BinaryData;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.FastReaderBuilder.ExecutionStep;
+import org.apache.avro.io.FastReaderBuilder.FieldReader;
 import org.apache.avro.specific.FixedSize;
 import org.apache.avro.specific.SpecificData;
 import org.apache.avro.util.ClassUtils;
+import org.apache.avro.util.internal.Accessor;
+import org.apache.avro.util.internal.Accessor.ReflectDataAccessor;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
@@ -67,6 +71,16 @@ import java.util.concurrent.ConcurrentHashMap;
 /** Utilities to use existing Java classes and interfaces via reflection. */
 public class ReflectData extends SpecificData {
 
+  static {
+    Accessor.setAccessor(new ReflectDataAccessor() {
+      @Override
+      protected ExecutionStep createFieldSetter(ReflectData data, Object record, Schema schema, Schema.Field field,
+          boolean direct, FieldReader reader, FieldReader rawReader) {
+        return ReflectDatumReader.createFieldSetter(data, record, schema, field, direct, reader, rawReader);
+      }
+    });
+  }
+
   private static final String STRING_OUTER_PARENT_REFERENCE = "this$0";
 
   @Override
@@ -1037,4 +1051,14 @@ public class ReflectData extends SpecificData {
     }
     return super.newRecord(old, schema);
   }
+
+  @Override
+  public InstanceSupplier getNewRecordSupplier(Schema schema) {
+    // as newRecord, records of converted logical types are generic
+    LogicalType logicalType = schema.getLogicalType();
+    if (logicalType != null && getConversionFor(logicalType) != null) {
+      return (old, sch) -> new GenericData.Record(sch);
+    }
+    return super.getNewRecordSupplier(schema);
+  }
 }
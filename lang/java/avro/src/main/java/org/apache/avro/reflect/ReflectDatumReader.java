@@ -19,18 +19,24 @@ package org.apache.avro.reflect;
 
 import java.io.IOException;
 import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.apache.avro.AvroRuntimeException;
 import org.apache.avro.Conversion;
+import org.apache.avro.Conversions;
 import org.apache.avro.LogicalType;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.avro.io.Decoder;
+import org.apache.avro.io.FastReaderBuilder;
+import org.apache.avro.io.FastReaderBuilder.ExecutionStep;
+import org.apache.avro.io.FastReaderBuilder.FieldReader;
 import org.apache.avro.io.ResolvingDecoder;
 import org.apache.avro.specific.SpecificData;
 import org.apache.avro.specific.SpecificDatumReader;
@@ -297,4 +303,87 @@ public class ReflectDatumReader<T> extends SpecificDatumReader<T> {
     }
     super.readField(record, field, oldDatum, in, state);
   }
+
+  /**
+   * Creates the step of a {@link FastReaderBuilder} reader that reads a field of
+   * a record of a class, as {@link #readField} does.
+   *
+   * @param record    an instance of the class
+   * @param direct    whether the field's value is written as it is read, so that
+   *                  an accessor may read it from the decoder itself
+   * @param reader    reads the value, converted for its logical type if any
+   * @param rawReader reads the value, not converted
+   */
+  static ExecutionStep createFieldSetter(ReflectData data, Object record, Schema schema, Field field, boolean direct,
+      FieldReader reader, FieldReader rawReader) {
+    FieldAccessor[] accessors = (FieldAccessor[]) data.getRecordState(record, schema);
+    FieldAccessor accessor = accessors == null ? null : accessors[field.pos()];
+    if (accessor == null) {
+      String name = field.name();
+      int pos = field.pos();
+      return (object, in) -> data.setField(object, name, pos, reader.read(null, in));
+    }
+    boolean union = Schema.Type.UNION.equals(field.schema().getType());
+    if (accessor.supportsIO() && (accessor.isCustomEncoded() || (direct && !union))) {
+      return accessor::read;
+    }
+
+    FieldReader valueReader;
+    Class<?> type = accessor.getField().getType();
+    LogicalType logicalType = field.schema().getLogicalType();
+    if (accessor.isStringable()) {
+      Function<String, ?> constructor = stringConstructor(type);
+      valueReader = (old, in) -> {
+        try {
+          Object asString = reader.read(null, in);
+          return asString == null ? null : constructor.apply(asString.toString());
+        } catch (Exception e) {
+          throw new AvroRuntimeException("Failed to read Stringable", e);
+        }
+      };
+    } else if (logicalType != null) {
+      Conversion<?> conversion = data.getConversionByClass(type, logicalType);
+      Schema fieldSchema = field.schema();
+      valueReader = conversion == null ? rawReader
+          : (old, in) -> Conversions.convertToLogicalType(rawReader.read(old, in), fieldSchema, logicalType,
+              conversion);
+    } else {
+      valueReader = rawReader;
+    }
+
+    boolean reuse = valueReader.canReuse();
+    return (object, in) -> {
+      try {
+        accessor.set(object, valueReader.read(reuse ? accessor.get(object) : null, in));
+      } catch (IllegalAccessException e) {
+        throw new AvroRuntimeException("Failed to set " + field);
+      }
+    };
+  }
+
+  // constructs instances of a stringable class from strings, as
+  // newInstanceFromString does
+  @SuppressWarnings("unchecked")
+  private static Function<String, ?> stringConstructor(Class<?> c) {
+    Function<String, ?> constructor = ReflectionUtil.getConstructorAsFunction(String.class, (Class<Object>) c);
+    if (constructor != null) {
+      return constructor;
+    }
+    Constructor<?> ctor;
+    try {
+      ctor = c.getDeclaredConstructor(String.class);
+      ctor.setAccessible(true);
+    } catch (NoSuchMethodException e) {
+      return s -> {
+        throw new AvroRuntimeException(e);
+      };
+    }
+    return s -> {
+      try {
+        return ctor.newInstance(s);
+      } catch (ReflectiveOperationException e) {
+        throw new AvroRuntimeException(e);
+      }
+    };
+  }
 }
@@ -30,6 +30,8 @@ import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.DecoderFactory;
 import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.util.ClassUtils;
+import org.apache.avro.util.internal.Accessor;
+import org.apache.avro.util.internal.Accessor.SpecificDataAccessor;
 
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
@@ -51,6 +53,20 @@ import java.util.concurrent.ConcurrentHashMap;
 /** Utilities for generated Java classes and interfaces. */
 public class SpecificData extends GenericData {
 
+  static {
+    Accessor.setAccessor(new SpecificDataAccessor() {
+      @Override
+      protected boolean isStringable(SpecificData data, Class<?> c) {
+        return data.isStringable(c);
+      }
+
+      @Override
+      protected boolean hasCustomCoders(SpecificRecordBase record) {
+        return record.hasCustomCoders();
+      }
+    });
+  }
+
   private static final SpecificData INSTANCE = new SpecificData();
 
   private static final Class<?>[] NO_ARG = new Class[] {};
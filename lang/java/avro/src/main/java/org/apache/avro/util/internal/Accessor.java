@@ -25,8 +25,13 @@ import org.apache.avro.Schema.Field;
 import org.apache.avro.Schema.Field.Order;
 import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.io.FastReaderBuilder.ExecutionStep;
+import org.apache.avro.io.FastReaderBuilder.FieldReader;
 import org.apache.avro.io.JsonEncoder;
 import org.apache.avro.io.parsing.ResolvingGrammarGenerator;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecordBase;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -48,6 +53,17 @@ public class Accessor {
     protected abstract void encode(Encoder e, Schema s, JsonNode n) throws IOException;
   }
 
+  public abstract static class SpecificDataAccessor {
+    protected abstract boolean isStringable(SpecificData data, Class<?> c);
+
+    protected abstract boolean hasCustomCoders(SpecificRecordBase record);
+  }
+
+  public abstract static class ReflectDataAccessor {
+    protected abstract ExecutionStep createFieldSetter(ReflectData data, Object record, Schema schema, Field field,
+        boolean direct, FieldReader reader, FieldReader rawReader);
+  }
+
   public abstract static class EncoderFactoryAccessor {
     protected abstract JsonEncoder jsonEncoder(EncoderFactory factory, Schema schema, JsonGenerator gen)
         throws IOException;
@@ -59,6 +75,10 @@ public class Accessor {
 
   private static volatile ResolvingGrammarGeneratorAccessor resolvingGrammarGeneratorAccessor;
 
+  private static volatile SpecificDataAccessor specificDataAccessor;
+
+  private static volatile ReflectDataAccessor reflectDataAccessor;
+
   public static void setAccessor(JsonPropertiesAccessor accessor) {
     if (jsonPropertiesAccessor != null)
       throw new IllegalStateException("JsonPropertiesAccessor already initialized");
@@ -89,6 +109,30 @@ public class Accessor {
     return resolvingGrammarGeneratorAccessor;
   }
 
+  public static void setAccessor(SpecificDataAccessor accessor) {
+    if (specificDataAccessor != null)
+      throw new IllegalStateException("SpecificDataAccessor already initialized");
+    specificDataAccessor = accessor;
+  }
+
+  private static SpecificDataAccessor specificDataAccessor() {
+    if (specificDataAccessor == null)
+      ensureLoaded(SpecificData.class);
+    return specificDataAccessor;
+  }
+
+  public static void setAccessor(ReflectDataAccessor accessor) {
+    if (reflectDataAccessor != null)
+      throw new IllegalStateException("ReflectDataAccessor already initialized");
+    reflectDataAccessor = accessor;
+  }
+
+  private static ReflectDataAccessor reflectDataAccessor() {
+    if (reflectDataAccessor == null)
+      ensureLoaded(ReflectData.class);
+    return reflectDataAccessor;
+  }
+
   private static void ensureLoaded(Class<?> c) {
     try {
       Class.forName(c.getName());
@@ -118,4 +162,17 @@ public class Accessor {
     return fieldAccessor().createField(name, schema, doc, defaultValue);
   }
 
+  public static boolean isStringable(SpecificData data, Class<?> c) {
+    return specificDataAccessor().isStringable(data, c);
+  }
+
+  public static boolean hasCustomCoders(SpecificRecordBase record) {
+    return specificDataAccessor().hasCustomCoders(record);
+  }
+
+  public static ExecutionStep createFieldSetter(ReflectData data, Object record, Schema schema, Field field,
+      boolean direct, FieldReader reader, FieldReader rawReader) {
+    return reflectDataAccessor().createFieldSetter(data, record, schema, field, direct, reader, rawReader);
+  }
+
 }
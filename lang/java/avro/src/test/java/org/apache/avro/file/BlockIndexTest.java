@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.data.TimeConversions;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BlockIndexTest {
+  private static final Schema SCHEMA = SchemaBuilder.record("Row").fields().requiredInt("id").endRecord();
+
+  public enum Color {
+    RED, GREEN, BLUE
+  }
+
+  @Rule
+  public TemporaryFolder dir = new TemporaryFolder();
+
+  @Test
+  public void appendWithoutIndexDeletesIndex() throws IOException {
+    File file = dir.newFile("rows.avro");
+    write(file, 0, 20000, true);
+    assertTrue(BlockIndex.sidecar(file).isFile());
+
+    append(file, 20000, 5000, false);
+    assertFalse(BlockIndex.sidecar(file).isFile());
+    assertEquals(25000, countStream(file, false));
+    assertEquals(25000, countStream(file, true));
+  }
+
+  @Test
+  public void staleIndex() throws IOException {
+    File file = dir.newFile("rows.avro");
+    write(file, 0, 20000, true);
+    // keep the index of the first rows, as if the file was appended to by
+    // something that does not know about indexes
+    File stale = dir.newFile("stale.index");
+    Files.copy(BlockIndex.sidecar(file).toPath(), stale.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    append(file, 20000, 5000, false);
+    Files.copy(stale.toPath(), BlockIndex.sidecar(file).toPath());
+
+    BlockIndex index = BlockIndex.read(BlockIndex.sidecar(file));
+    assertEquals(20000, index.getEntryCount());
+    try (DataFileReader<GenericRecord> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      assertTrue(index.getLength() < file.length());
+      assertFalse(index.matches(reader.getHeader(), file.length()));
+      try {
+        reader.setBlockIndex(index);
+        fail("Expected a stale index to be rejected");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+
+    // the spliterator uses the index for the blocks it covers and finds the rest
+    DataFileSpliterator<GenericRecord> spliterator = new DataFileSpliterator<>(file, GenericDatumReader::new);
+    assertEquals(25000, spliterator.estimateSize());
+    spliterator.close();
+    assertEquals(25000, countStream(file, false));
+    assertEquals(25000, countStream(file, true));
+  }
+
+  @Test
+  public void appendWithIndex() throws IOException {
+    File file = dir.newFile("rows.avro");
+    write(file, 0, 20000, true);
+    append(file, 20000, 5000, true);
+
+    BlockIndex index = BlockIndex.read(BlockIndex.sidecar(file));
+    assertEquals(25000, index.getEntryCount());
+    assertEquals(file.length(), index.getLength());
+    try (DataFileReader<GenericRecord> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      reader.setBlockIndex(index);
+      reader.seekToEntry(24999);
+      assertEquals(24999, reader.next().get("id"));
+    }
+    assertEquals(25000, countStream(file, true));
+  }
+
+  @Test
+  public void filterAfterAppendWithoutIndex() throws IOException {
+    File file = dir.newFile("rows.avro");
+    write(file, 0, 20000, true);
+    File stale = dir.newFile("stale.index");
+    Files.copy(BlockIndex.sidecar(file).toPath(), stale.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    append(file, 20000, 5000, false);
+    Files.copy(stale.toPath(), BlockIndex.sidecar(file).toPath());
+
+    // the appended blocks have no statistics, so are never skipped
+    BlockIndex index = BlockIndex.load(file);
+    assertEquals(25000, index.getEntryCount());
+    assertEquals(file.length(), index.getLength());
+    assertEquals(6000, countFiltered(file, index, BlockFilter.ge("id", 19000), id -> id >= 19000));
+    assertEquals(5000, countFiltered(file, index, BlockFilter.ge("id", 20000), id -> id >= 20000));
+  }
+
+  @Test
+  public void filterAfterAppendWithIndex() throws IOException {
+    File file = dir.newFile("rows.avro");
+    write(file, 0, 20000, true);
+    append(file, 20000, 5000, true);
+
+    BlockIndex index = BlockIndex.load(file);
+    assertEquals(25000, index.getEntryCount());
+    assertEquals(6000, countFiltered(file, index, BlockFilter.ge("id", 19000), id -> id >= 19000));
+    assertEquals(1000, countFiltered(file, index, BlockFilter.lt("id", 1000), id -> id < 1000));
+    assertEquals(1, countFiltered(file, index, BlockFilter.eq("id", 24999), id -> id == 24999));
+  }
+
+  @Test
+  public void seekToEntryWithFilter() throws IOException {
+    File file = dir.newFile("rows.avro");
+    write(file, 0, 20000, true);
+
+    BlockIndex index = BlockIndex.load(file);
+    try (DataFileReader<GenericRecord> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      reader.setBlockIndex(index);
+      reader.setBlockFilter(BlockFilter.ge("id", 19000));
+      // entries of blocks that the filter skips, inside and at the start of one
+      long first = index.getFirstEntry(1);
+      for (long entry : new long[] { 5, first, first + 1, 19500 }) {
+        reader.seekToEntry(entry);
+        assertEquals((int) entry, reader.next().get("id"));
+      }
+
+      // the blocks after the one sought to are still filtered
+      reader.seekToEntry(first);
+      long read = 0;
+      while (reader.hasNext()) {
+        reader.next();
+        read++;
+      }
+      assertTrue(read < index.getEntryCount() - first);
+    }
+  }
+
+  @Test
+  public void statisticsOfLogicalType() throws IOException {
+    Schema time = LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
+    Schema schema = SchemaBuilder.record("Event").fields().name("time").type(time).noDefault().endRecord();
+    GenericData model = new GenericData();
+    model.addLogicalTypeConversion(new TimeConversions.TimestampMillisConversion());
+    Instant start = Instant.parse("2020-01-01T00:00:00Z");
+    File file = dir.newFile("events.avro");
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<>(schema, model))) {
+      writer.setSyncInterval(1024).setBlockIndex(true).setBlockStatistics("time");
+      writer.create(schema, file);
+      GenericRecord row = new GenericData.Record(schema);
+      for (int i = 0; i < 20000; i++) {
+        row.put("time", start.plusSeconds(i));
+        writer.append(row);
+      }
+    }
+
+    // kept as raw values, and compared with either
+    BlockIndex index = BlockIndex.load(file);
+    assertEquals(20000, index.getEntryCount());
+    assertEquals(start.toEpochMilli(), ((GenericRecord) index.getStatistics(0).get("time")).get("min"));
+    long cut = start.plusSeconds(19000).toEpochMilli();
+    Predicate<GenericRecord> late = row -> (Long) row.get("time") >= cut;
+    assertEquals(1000, countMatching(file, index, BlockFilter.ge("time", Instant.ofEpochMilli(cut)), late));
+    assertEquals(1000, countMatching(file, index, BlockFilter.ge("time", cut), late));
+  }
+
+  @Test
+  public void statisticsOfSpecificEnum() throws IOException {
+    Schema color = SchemaBuilder.enumeration("Color").symbols("RED", "GREEN", "BLUE");
+    Schema schema = SchemaBuilder.record("Pixel").fields().name("color").type(color).noDefault().endRecord();
+    File file = dir.newFile("pixels.avro");
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new SpecificDatumWriter<GenericRecord>(schema))) {
+      writer.setSyncInterval(1024).setBlockIndex(true).setBlockStatistics("color");
+      writer.create(schema, file);
+      GenericRecord row = new GenericData.Record(schema);
+      for (int i = 0; i < 20000; i++) {
+        row.put("color", i < 10000 ? Color.RED : i < 15000 ? Color.GREEN : Color.BLUE);
+        writer.append(row);
+      }
+    }
+
+    BlockIndex index = BlockIndex.load(file);
+    assertEquals(20000, index.getEntryCount());
+    Predicate<GenericRecord> blue = row -> "BLUE".equals(row.get("color").toString());
+    assertEquals(5000, countMatching(file, index, BlockFilter.eq("color", Color.BLUE), blue));
+    assertEquals(5000,
+        countMatching(file, index, BlockFilter.eq("color", new GenericData.EnumSymbol(color, "BLUE")), blue));
+  }
+
+  private static void write(File file, int first, int count, boolean indexed) throws IOException {
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(SCHEMA))) {
+      configure(writer, indexed);
+      writer.create(SCHEMA, file);
+      appendRows(writer, first, count);
+    }
+  }
+
+  private static void append(File file, int first, int count, boolean indexed) throws IOException {
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(SCHEMA))) {
+      configure(writer, indexed);
+      writer.appendTo(file);
+      appendRows(writer, first, count);
+    }
+  }
+
+  private static void configure(DataFileWriter<GenericRecord> writer, boolean indexed) {
+    writer.setSyncInterval(1024).setBlockIndex(indexed);
+    if (indexed) {
+      writer.setBlockStatistics("id");
+    }
+  }
+
+  private static void appendRows(DataFileWriter<GenericRecord> writer, int first, int count) throws IOException {
+    GenericRecord row = new GenericData.Record(SCHEMA);
+    for (int i = first; i < first + count; i++) {
+      row.put("id", i);
+      writer.append(row);
+    }
+  }
+
+  // the number of rows read that match, checking that the filter skipped blocks
+  private static long countFiltered(File file, BlockIndex index, BlockFilter filter, IntPredicate matches)
+      throws IOException {
+    return countMatching(file, index, filter, row -> matches.test((Integer) row.get("id")));
+  }
+
+  private static long countMatching(File file, BlockIndex index, BlockFilter filter, Predicate<GenericRecord> matches)
+      throws IOException {
+    long read = 0;
+    long matched = 0;
+    try (DataFileReader<GenericRecord> reader = new DataFileReader<>(file, new GenericDatumReader<>())) {
+      reader.setBlockIndex(index);
+      reader.setBlockFilter(filter);
+      for (GenericRecord row : reader) {
+        read++;
+        if (matches.test(row)) {
+          matched++;
+        }
+      }
+    }
+    assertTrue(read < index.getEntryCount());
+    return matched;
+  }
+
+  // the number of distinct rows read, as a sized stream may count without reading
+  private static long countStream(File file, boolean parallel) throws IOException {
+    try (Stream<GenericRecord> rows = DataFileSpliterator.stream(file, GenericDatumReader::new, parallel)) {
+      return rows.map(row -> row.get("id")).distinct().count();
+    }
+  }
+}
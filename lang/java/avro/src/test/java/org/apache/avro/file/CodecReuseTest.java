@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+/**
+ * Round trips through {@link Codec#compress(ByteBuffer, ByteBuffer)} and
+ * {@link Codec#decompress(ByteBuffer, ByteBuffer)} with heap, direct and offset
+ * buffers, both as input and as the buffer to reuse.
+ */
+@RunWith(Parameterized.class)
+public class CodecReuseTest {
+  private static final int SIZE = 50000;
+
+  @Parameterized.Parameters(name = "{0}")
+  public static Collection<Object[]> codecs() {
+    return Arrays.asList(new Object[][] { { CodecFactory.deflateCodec(6) }, { CodecFactory.snappyCodec() },
+        { CodecFactory.xzCodec(6) }, { CodecFactory.bzip2Codec() }, { CodecFactory.zstandardCodec(3) } });
+  }
+
+  private final CodecFactory factory;
+
+  public CodecReuseTest(CodecFactory factory) {
+    this.factory = factory;
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    ByteBuffer data = compressibleData();
+    Codec codec = factory.createInstance();
+    for (ByteBuffer input : buffers(data)) {
+      for (ByteBuffer reuse : reuseBuffers()) {
+        ByteBuffer compressed = codec.compress(input, reuse);
+        assertEquals("input position", data, input);
+        for (ByteBuffer compressedInput : buffers(compressed)) {
+          for (ByteBuffer decompressReuse : reuseBuffers()) {
+            assertEquals(data, codec.decompress(compressedInput, decompressReuse));
+          }
+          assertEquals(data, codec.decompress(compressedInput));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void reuseAcrossCalls() throws IOException {
+    Codec codec = factory.createInstance();
+    ByteBuffer compressed = null;
+    ByteBuffer decompressed = ByteBuffer.allocateDirect(16);
+    for (int i = 0; i < 5; i++) {
+      ByteBuffer data = compressibleData();
+      ((Buffer) data).limit(SIZE - 1000 * i); // of different sizes
+      compressed = codec.compress(data, compressed);
+      decompressed = codec.decompress(compressed, decompressed);
+      assertEquals(data, decompressed);
+    }
+  }
+
+  @Test
+  public void singleArgumentResultsWrapExactArrays() throws IOException {
+    Codec codec = factory.createInstance();
+    for (ByteBuffer input : buffers(compressibleData())) {
+      ByteBuffer compressed = codec.compress(input);
+      assertEquals(compressed.remaining(), compressed.array().length);
+      ByteBuffer decompressed = codec.decompress(compressed);
+      assertEquals(decompressed.remaining(), decompressed.array().length);
+      assertEquals(compressibleData(), decompressed);
+    }
+  }
+
+  private static ByteBuffer compressibleData() {
+    byte[] pattern = new byte[1000];
+    new Random(42).nextBytes(pattern);
+    byte[] bytes = new byte[SIZE];
+    for (int i = 0; i < bytes.length; i += pattern.length) {
+      System.arraycopy(pattern, 0, bytes, i, Math.min(pattern.length, bytes.length - i));
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  // the same bytes in a heap buffer, a direct one, one at a non-zero array
+  // offset and one at a non-zero position
+  private static ByteBuffer[] buffers(ByteBuffer data) {
+    ByteBuffer direct = ByteBuffer.allocateDirect(data.remaining());
+    direct.put(data.duplicate());
+    ((Buffer) direct).flip();
+
+    ByteBuffer padded = ByteBuffer.allocate(data.remaining() + 14);
+    ((Buffer) padded).position(7);
+    padded.put(data.duplicate());
+    ((Buffer) padded).position(7);
+    ByteBuffer offset = padded.slice();
+    ((Buffer) offset).limit(data.remaining());
+
+    ByteBuffer positioned = ByteBuffer.allocate(data.remaining() + 14);
+    ((Buffer) positioned).position(7);
+    positioned.put(data.duplicate());
+    ((Buffer) positioned).position(7);
+    ((Buffer) positioned).limit(7 + data.remaining());
+
+    return new ByteBuffer[] { copy(data), direct, offset, positioned };
+  }
+
+  private static ByteBuffer copy(ByteBuffer data) {
+    ByteBuffer copy = ByteBuffer.allocate(data.remaining());
+    copy.put(data.duplicate());
+    ((Buffer) copy).flip();
+    return copy;
+  }
+
+  // no buffer, buffers too small to hold the output, and ones large enough,
+  // including a slice at a non-zero array offset
+  private static ByteBuffer[] reuseBuffers() {
+    ByteBuffer padded = ByteBuffer.allocate(4 * SIZE + 7);
+    ((Buffer) padded).position(7);
+    return new ByteBuffer[] { null, ByteBuffer.allocate(16), ByteBuffer.allocateDirect(16),
+        ByteBuffer.allocate(4 * SIZE), ByteBuffer.allocateDirect(4 * SIZE), padded.slice() };
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.junit.Test;
+
+public class DataFileWriterTest {
+  private static final Schema SCHEMA = SchemaBuilder.record("Row").fields().requiredInt("id").requiredString("name")
+      .endRecord();
+  private static final byte[] SYNC = new byte[DataFileConstants.SYNC_SIZE];
+
+  @Test
+  public void compressionThreadsWriteSameBytes() throws IOException {
+    for (CodecFactory codec : new CodecFactory[] { CodecFactory.deflateCodec(6), CodecFactory.zstandardCodec(3) }) {
+      byte[] inline = write(codec, 0, new ByteArrayOutputStream()).toByteArray();
+      byte[] threaded = write(codec, 3, new ByteArrayOutputStream()).toByteArray();
+      assertArrayEquals(codec.toString(), inline, threaded);
+    }
+  }
+
+  @Test
+  public void failedCloseCloses() throws IOException {
+    FailingOutputStream out = new FailingOutputStream();
+    DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(SCHEMA));
+    writer.setCodec(CodecFactory.deflateCodec(6)).setCompressionThreads(2).setSyncInterval(1024);
+    writer.create(SCHEMA, out, SYNC);
+    appendRows(writer);
+
+    out.failing = true;
+    try {
+      writer.close();
+      fail("Expected the failure to write to be reported");
+    } catch (IOException e) {
+      // expected
+    }
+    try {
+      writer.append(new GenericData.Record(SCHEMA));
+      fail("Expected the writer to be closed");
+    } catch (AvroRuntimeException e) {
+      // expected
+    }
+    writer.close(); // does nothing
+  }
+
+  private static <T extends OutputStream> T write(CodecFactory codec, int threads, T out) throws IOException {
+    try (DataFileWriter<GenericRecord> writer = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(SCHEMA))) {
+      writer.setCodec(codec).setCompressionThreads(threads).setSyncInterval(1024);
+      writer.create(SCHEMA, out, SYNC);
+      appendRows(writer);
+      writer.sync(); // a block boundary of its own, between the appended rows
+      appendRows(writer);
+    }
+    return out;
+  }
+
+  private static void appendRows(DataFileWriter<GenericRecord> writer) throws IOException {
+    GenericRecord row = new GenericData.Record(SCHEMA);
+    for (int i = 0; i < 20000; i++) {
+      row.put("id", i);
+      row.put("name", "row " + (i % 100));
+      writer.append(row);
+    }
+  }
+
+  private static class FailingOutputStream extends OutputStream {
+    private boolean failing;
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (failing) {
+        throw new IOException("Failing");
+      }
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.file;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.Test;
+
+public class ZstandardCodecTest {
+
+  // large and compressible enough for the frame to span several zstd blocks and
+  // to be far bigger than a small multiple of its compressed size
+  private static final int BLOCK_SIZE = 300000;
+
+  @Test
+  public void decompressStreamingFrame() throws IOException {
+    ByteBuffer data = compressibleData();
+    // written like blocks of earlier releases, by streaming compression,
+    // without the decompressed size in the frame header
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (ZstdOutputStream out = new ZstdOutputStream(compressed, 3)) {
+      out.setCloseFrameOnFlush(false);
+      out.write(data.array());
+    }
+    ByteBuffer frame = ByteBuffer.wrap(compressed.toByteArray());
+
+    Codec codec = CodecFactory.zstandardCodec(3).createInstance();
+    assertEquals(data, codec.decompress(frame));
+    assertEquals(data, codec.decompress(frame, ByteBuffer.allocate(16)));
+    assertEquals(data, codec.decompress(frame, ByteBuffer.allocateDirect(16)));
+    assertEquals(data, codec.decompress(offsetSlice(frame), null));
+  }
+
+  @Test
+  public void decompressOneShotFrame() throws IOException {
+    ByteBuffer data = compressibleData();
+    Codec codec = CodecFactory.zstandardCodec(3, true).createInstance();
+    ByteBuffer frame = codec.compress(data);
+
+    assertEquals(data, codec.decompress(frame));
+    assertEquals(data, codec.decompress(frame, ByteBuffer.allocate(16)));
+    assertEquals(data, codec.decompress(frame, ByteBuffer.allocateDirect(16)));
+    assertEquals(data, codec.decompress(offsetSlice(frame), null));
+  }
+
+  private static ByteBuffer compressibleData() {
+    byte[] pattern = new byte[1000];
+    new Random(42).nextBytes(pattern);
+    byte[] bytes = new byte[BLOCK_SIZE];
+    for (int i = 0; i < bytes.length; i += pattern.length) {
+      System.arraycopy(pattern, 0, bytes, i, Math.min(pattern.length, bytes.length - i));
+    }
+    return ByteBuffer.wrap(bytes);
+  }
+
+  // the same bytes at a non-zero array offset
+  private static ByteBuffer offsetSlice(ByteBuffer frame) {
+    ByteBuffer padded = ByteBuffer.allocate(frame.remaining() + 7);
+    ((Buffer) padded).position(7);
+    padded.put(frame.duplicate());
+    ((Buffer) padded).position(7);
+    return padded.slice();
+  }
+}
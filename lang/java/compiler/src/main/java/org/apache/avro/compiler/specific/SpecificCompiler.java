@@ -47,7 +47,6 @@ import org.apache.avro.Protocol;
 import org.apache.avro.Protocol.Message;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
-import org.apache.avro.SchemaNormalization;
 import org.apache.avro.JsonProperties;
 import org.apache.avro.generic.GenericData;
 import org.apache.avro.generic.GenericData.StringType;
@@ -1043,7 +1042,7 @@ public class SpecificCompiler {
 
   /** Utility for use by templates. Return schema fingerprint as a long. */
   public static long fingerprint64(Schema schema) {
-    return SchemaNormalization.parsingFingerprint64(schema);
+    return schema.getParsingFingerprint64();
   }
 
   /**
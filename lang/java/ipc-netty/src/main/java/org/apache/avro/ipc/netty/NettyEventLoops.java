@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.ipc.netty;
+
+import java.util.concurrent.ThreadFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+
+/**
+ * Creates the event loop groups used by {@link NettyServer} and
+ * {@link NettyTransceiver}, and picks the channel types that go with them.
+ *
+ * Netty's native epoll transport is used when it is available, that is on Linux
+ * with the optional netty-transport-native-epoll dependency on the classpath,
+ * unless the {@value #EPOLL_PROPERTY} system property is set to false. NIO is
+ * used otherwise.
+ */
+public final class NettyEventLoops {
+  /** System property that disables the native epoll transport when false. */
+  public static final String EPOLL_PROPERTY = "org.apache.avro.ipc.netty.epoll";
+
+  // The epoll classes are only resolved once they are known to be there.
+  private static final boolean EPOLL_CLASSES = hasEpollClasses();
+  private static final boolean EPOLL = EPOLL_CLASSES
+      && Boolean.parseBoolean(System.getProperty(EPOLL_PROPERTY, "true")) && Epoll.isAvailable();
+
+  private NettyEventLoops() {
+  }
+
+  /** Returns true if new event loop groups use the native epoll transport. */
+  public static boolean isEpollAvailable() {
+    return EPOLL;
+  }
+
+  /**
+   * Returns the number of available processors, which event loop sizes default
+   * to.
+   */
+  public static int availableProcessors() {
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Creates an event loop group for channel I/O, using epoll if available and NIO
+   * otherwise.
+   *
+   * @param nThreads      the number of threads, or 0 for Netty's default of twice
+   *                      the number of available processors.
+   * @param threadFactory the factory for the loop threads, or null for Netty's
+   *                      default.
+   */
+  public static EventLoopGroup newEventLoopGroup(int nThreads, ThreadFactory threadFactory) {
+    if (EPOLL) {
+      return new EpollEventLoopGroup(nThreads, threadFactory);
+    }
+    return new NioEventLoopGroup(nThreads, threadFactory);
+  }
+
+  /** Returns the server channel type to register with an event loop group. */
+  public static Class<? extends ServerSocketChannel> serverChannelClass(EventLoopGroup group) {
+    if (EPOLL_CLASSES && group instanceof EpollEventLoopGroup) {
+      return EpollServerSocketChannel.class;
+    }
+    return NioServerSocketChannel.class;
+  }
+
+  /** Returns the client channel type to register with an event loop group. */
+  public static Class<? extends SocketChannel> channelClass(EventLoopGroup group) {
+    if (EPOLL_CLASSES && group instanceof EpollEventLoopGroup) {
+      return EpollSocketChannel.class;
+    }
+    return NioSocketChannel.class;
+  }
+
+  private static boolean hasEpollClasses() {
+    try {
+      Class.forName("io.netty.channel.epoll.Epoll", false, NettyEventLoops.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+}
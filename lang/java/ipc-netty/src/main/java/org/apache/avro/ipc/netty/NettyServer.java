@@ -23,6 +23,8 @@ import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -39,9 +41,7 @@ import io.netty.channel.ChannelOption;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,7 +57,7 @@ public class NettyServer implements Server {
   private final Channel serverChannel;
   private final EventLoopGroup bossGroup;
   private final EventLoopGroup workerGroup;
-  private final EventLoopGroup callerGroup;
+  private final ExecutorService callerExecutor;
   private final CountDownLatch closed = new CountDownLatch(1);
   private final AtomicInteger activeCount = new AtomicInteger(0);
 
@@ -78,18 +78,69 @@ public class NettyServer implements Server {
   public NettyServer(Responder responder, InetSocketAddress addr, final Consumer<SocketChannel> initializer,
       final Consumer<ServerBootstrap> bootStrapInitialzier, EventLoopGroup bossGroup, EventLoopGroup workerGroup,
       EventLoopGroup callerGroup) throws InterruptedException {
-    this.bossGroup = bossGroup == null ? new NioEventLoopGroup(1) : bossGroup;
-    this.workerGroup = workerGroup == null ? new NioEventLoopGroup(10) : workerGroup;
-    this.callerGroup = callerGroup == null ? new DefaultEventLoopGroup(16) : callerGroup;
+    this(responder, addr, initializer, bootStrapInitialzier, bossGroup, workerGroup, callerGroup, false);
+  }
+
+  /**
+   * Creates a server. Event loop groups that are not given are created with
+   * {@link NettyEventLoops}, using the native epoll transport when available:
+   * one boss thread, a worker thread per available processor and, unless
+   * requests are handled on the worker threads, two caller threads per available
+   * processor.
+   *
+   * @param bossGroup         the group accepting connections, or null.
+   * @param workerGroup       the group doing channel I/O, or null. Must use the
+   *                          same transport as the boss group.
+   * @param callerGroup       the group running {@link Responder#respond}, or
+   *                          null. Ignored if respondOnIoThread is true.
+   * @param respondOnIoThread if true, requests are handled on the I/O thread that
+   *                          read them, which saves a thread hand-off per call but
+   *                          stalls every connection of that thread while a
+   *                          request is being handled. Only suitable for
+   *                          responders that never block.
+   */
+  public NettyServer(Responder responder, InetSocketAddress addr, final Consumer<SocketChannel> initializer,
+      final Consumer<ServerBootstrap> bootStrapInitialzier, EventLoopGroup bossGroup, EventLoopGroup workerGroup,
+      EventLoopGroup callerGroup, boolean respondOnIoThread) throws InterruptedException {
+    this(responder, addr, initializer, bootStrapInitialzier, bossGroup, workerGroup, (ExecutorService) callerGroup,
+        respondOnIoThread);
+  }
+
+  /**
+   * Creates a server that handles requests on the given executor, such as
+   * {@link org.apache.avro.ipc.VirtualThreads#newThreadPerTaskExecutor(String)}
+   * for responders that block. The executor is shut down when the server is
+   * closed.
+   *
+   * @param callerExecutor the executor running {@link Responder#respond}.
+   */
+  public NettyServer(Responder responder, InetSocketAddress addr, final Consumer<SocketChannel> initializer,
+      final Consumer<ServerBootstrap> bootStrapInitialzier, EventLoopGroup bossGroup, EventLoopGroup workerGroup,
+      ExecutorService callerExecutor) throws InterruptedException {
+    this(responder, addr, initializer, bootStrapInitialzier, bossGroup, workerGroup, callerExecutor, false);
+  }
+
+  private NettyServer(Responder responder, InetSocketAddress addr, final Consumer<SocketChannel> initializer,
+      final Consumer<ServerBootstrap> bootStrapInitialzier, EventLoopGroup bossGroup, EventLoopGroup workerGroup,
+      ExecutorService callerExecutor, boolean respondOnIoThread) throws InterruptedException {
+    int processors = NettyEventLoops.availableProcessors();
+    this.bossGroup = bossGroup == null ? NettyEventLoops.newEventLoopGroup(1, null) : bossGroup;
+    this.workerGroup = workerGroup == null ? NettyEventLoops.newEventLoopGroup(processors, null) : workerGroup;
+    if (respondOnIoThread) {
+      this.callerExecutor = null;
+    } else {
+      this.callerExecutor = callerExecutor == null ? new DefaultEventLoopGroup(2 * processors) : callerExecutor;
+    }
     this.responder = responder;
     ServerBootstrap bootstrap = new ServerBootstrap().group(this.bossGroup, this.workerGroup)
-        .channel(NioServerSocketChannel.class).childHandler(new ChannelInitializer<SocketChannel>() {
+        .channel(NettyEventLoops.serverChannelClass(this.bossGroup))
+        .childHandler(new ChannelInitializer<SocketChannel>() {
           @Override
           public void initChannel(SocketChannel ch) throws Exception {
             if (initializer != null) {
               initializer.accept(ch);
             }
-            ch.pipeline().addLast("frameDecoder", new NettyFrameDecoder())
+            ch.pipeline().addLast("frameDecoder", new NettyFrameDecoder(true))
                 .addLast("frameEncoder", new NettyFrameEncoder()).addLast("handler", new NettyServerAvroHandler());
           }
         }).option(ChannelOption.SO_BACKLOG, 1024).childOption(ChannelOption.TCP_NODELAY, true)
@@ -110,6 +161,11 @@ public class NettyServer implements Server {
   public void close() {
     workerGroup.shutdownGracefully().syncUninterruptibly();
     bossGroup.shutdownGracefully().syncUninterruptibly();
+    if (callerExecutor instanceof EventLoopGroup) {
+      ((EventLoopGroup) callerExecutor).shutdownGracefully().syncUninterruptibly();
+    } else if (callerExecutor != null) {
+      callerExecutor.shutdown();
+    }
     try {
       serverChannel.closeFuture().sync();
     } catch (InterruptedException e) {
@@ -152,22 +208,36 @@ public class NettyServer implements Server {
 
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, final NettyDataPack dataPack) throws Exception {
-      callerGroup.submit(new Runnable() {
-        @Override
-        public void run() {
-          List<ByteBuffer> req = dataPack.getDatas();
-          try {
-            List<ByteBuffer> res = responder.respond(req, connectionMetadata);
-            // response will be null for oneway messages.
-            if (res != null) {
-              dataPack.setDatas(res);
-              ctx.channel().writeAndFlush(dataPack);
-            }
-          } catch (IOException e) {
-            LOG.warn("unexpected error");
-          }
+      if (callerExecutor == null) {
+        respond(ctx, dataPack);
+        return;
+      }
+      try {
+        callerExecutor.execute(() -> respond(ctx, dataPack));
+      } catch (RejectedExecutionException e) {
+        dataPack.release();
+        throw e;
+      }
+    }
+
+    private void respond(ChannelHandlerContext ctx, NettyDataPack dataPack) {
+      List<ByteBuffer> req = dataPack.getDatas();
+      try {
+        List<ByteBuffer> res;
+        try {
+          res = responder.respond(req, connectionMetadata);
+        } finally {
+          // the request has been read, so the frame it was decoded from can be reused
+          dataPack.release();
+        }
+        // response will be null for oneway messages.
+        if (res != null) {
+          dataPack.setDatas(res);
+          ctx.channel().writeAndFlush(dataPack);
         }
-      });
+      } catch (IOException e) {
+        LOG.warn("unexpected error");
+      }
     }
 
     @Override
@@ -47,9 +47,7 @@ import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.SimpleChannelInboundHandler;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,7 +71,8 @@ public class NettyTransceiver extends Transceiver {
   private final Integer connectTimeoutMillis;
   private final Bootstrap bootstrap;
   private final InetSocketAddress remoteAddr;
-  private final EventLoopGroup workerGroup = new NioEventLoopGroup(new NettyTransceiverThreadFactory("avro"));
+  private final EventLoopGroup workerGroup = NettyEventLoops.newEventLoopGroup(0,
+      new NettyTransceiverThreadFactory("avro"));
 
   volatile ChannelFuture channelFuture;
   volatile boolean stopping;
@@ -171,7 +170,7 @@ public class NettyTransceiver extends Transceiver {
       connectTimeoutMillis = DEFAULT_CONNECTION_TIMEOUT_MILLIS;
     }
     this.connectTimeoutMillis = connectTimeoutMillis;
-    bootstrap = new Bootstrap().group(workerGroup).channel(NioSocketChannel.class)
+    bootstrap = new Bootstrap().group(workerGroup).channel(NettyEventLoops.channelClass(workerGroup))
         .option(ChannelOption.SO_KEEPALIVE, true).option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
         .option(ChannelOption.TCP_NODELAY, DEFAULT_TCP_NODELAY_VALUE).handler(new ChannelInitializer<SocketChannel>() {
           @Override
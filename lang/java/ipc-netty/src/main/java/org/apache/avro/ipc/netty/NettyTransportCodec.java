@@ -18,18 +18,16 @@
 
 package org.apache.avro.ipc.netty;
 
-import static io.netty.buffer.Unpooled.wrappedBuffer;
-
-import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.avro.AvroRuntimeException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
-import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.handler.codec.MessageToByteEncoder;
 
 /**
  * Data structure, encoder and decoder classes for the Netty transport.
@@ -41,6 +39,7 @@ public class NettyTransportCodec {
   public static class NettyDataPack {
     private int serial; // to track each call in client side
     private List<ByteBuffer> datas;
+    private ByteBuf frame; // pooled buffer the datas are views of, if any
 
     public NettyDataPack() {
     }
@@ -66,61 +65,88 @@ public class NettyTransportCodec {
       return datas;
     }
 
+    /**
+     * Releases the pooled buffer the datas were decoded into, if any. The datas
+     * read by the decoder must not be used afterwards.
+     */
+    void release() {
+      if (frame != null) {
+        frame.release();
+        frame = null;
+      }
+    }
+
   }
 
   /**
-   * Protocol encoder which converts NettyDataPack which contains the Responder's
-   * output List&lt;ByteBuffer&gt; to ChannelBuffer needed by Netty.
+   * Protocol encoder which writes the Responder's or Requestor's output
+   * List&lt;ByteBuffer&gt; held by a NettyDataPack, along with the frame headers,
+   * into a single buffer from the channel's allocator.
    */
-  public static class NettyFrameEncoder extends MessageToMessageEncoder<NettyDataPack> {
+  public static class NettyFrameEncoder extends MessageToByteEncoder<NettyDataPack> {
 
     /**
-     * encode msg to ChannelBuffer
-     * 
-     * @param msg NettyDataPack from NettyServerAvroHandler/NettyClientAvroHandler
-     *            in the pipeline
-     * @return encoded ChannelBuffer
+     * Allocates a buffer sized for the whole frame, so that it is never grown.
      */
     @Override
-    protected void encode(ChannelHandlerContext ctx, NettyDataPack dataPack, List<Object> out) throws Exception {
-      List<ByteBuffer> origs = dataPack.getDatas();
-      List<ByteBuffer> bbs = new ArrayList<>(origs.size() * 2 + 1);
-      bbs.add(getPackHeader(dataPack)); // prepend a pack header including serial number and list size
-      for (ByteBuffer b : origs) {
-        bbs.add(getLengthHeader(b)); // for each buffer prepend length field
-        bbs.add(b);
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, NettyDataPack dataPack, boolean preferDirect)
+        throws Exception {
+      int size = 8;
+      for (ByteBuffer b : dataPack.getDatas()) {
+        size += 4 + b.remaining();
       }
-      out.add(wrappedBuffer(bbs.toArray(new ByteBuffer[0])));
-    }
-
-    private ByteBuffer getPackHeader(NettyDataPack dataPack) {
-      ByteBuffer header = ByteBuffer.allocate(8);
-      header.putInt(dataPack.getSerial());
-      header.putInt(dataPack.getDatas().size());
-      ((Buffer) header).flip();
-      return header;
+      return preferDirect ? ctx.alloc().ioBuffer(size) : ctx.alloc().heapBuffer(size);
     }
 
-    private ByteBuffer getLengthHeader(ByteBuffer buf) {
-      ByteBuffer header = ByteBuffer.allocate(4);
-      header.putInt(buf.limit());
-      ((Buffer) header).flip();
-      return header;
+    /**
+     * encode msg to ByteBuf
+     *
+     * @param dataPack NettyDataPack from
+     *                 NettyServerAvroHandler/NettyClientAvroHandler in the
+     *                 pipeline
+     * @param out      the buffer to write the frame to
+     */
+    @Override
+    protected void encode(ChannelHandlerContext ctx, NettyDataPack dataPack, ByteBuf out) throws Exception {
+      List<ByteBuffer> datas = dataPack.getDatas();
+      // pack header including serial number and list size
+      out.writeInt(dataPack.getSerial());
+      out.writeInt(datas.size());
+      for (ByteBuffer b : datas) {
+        out.writeInt(b.remaining()); // for each buffer prepend length field
+        out.writeBytes(b.duplicate());
+      }
     }
   }
 
   /**
-   * Protocol decoder which converts Netty's ChannelBuffer to NettyDataPack which
+   * Protocol decoder which converts Netty's ByteBuf to NettyDataPack which
    * contains a List&lt;ByteBuffer&gt; needed by Avro Responder.
+   *
+   * A frame is only decoded once it has been received completely. By default its
+   * buffers are then copied to a single heap buffer, so that they can be held on
+   * to indefinitely. A decoder created to retain frames instead hands out views
+   * of the received pooled buffer without copying: the receiving handler must
+   * then call {@link NettyDataPack#release()} as soon as it is done reading them.
    */
   public static class NettyFrameDecoder extends ByteToMessageDecoder {
-    private boolean packHeaderRead = false;
-    private int listSize;
-    private NettyDataPack dataPack;
+    private final boolean retainFrames;
+    private int buffersScanned; // number of length fields of the pending frame read
+    private long frameLength; // length of the pending frame up to the last buffer scanned
     private final long maxMem;
     private static final long SIZEOF_REF = 8L; // mem usage of 64-bit pointer
 
     public NettyFrameDecoder() {
+      this(false);
+    }
+
+    /**
+     * @param retainFrames if true, decoded buffers are views of the received
+     *                     pooled buffers, which must be released by calling
+     *                     {@link NettyDataPack#release()}.
+     */
+    public NettyFrameDecoder(boolean retainFrames) {
+      this.retainFrames = retainFrames;
       maxMem = Runtime.getRuntime().maxMemory();
     }
 
@@ -129,62 +155,57 @@ public class NettyTransportCodec {
      */
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
-      if (!in.isReadable()) {
+      if (in.readableBytes() < 8) {
         return;
       }
-      if (!packHeaderRead) {
-        if (decodePackHeader(ctx, in)) {
-          packHeaderRead = true;
-        }
-      } else {
-        if (decodePackBody(ctx, in)) {
-          packHeaderRead = false; // reset state
-          out.add(dataPack);
+      int start = in.readerIndex();
+      int listSize = in.getInt(start + 4);
+
+      if (frameLength == 0) {
+        // Sanity check to reduce likelihood of invalid requests being honored.
+        // Only allow 10% of available memory to go towards this list (too much!)
+        if (listSize < 0 || listSize * SIZEOF_REF > 0.1 * maxMem) {
+          throw new AvroRuntimeException(
+              "Excessively large list allocation " + "request detected: " + listSize + " items! Connection closed.");
         }
+        frameLength = 8;
       }
-    }
 
-    private boolean decodePackHeader(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
-      if (buffer.readableBytes() < 8) {
-        return false;
+      // Nothing is consumed until the whole frame is there, so the length fields
+      // already scanned stay at the same offset from the reader index.
+      while (buffersScanned < listSize) {
+        if (in.readableBytes() < frameLength + 4) {
+          return;
+        }
+        int length = in.getInt(start + (int) frameLength);
+        if (length < 0 || frameLength + 4 + length > Integer.MAX_VALUE) {
+          throw new AvroRuntimeException("Invalid buffer length: " + length + "! Connection closed.");
+        }
+        frameLength += 4 + length;
+        buffersScanned++;
       }
-
-      int serial = buffer.readInt();
-      int listSize = buffer.readInt();
-
-      // Sanity check to reduce likelihood of invalid requests being honored.
-      // Only allow 10% of available memory to go towards this list (too much!)
-      if (listSize * SIZEOF_REF > 0.1 * maxMem) {
-        throw new AvroRuntimeException(
-            "Excessively large list allocation " + "request detected: " + listSize + " items! Connection closed.");
+      if (in.readableBytes() < frameLength) {
+        return;
       }
 
-      this.listSize = listSize;
-      dataPack = new NettyDataPack(serial, new ArrayList<>(listSize));
-
-      return true;
-    }
-
-    private boolean decodePackBody(ChannelHandlerContext ctx, ByteBuf buffer) throws Exception {
-      if (buffer.readableBytes() < 4) {
-        return false;
+      int length = (int) frameLength;
+      ByteBuf frame = retainFrames ? in.retainedSlice(start, length) : Unpooled.copiedBuffer(in.slice(start, length));
+      in.skipBytes(length);
+      buffersScanned = 0;
+      frameLength = 0;
+
+      List<ByteBuffer> datas = new ArrayList<>(listSize);
+      int position = 8;
+      for (int i = 0; i < listSize; i++) {
+        int size = frame.getInt(position);
+        datas.add(frame.nioBuffer(position + 4, size));
+        position += 4 + size;
       }
-
-      buffer.markReaderIndex();
-
-      int length = buffer.readInt();
-
-      if (buffer.readableBytes() < length) {
-        buffer.resetReaderIndex();
-        return false;
+      NettyDataPack dataPack = new NettyDataPack(frame.getInt(0), datas);
+      if (retainFrames) {
+        dataPack.frame = frame;
       }
-
-      ByteBuffer bb = ByteBuffer.allocate(length);
-      buffer.readBytes(bb);
-      ((Buffer) bb).flip();
-      dataPack.getDatas().add(bb);
-
-      return dataPack.getDatas().size() == listSize;
+      out.add(dataPack);
     }
 
   }
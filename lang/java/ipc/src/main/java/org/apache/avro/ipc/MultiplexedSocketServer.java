@@ -0,0 +1,393 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.ipc;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Protocol;
+
+/**
+ * A socket-based server that handles many concurrent calls per connection, for
+ * clients using a {@link MultiplexedSocketTransceiver} or a NettyTransceiver.
+ *
+ * A single thread accepts connections and does all socket I/O without
+ * blocking, while requests are handled on a bounded pool of worker threads.
+ * Responses are sent as soon as they are ready, tagged with the id of the call
+ * they answer. When all workers are busy and the queue of pending requests is
+ * full, the I/O thread handles the next request itself, which stops it from
+ * reading more until that is done.
+ */
+public class MultiplexedSocketServer extends Thread implements Server {
+  private static final Logger LOG = LoggerFactory.getLogger(MultiplexedSocketServer.class);
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final long SIZEOF_REF = 8L; // mem usage of 64-bit pointer
+
+  private final Responder responder;
+  private final ServerSocketChannel channel;
+  private final Selector selector;
+  private final ExecutorService workers;
+  private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+  private final long maxMem = Runtime.getRuntime().maxMemory();
+  private volatile boolean closed;
+
+  /**
+   * Creates a server with a worker per available processor, and room for a
+   * thousand pending requests.
+   */
+  public MultiplexedSocketServer(Responder responder, SocketAddress addr) throws IOException {
+    this(responder, addr, Runtime.getRuntime().availableProcessors(), 1000);
+  }
+
+  /**
+   * @param workerThreads the number of threads handling requests.
+   * @param queueSize     the number of received requests that may wait for a
+   *                      worker.
+   */
+  public MultiplexedSocketServer(Responder responder, SocketAddress addr, int workerThreads, int queueSize)
+      throws IOException {
+    this(responder, addr, newWorkers("MultiplexedSocketServer on " + addr, workerThreads, queueSize));
+  }
+
+  /**
+   * Creates a server that handles requests on the given executor, such as
+   * {@link VirtualThreads#newThreadPerTaskExecutor(String)} for responders that
+   * block. The executor is shut down when the server is closed. If it rejects
+   * a request, the connection the request came on is closed.
+   */
+  public MultiplexedSocketServer(Responder responder, SocketAddress addr, ExecutorService workers)
+      throws IOException {
+    this.responder = responder;
+    this.workers = workers;
+    this.selector = Selector.open();
+    this.channel = ServerSocketChannel.open();
+    channel.socket().bind(addr);
+    channel.configureBlocking(false);
+    channel.register(selector, SelectionKey.OP_ACCEPT);
+
+    setName("MultiplexedSocketServer on " + addr);
+    setDaemon(true);
+  }
+
+  private static ExecutorService newWorkers(String name, int workerThreads, int queueSize) {
+    AtomicInteger threadId = new AtomicInteger(0);
+    return new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueSize), r -> {
+          Thread thread = new Thread(r, name + " worker " + threadId.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+  }
+
+  @Override
+  public int getPort() {
+    return channel.socket().getLocalPort();
+  }
+
+  @Override
+  public void run() {
+    LOG.info("starting " + channel.socket().getInetAddress());
+    try {
+      while (!closed) {
+        selector.select();
+        Connection pending;
+        while ((pending = pendingWrites.poll()) != null) {
+          pending.registerWrite();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+            continue;
+          }
+          Connection connection = (Connection) key.attachment();
+          try {
+            if (key.isReadable()) {
+              connection.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+              connection.flush();
+            }
+          } catch (IOException | AvroRuntimeException e) {
+            LOG.debug("closing connection to {}", connection.getRemoteName(), e);
+            connection.close();
+          }
+        }
+      }
+    } catch (IOException e) {
+      if (!closed) {
+        LOG.warn("unexpected error", e);
+        throw new RuntimeException(e);
+      }
+    } finally {
+      LOG.info("stopping " + channel.socket().getInetAddress());
+      workers.shutdown();
+      for (SelectionKey key : selector.keys()) {
+        if (key.attachment() instanceof Connection) {
+          ((Connection) key.attachment()).close();
+        }
+      }
+      try {
+        channel.close();
+        selector.close();
+      } catch (IOException e) {
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel socket = channel.accept();
+    if (socket == null) {
+      return;
+    }
+    socket.configureBlocking(false);
+    socket.socket().setTcpNoDelay(true);
+    Connection connection = new Connection(socket);
+    connection.key = socket.register(selector, SelectionKey.OP_READ, connection);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    selector.wakeup();
+  }
+
+  /**
+   * The state of a client connection. Also serves as the {@link Transceiver}
+   * passed to the responder, which keeps the handshake state of the connection
+   * in it.
+   */
+  private class Connection extends Transceiver {
+    private final SocketChannel socket;
+    private final String remoteName;
+    private SelectionKey key; // only used by the I/O thread
+    private volatile Protocol remote;
+
+    // Frame being read, only used by the I/O thread.
+    private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private int serial;
+    private int size = -1; // number of buffers in the frame, or -1 before its header
+    private List<ByteBuffer> buffers;
+    private ByteBuffer buffer; // buffer being filled, or null before its length
+
+    // Frames waiting to be written, guarded by itself.
+    private final Queue<ByteBuffer[]> out = new ArrayDeque<>();
+
+    Connection(SocketChannel socket) {
+      this.socket = socket;
+      this.remoteName = String.valueOf(socket.socket().getRemoteSocketAddress());
+    }
+
+    @Override
+    public String getRemoteName() {
+      return remoteName;
+    }
+
+    /** Reads what is available, and dispatches each request once complete. */
+    void read() throws IOException {
+      if (socket.read(in) < 0) {
+        close();
+        return;
+      }
+      ((Buffer) in).flip();
+      try {
+        while (parse()) {
+          dispatch(serial, buffers);
+          size = -1;
+        }
+      } finally {
+        in.compact();
+      }
+    }
+
+    /** Consumes input for the current frame, and returns true once complete. */
+    private boolean parse() {
+      if (size < 0) {
+        if (in.remaining() < 8) {
+          return false;
+        }
+        serial = in.getInt();
+        size = in.getInt();
+        // Sanity check to reduce likelihood of invalid requests being honored.
+        // Only allow 10% of available memory to go towards this list (too much!)
+        if (size < 0 || size * SIZEOF_REF > 0.1 * maxMem) {
+          throw new AvroRuntimeException(
+              "Excessively large list allocation " + "request detected: " + size + " items! Connection closed.");
+        }
+        buffers = new ArrayList<>(size);
+      }
+      while (buffers.size() < size) {
+        if (buffer == null) {
+          if (in.remaining() < 4) {
+            return false;
+          }
+          int length = in.getInt();
+          if (length < 0) {
+            throw new AvroRuntimeException("Invalid buffer length: " + length + "! Connection closed.");
+          }
+          buffer = ByteBuffer.allocate(length);
+        }
+        int n = Math.min(in.remaining(), buffer.remaining());
+        ByteBuffer chunk = in.duplicate();
+        ((Buffer) chunk).limit(chunk.position() + n);
+        buffer.put(chunk);
+        ((Buffer) in).position(in.position() + n);
+        if (buffer.hasRemaining()) {
+          return false;
+        }
+        ((Buffer) buffer).flip();
+        buffers.add(buffer);
+        buffer = null;
+      }
+      return true;
+    }
+
+    private void dispatch(int serial, List<ByteBuffer> request) {
+      try {
+        workers.execute(() -> handle(serial, request));
+      } catch (RejectedExecutionException e) {
+        // only this connection is dropped, as its request can not be answered
+        LOG.warn("request from {} rejected", getRemoteName(), e);
+        throw new AvroRuntimeException("Request rejected by the executor", e);
+      }
+    }
+
+    private void handle(int serial, List<ByteBuffer> request) {
+      try {
+        List<ByteBuffer> response = responder.respond(request, this);
+        // response will be null for oneway messages.
+        if (response != null) {
+          send(MultiplexedSocketTransceiver.frame(serial, response));
+        }
+      } catch (ClosedChannelException e) {
+        // the client went away before the response was ready
+      } catch (IOException e) {
+        LOG.warn("unexpected error", e);
+      }
+    }
+
+    /**
+     * Writes a response right away if nothing else is queued and the socket takes
+     * it all, and has the I/O thread write it otherwise.
+     */
+    private void send(ByteBuffer[] frame) throws IOException {
+      synchronized (out) {
+        if (out.isEmpty()) {
+          socket.write(frame);
+          if (!MultiplexedSocketTransceiver.hasRemaining(frame)) {
+            return;
+          }
+        }
+        out.add(frame);
+        if (out.size() > 1) {
+          return; // the I/O thread has already been asked to write
+        }
+      }
+      pendingWrites.add(this);
+      selector.wakeup();
+    }
+
+    /** Called by the I/O thread to watch for the socket becoming writable. */
+    void registerWrite() {
+      if (key.isValid()) {
+        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+      }
+    }
+
+    /** Called by the I/O thread to write queued responses. */
+    void flush() throws IOException {
+      synchronized (out) {
+        ByteBuffer[] frame;
+        while ((frame = out.peek()) != null) {
+          socket.write(frame);
+          if (MultiplexedSocketTransceiver.hasRemaining(frame)) {
+            return;
+          }
+          out.remove();
+        }
+        key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+      }
+    }
+
+    @Override
+    public List<ByteBuffer> readBuffers() throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isConnected() {
+      return remote != null;
+    }
+
+    @Override
+    public void setRemote(Protocol remote) {
+      this.remote = remote;
+    }
+
+    @Override
+    public Protocol getRemote() {
+      return remote;
+    }
+
+    @Override
+    public void close() {
+      if (key != null) {
+        key.cancel();
+      }
+      try {
+        socket.close();
+      } catch (IOException e) {
+      }
+    }
+  }
+}
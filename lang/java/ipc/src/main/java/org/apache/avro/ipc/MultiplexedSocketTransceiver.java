@@ -0,0 +1,259 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.ipc;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketAddress;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.apache.avro.Protocol;
+
+/**
+ * A socket-based {@link Transceiver} that multiplexes concurrent calls over a
+ * single connection. Each frame is tagged with a call id, so any number of
+ * requests may be in flight at once, and responses are matched to their
+ * requests as they arrive, in whatever order the server completes them.
+ *
+ * Frames are laid out as in the Netty transport: a call id and a buffer count,
+ * each followed by a length-prefixed buffer. This transceiver can thus talk to
+ * either a {@link MultiplexedSocketServer} or a NettyServer.
+ *
+ * Responses are read by a dedicated daemon thread, on which result callbacks
+ * are run.
+ */
+public class MultiplexedSocketTransceiver extends Transceiver {
+  private static final Logger LOG = LoggerFactory.getLogger(MultiplexedSocketTransceiver.class);
+
+  private final SocketChannel channel;
+  private final AtomicInteger serialGenerator = new AtomicInteger(0);
+  private final Map<Integer, Callback<List<ByteBuffer>>> requests = new ConcurrentHashMap<>();
+  // not synchronized, so that virtual threads blocked on the channel can unmount
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Thread reader;
+
+  private volatile boolean closed;
+  private volatile Protocol remote;
+
+  public MultiplexedSocketTransceiver(SocketAddress address) throws IOException {
+    this(SocketChannel.open(address));
+  }
+
+  public MultiplexedSocketTransceiver(SocketChannel channel) throws IOException {
+    this.channel = channel;
+    this.channel.socket().setTcpNoDelay(true);
+    LOG.info("open to " + getRemoteName());
+
+    reader = new Thread(this::readResponses, "MultiplexedSocketTransceiver reader for " + getRemoteName());
+    reader.setDaemon(true);
+    reader.start();
+  }
+
+  @Override
+  public String getRemoteName() {
+    return channel.socket().getRemoteSocketAddress().toString();
+  }
+
+  /**
+   * Override as non-synchronized method because the method is thread safe.
+   */
+  @Override
+  public List<ByteBuffer> transceive(List<ByteBuffer> request) throws IOException {
+    CallFuture<List<ByteBuffer>> future = new CallFuture<>();
+    transceive(request, future);
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt(); // Reset interrupt flag
+      throw new InterruptedIOException("Interrupted while waiting for a response from " + getRemoteName());
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  @Override
+  public void transceive(List<ByteBuffer> request, Callback<List<ByteBuffer>> callback) throws IOException {
+    int serial = serialGenerator.incrementAndGet();
+    requests.put(serial, callback);
+    // Once closed, the reader fails pending calls, possibly not this one: unless
+    // it has been failed already, fail it here.
+    if (closed && requests.remove(serial) != null) {
+      throw new IOException(getClass().getSimpleName() + " closed");
+    }
+    try {
+      write(serial, request);
+    } catch (IOException e) {
+      if (requests.remove(serial) != null) {
+        throw e;
+      }
+    }
+  }
+
+  /** Writes a one-way message, which gets no response. */
+  @Override
+  public void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+    write(serialGenerator.incrementAndGet(), buffers);
+  }
+
+  @Override
+  public List<ByteBuffer> readBuffers() throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  private void write(int serial, List<ByteBuffer> buffers) throws IOException {
+    ByteBuffer[] frame = frame(serial, buffers);
+    writeLock.lock();
+    try {
+      while (hasRemaining(frame)) {
+        channel.write(frame);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /** Reads responses and completes the calls they belong to, until closed. */
+  private void readResponses() {
+    Throwable cause = null;
+    try {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+      while (true) {
+        int serial = in.readInt();
+        int size = in.readInt();
+        if (size < 0) {
+          throw new IOException("Invalid buffer count: " + size);
+        }
+        List<ByteBuffer> buffers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          byte[] buffer = new byte[in.readInt()];
+          in.readFully(buffer);
+          buffers.add(ByteBuffer.wrap(buffer));
+        }
+        Callback<List<ByteBuffer>> callback = requests.remove(serial);
+        if (callback == null) {
+          LOG.warn("Dropping response to unknown call {} from {}", serial, getRemoteName());
+        } else {
+          callback.handleResult(buffers);
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      if (!closed) {
+        LOG.debug("Disconnecting from {}", getRemoteName(), e);
+        cause = e;
+      }
+    } finally {
+      closed = true;
+      try {
+        channel.close();
+      } catch (IOException e) {
+        // already failing all pending calls
+      }
+      for (Integer serial : requests.keySet()) {
+        Callback<List<ByteBuffer>> callback = requests.remove(serial);
+        if (callback != null) {
+          callback.handleError(cause != null ? cause : new IOException(getClass().getSimpleName() + " closed"));
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the buffers to write for a frame, to be written with a gathering
+   * write. The headers share one buffer, and the payload buffers are not copied.
+   */
+  static ByteBuffer[] frame(int serial, List<ByteBuffer> buffers) {
+    ByteBuffer headers = ByteBuffer.allocate(8 + 4 * buffers.size());
+    headers.putInt(serial);
+    headers.putInt(buffers.size());
+    for (ByteBuffer buffer : buffers) {
+      headers.putInt(buffer.remaining());
+    }
+
+    ByteBuffer[] frame = new ByteBuffer[1 + 2 * buffers.size()];
+    frame[0] = slice(headers, 0, 8);
+    for (int i = 0; i < buffers.size(); i++) {
+      frame[1 + 2 * i] = slice(headers, 8 + 4 * i, 4);
+      frame[2 + 2 * i] = buffers.get(i).duplicate();
+    }
+    return frame;
+  }
+
+  private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+    ByteBuffer slice = buffer.duplicate();
+    ((Buffer) slice).limit(position + length);
+    ((Buffer) slice).position(position);
+    return slice;
+  }
+
+  static boolean hasRemaining(ByteBuffer[] buffers) {
+    for (int i = buffers.length - 1; i >= 0; i--) {
+      if (buffers[i].hasRemaining()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean isConnected() {
+    return remote != null;
+  }
+
+  @Override
+  public void setRemote(Protocol remote) {
+    this.remote = remote;
+  }
+
+  @Override
+  public Protocol getRemote() {
+    return remote;
+  }
+
+  /**
+   * Closes the connection. Calls that are still pending fail with an
+   * IOException.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      LOG.info("closing to " + getRemoteName());
+      closed = true;
+      channel.close();
+    }
+  }
+
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.net.SocketAddress;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadFactory;
 
 import javax.security.sasl.Sasl;
 import javax.security.sasl.SaslServer;
@@ -50,7 +51,17 @@ public class SaslSocketServer extends SocketServer {
    * (<a href="https://www.ietf.org/rfc/rfc2245.txt">RFC 2245) mechanism.
    */
   public SaslSocketServer(Responder responder, SocketAddress addr) throws IOException {
-    this(responder, addr, new SaslServerFactory() {
+    this(responder, addr, (ThreadFactory) null);
+  }
+
+  /**
+   * Create using SASL's anonymous mechanism, running each connection on a thread
+   * from the given factory.
+   *
+   * @see SocketServer#SocketServer(Responder, SocketAddress, ThreadFactory)
+   */
+  public SaslSocketServer(Responder responder, SocketAddress addr, ThreadFactory threadFactory) throws IOException {
+    this(responder, addr, threadFactory, new SaslServerFactory() {
       @Override
       public SaslServer getServer() {
         return new AnonymousServer();
@@ -61,7 +72,7 @@ public class SaslSocketServer extends SocketServer {
   /** Create using the specified {@link SaslServer} parameters. */
   public SaslSocketServer(Responder responder, SocketAddress addr, final String mechanism, final String protocol,
       final String serverName, final Map<String, ?> props, final CallbackHandler cbh) throws IOException {
-    this(responder, addr, new SaslServerFactory() {
+    this(responder, addr, null, new SaslServerFactory() {
       @Override
       public SaslServer getServer() throws SaslException {
         return Sasl.createSaslServer(mechanism, protocol, serverName, props, cbh);
@@ -69,8 +80,9 @@ public class SaslSocketServer extends SocketServer {
     });
   }
 
-  private SaslSocketServer(Responder responder, SocketAddress addr, SaslServerFactory factory) throws IOException {
-    super(responder, addr);
+  private SaslSocketServer(Responder responder, SocketAddress addr, ThreadFactory threadFactory,
+      SaslServerFactory factory) throws IOException {
+    super(responder, addr, threadFactory);
     this.factory = factory;
   }
 
@@ -28,6 +28,7 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.security.sasl.Sasl;
 import javax.security.sasl.SaslException;
@@ -55,6 +56,8 @@ public class SaslSocketTransceiver extends Transceiver {
 
   private SaslParticipant sasl;
   private SocketChannel channel;
+  // not synchronized, so that virtual threads blocked on the channel can unmount
+  private final ReentrantLock lock = new ReentrantLock();
   private boolean dataIsWrapped;
   private boolean saslResponsePiggybacked;
 
@@ -110,21 +113,26 @@ public class SaslSocketTransceiver extends Transceiver {
   }
 
   @Override
-  public synchronized List<ByteBuffer> transceive(List<ByteBuffer> request) throws IOException {
-    if (saslResponsePiggybacked) { // still need to read response
-      saslResponsePiggybacked = false;
-      Status status = readStatus();
-      ByteBuffer frame = readFrame();
-      switch (status) {
-      case COMPLETE:
-        break;
-      case FAIL:
-        throw new SaslException("Fail: " + toString(frame));
-      default:
-        throw new IOException("Unexpected SASL status: " + status);
+  public List<ByteBuffer> transceive(List<ByteBuffer> request) throws IOException {
+    lock.lock();
+    try {
+      if (saslResponsePiggybacked) { // still need to read response
+        saslResponsePiggybacked = false;
+        Status status = readStatus();
+        ByteBuffer frame = readFrame();
+        switch (status) {
+        case COMPLETE:
+          break;
+        case FAIL:
+          throw new SaslException("Fail: " + toString(frame));
+        default:
+          throw new IOException("Unexpected SASL status: " + status);
+        }
       }
+      return super.transceive(request);
+    } finally {
+      lock.unlock();
     }
-    return super.transceive(request);
   }
 
   private void open(boolean isClient) throws IOException {
@@ -184,13 +192,18 @@ public class SaslSocketTransceiver extends Transceiver {
   }
 
   @Override
-  public synchronized List<ByteBuffer> readBuffers() throws IOException {
-    List<ByteBuffer> buffers = new ArrayList<>();
-    while (true) {
-      ByteBuffer buffer = readFrameAndUnwrap();
-      if (((Buffer) buffer).remaining() == 0)
-        return buffers;
-      buffers.add(buffer);
+  public List<ByteBuffer> readBuffers() throws IOException {
+    lock.lock();
+    try {
+      List<ByteBuffer> buffers = new ArrayList<>();
+      while (true) {
+        ByteBuffer buffer = readFrameAndUnwrap();
+        if (((Buffer) buffer).remaining() == 0)
+          return buffers;
+        buffers.add(buffer);
+      }
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -229,41 +242,46 @@ public class SaslSocketTransceiver extends Transceiver {
   }
 
   @Override
-  public synchronized void writeBuffers(List<ByteBuffer> buffers) throws IOException {
-    if (buffers == null)
-      return; // no data to write
-    List<ByteBuffer> writes = new ArrayList<>(buffers.size() * 2 + 1);
-    int currentLength = 0;
-    ByteBuffer currentHeader = writeHeader;
-    for (ByteBuffer buffer : buffers) { // gather writes
-      if (buffer.remaining() == 0)
-        continue; // ignore empties
-      if (dataIsWrapped) {
-        LOG.debug("wrapping data of length: {}", buffer.remaining());
-        buffer = ByteBuffer.wrap(sasl.wrap(buffer.array(), buffer.position(), buffer.remaining()));
-      }
-      int length = buffer.remaining();
-      if (!dataIsWrapped // can append buffers on wire
-          && (currentLength + length) <= ByteBufferOutputStream.BUFFER_SIZE) {
-        if (currentLength == 0)
+  public void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+    lock.lock();
+    try {
+      if (buffers == null)
+        return; // no data to write
+      List<ByteBuffer> writes = new ArrayList<>(buffers.size() * 2 + 1);
+      int currentLength = 0;
+      ByteBuffer currentHeader = writeHeader;
+      for (ByteBuffer buffer : buffers) { // gather writes
+        if (buffer.remaining() == 0)
+          continue; // ignore empties
+        if (dataIsWrapped) {
+          LOG.debug("wrapping data of length: {}", buffer.remaining());
+          buffer = ByteBuffer.wrap(sasl.wrap(buffer.array(), buffer.position(), buffer.remaining()));
+        }
+        int length = buffer.remaining();
+        if (!dataIsWrapped // can append buffers on wire
+            && (currentLength + length) <= ByteBufferOutputStream.BUFFER_SIZE) {
+          if (currentLength == 0)
+            writes.add(currentHeader);
+          currentLength += length;
+          ((Buffer) currentHeader).clear();
+          currentHeader.putInt(currentLength);
+          LOG.debug("adding {} to write, total now {}", length, currentLength);
+        } else {
+          currentLength = length;
+          currentHeader = ByteBuffer.allocate(4).putInt(length);
           writes.add(currentHeader);
-        currentLength += length;
-        ((Buffer) currentHeader).clear();
-        currentHeader.putInt(currentLength);
-        LOG.debug("adding {} to write, total now {}", length, currentLength);
-      } else {
-        currentLength = length;
-        currentHeader = ByteBuffer.allocate(4).putInt(length);
-        writes.add(currentHeader);
-        LOG.debug("planning write of {}", length);
+          LOG.debug("planning write of {}", length);
+        }
+        ((Buffer) currentHeader).flip();
+        writes.add(buffer);
       }
-      ((Buffer) currentHeader).flip();
-      writes.add(buffer);
-    }
-    ((Buffer) zeroHeader).flip(); // zero-terminate
-    writes.add(zeroHeader);
+      ((Buffer) zeroHeader).flip(); // zero-terminate
+      writes.add(zeroHeader);
 
-    writeFully(writes.toArray(new ByteBuffer[0]));
+      writeFully(writes.toArray(new ByteBuffer[0]));
+    } finally {
+      lock.unlock();
+    }
   }
 
   private void write(Status status, String prefix, ByteBuffer response) throws IOException {
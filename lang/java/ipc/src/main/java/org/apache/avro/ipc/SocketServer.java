@@ -25,6 +25,9 @@ import java.net.SocketAddress;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,12 +50,27 @@ public class SocketServer extends Thread implements Server {
   private Responder responder;
   private ServerSocketChannel channel;
   private ThreadGroup group;
+  private ThreadFactory threadFactory;
+  private final Set<Thread> connectionThreads = ConcurrentHashMap.newKeySet();
 
   public SocketServer(Responder responder, SocketAddress addr) throws IOException {
+    this(responder, addr, null);
+  }
+
+  /**
+   * Creates a server that runs each connection on a thread from the given
+   * factory, such as {@link VirtualThreads#newThreadFactory(String)} for
+   * responders that block.
+   *
+   * @param threadFactory the factory for connection threads, or null for daemon
+   *                      platform threads.
+   */
+  public SocketServer(Responder responder, SocketAddress addr, ThreadFactory threadFactory) throws IOException {
     String name = "SocketServer on " + addr;
 
     this.responder = responder;
     this.group = new ThreadGroup(name);
+    this.threadFactory = threadFactory;
     this.channel = ServerSocketChannel.open();
 
     channel.socket().bind(addr);
@@ -93,6 +111,9 @@ public class SocketServer extends Thread implements Server {
   public void close() {
     this.interrupt();
     group.interrupt();
+    for (Thread thread : connectionThreads) {
+      thread.interrupt();
+    }
   }
 
   /**
@@ -111,9 +132,15 @@ public class SocketServer extends Thread implements Server {
     public Connection(SocketChannel channel) throws IOException {
       this.channel = channel;
 
-      Thread thread = new Thread(group, this);
+      Thread thread;
+      if (threadFactory == null) {
+        thread = new Thread(group, this);
+        thread.setDaemon(true);
+      } else {
+        thread = threadFactory.newThread(this);
+        connectionThreads.add(thread);
+      }
       thread.setName("Connection to " + channel.socket().getRemoteSocketAddress());
-      thread.setDaemon(true);
       thread.start();
     }
 
@@ -131,6 +158,8 @@ public class SocketServer extends Thread implements Server {
         }
       } catch (IOException e) {
         LOG.warn("unexpected error", e);
+      } finally {
+        connectionThreads.remove(Thread.currentThread());
       }
     }
 
@@ -26,6 +26,7 @@ import java.nio.Buffer;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,8 @@ public class SocketTransceiver extends Transceiver {
 
   private SocketChannel channel;
   private ByteBuffer header = ByteBuffer.allocate(4);
+  // not synchronized, so that virtual threads blocked on the channel can unmount
+  private final ReentrantLock lock = new ReentrantLock();
 
   private Protocol remote;
 
@@ -62,40 +65,50 @@ public class SocketTransceiver extends Transceiver {
   }
 
   @Override
-  public synchronized List<ByteBuffer> readBuffers() throws IOException {
-    List<ByteBuffer> buffers = new ArrayList<>();
-    while (true) {
-      ((Buffer) header).clear();
-      while (header.hasRemaining()) {
-        if (channel.read(header) < 0)
-          throw new ClosedChannelException();
+  public List<ByteBuffer> readBuffers() throws IOException {
+    lock.lock();
+    try {
+      List<ByteBuffer> buffers = new ArrayList<>();
+      while (true) {
+        ((Buffer) header).clear();
+        while (header.hasRemaining()) {
+          if (channel.read(header) < 0)
+            throw new ClosedChannelException();
+        }
+        ((Buffer) header).flip();
+        int length = header.getInt();
+        if (length == 0) { // end of buffers
+          return buffers;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+          if (channel.read(buffer) < 0)
+            throw new ClosedChannelException();
+        }
+        ((Buffer) buffer).flip();
+        buffers.add(buffer);
       }
-      ((Buffer) header).flip();
-      int length = header.getInt();
-      if (length == 0) { // end of buffers
-        return buffers;
-      }
-      ByteBuffer buffer = ByteBuffer.allocate(length);
-      while (buffer.hasRemaining()) {
-        if (channel.read(buffer) < 0)
-          throw new ClosedChannelException();
-      }
-      ((Buffer) buffer).flip();
-      buffers.add(buffer);
+    } finally {
+      lock.unlock();
     }
   }
 
   @Override
-  public synchronized void writeBuffers(List<ByteBuffer> buffers) throws IOException {
-    if (buffers == null)
-      return; // no data to write
-    for (ByteBuffer buffer : buffers) {
-      if (buffer.limit() == 0)
-        continue;
-      writeLength(buffer.limit()); // length-prefix
-      channel.write(buffer);
+  public void writeBuffers(List<ByteBuffer> buffers) throws IOException {
+    lock.lock();
+    try {
+      if (buffers == null)
+        return; // no data to write
+      for (ByteBuffer buffer : buffers) {
+        if (buffer.limit() == 0)
+          continue;
+        writeLength(buffer.limit()); // length-prefix
+        channel.write(buffer);
+      }
+      writeLength(0); // null-terminate
+    } finally {
+      lock.unlock();
     }
-    writeLength(0); // null-terminate
   }
 
   private void writeLength(int length) throws IOException {
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.avro.ipc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads for servers whose responders block, such as those
+ * waiting on a database or another service. Each request or connection then
+ * gets a thread of its own, without the memory and scheduling cost of a
+ * platform thread, so the number of concurrent calls is not capped by the size
+ * of a thread pool.
+ *
+ * Virtual threads require Java 21 or later. They are looked up reflectively, so
+ * that this class can be loaded on older runtimes, where
+ * {@link #isAvailable()} returns false.
+ *
+ * @see SocketServer#SocketServer(Responder, java.net.SocketAddress,
+ *      ThreadFactory)
+ * @see MultiplexedSocketServer#MultiplexedSocketServer(Responder,
+ *      java.net.SocketAddress, ExecutorService)
+ */
+public final class VirtualThreads {
+  private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR = findMethod(Executors.class,
+      "newThreadPerTaskExecutor", ThreadFactory.class);
+
+  private VirtualThreads() {
+  }
+
+  /** Returns true if this runtime supports virtual threads. */
+  public static boolean isAvailable() {
+    return OF_VIRTUAL != null && NEW_THREAD_PER_TASK_EXECUTOR != null;
+  }
+
+  /**
+   * Returns a factory for virtual threads, named after the given prefix and a
+   * counter.
+   *
+   * @throws UnsupportedOperationException if virtual threads are not available.
+   */
+  public static ThreadFactory newThreadFactory(String prefix) {
+    checkAvailable();
+    try {
+      Object builder = OF_VIRTUAL.invoke(null);
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Cannot create virtual threads", unwrap(e));
+    }
+  }
+
+  /**
+   * Returns an executor that runs each task on a new virtual thread, named after
+   * the given prefix and a counter.
+   *
+   * @throws UnsupportedOperationException if virtual threads are not available.
+   */
+  public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+    ThreadFactory threadFactory = newThreadFactory(prefix);
+    try {
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, threadFactory);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException("Cannot create virtual threads", unwrap(e));
+    }
+  }
+
+  private static void checkAvailable() {
+    if (!isAvailable()) {
+      throw new UnsupportedOperationException(
+          "Virtual threads require Java 21 or later, running on " + System.getProperty("java.version"));
+    }
+  }
+
+  private static Throwable unwrap(ReflectiveOperationException e) {
+    return e instanceof InvocationTargetException ? e.getCause() : e;
+  }
+
+  private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.ipc.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative long values that may be updated concurrently
+ * without locking.
+ *
+ * Values are tallied into log-linear buckets: values below 128 are counted
+ * exactly, and every larger power of two is split into 64 equally sized
+ * sub-buckets, so any recorded value can be recovered with a relative error
+ * below 1%, over the whole range of a long. Bucket selection is a handful of
+ * bit operations rather than a search, and each bucket is an independent
+ * atomic counter.
+ *
+ * Reading is done through {@link #snapshot()}. Snapshots are not atomic with
+ * respect to concurrent updates, but each one is internally consistent: its
+ * count and percentiles are all computed from the same copy of the buckets.
+ */
+public class ConcurrentHistogram {
+  /** Number of significant bits kept for each recorded value. */
+  static final int PRECISION_BITS = 7;
+
+  private static final int LINEAR_BUCKETS = 1 << PRECISION_BITS;
+  private static final int SUB_BUCKETS = LINEAR_BUCKETS >>> 1;
+  private static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - PRECISION_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sum = new LongAdder();
+  private final DoubleAdder sumOfSquares = new DoubleAdder();
+  private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+  private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+  /** Tallies a value in the histogram. Negative values are recorded as 0. */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketOf(value));
+    sum.add(value);
+    sumOfSquares.add((double) value * value);
+    min.accumulate(value);
+    max.accumulate(value);
+  }
+
+  /** Returns a copy of the current state of this histogram. */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      count += copy[i];
+    }
+    return new Snapshot(copy, count, sum.sum(), sumOfSquares.sum(), min.get(), max.get());
+  }
+
+  /** Returns the index of the bucket a value is tallied in. */
+  static int bucketOf(long value) {
+    int bits = Long.SIZE - Long.numberOfLeadingZeros(value);
+    if (bits <= PRECISION_BITS) {
+      return (int) value;
+    }
+    int shift = bits - PRECISION_BITS;
+    int sub = (int) (value >>> shift) - SUB_BUCKETS;
+    return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + sub;
+  }
+
+  /** Returns the smallest value that is tallied in a bucket. */
+  static long lowestValueOf(int bucket) {
+    if (bucket < LINEAR_BUCKETS) {
+      return bucket;
+    }
+    int offset = bucket - LINEAR_BUCKETS;
+    int shift = offset / SUB_BUCKETS + 1;
+    return (long) (SUB_BUCKETS + offset % SUB_BUCKETS) << shift;
+  }
+
+  /** Returns the largest value that is tallied in a bucket. */
+  static long highestValueOf(int bucket) {
+    return bucket + 1 < BUCKETS ? lowestValueOf(bucket + 1) - 1 : Long.MAX_VALUE;
+  }
+
+  /**
+   * Returns the value reported for a bucket: the middle of its range, which is
+   * within half a bucket width of every value tallied in it.
+   */
+  static long valueOf(int bucket) {
+    long lowest = lowestValueOf(bucket);
+    return lowest + (highestValueOf(bucket) - lowest) / 2;
+  }
+
+  /**
+   * An immutable view of a {@link ConcurrentHistogram}. The getters follow the
+   * JavaBeans conventions so that snapshots can be exposed through an MXBean.
+   */
+  public static class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final double sumOfSquares;
+    private final long min;
+    private final long max;
+
+    Snapshot(long[] counts, long count, long sum, double sumOfSquares, long min, long max) {
+      this.counts = counts;
+      this.count = count;
+      this.sum = sum;
+      this.sumOfSquares = sumOfSquares;
+      this.min = count == 0 ? 0 : min;
+      this.max = count == 0 ? 0 : max;
+    }
+
+    /** Returns the number of values recorded. */
+    public long getCount() {
+      return count;
+    }
+
+    /** Returns the smallest value recorded, or 0 if there is none. */
+    public long getMin() {
+      return min;
+    }
+
+    /** Returns the largest value recorded, or 0 if there is none. */
+    public long getMax() {
+      return max;
+    }
+
+    /** Returns the mean of the recorded values, or NaN if there is none. */
+    public double getMean() {
+      return count == 0 ? Double.NaN : (double) sum / count;
+    }
+
+    /**
+     * Returns the unbiased standard deviation of the recorded values, or NaN if
+     * fewer than two were recorded.
+     */
+    public double getStdDev() {
+      if (count <= 1) {
+        return Double.NaN;
+      }
+      double mean = getMean();
+      return Math.sqrt(Math.max(0, (sumOfSquares - count * mean * mean) / (count - 1)));
+    }
+
+    /** Returns the median of the recorded values. */
+    public long getP50() {
+      return getValueAtPercentile(50);
+    }
+
+    /** Returns the 90th percentile of the recorded values. */
+    public long getP90() {
+      return getValueAtPercentile(90);
+    }
+
+    /** Returns the 99th percentile of the recorded values. */
+    public long getP99() {
+      return getValueAtPercentile(99);
+    }
+
+    /** Returns the 99.9th percentile of the recorded values. */
+    public long getP999() {
+      return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Returns the value below or at which the given percentage of recorded values
+     * fall, or 0 if no value was recorded.
+     *
+     * @param percentile A percentage between 0 and 100.
+     */
+    public long getValueAtPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100) {
+        throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+      }
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.max(min, Math.min(max, valueOf(i)));
+        }
+      }
+      return max;
+    }
+  }
+}
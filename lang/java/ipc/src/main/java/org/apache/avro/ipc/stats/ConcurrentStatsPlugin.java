@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.ipc.stats;
+
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Protocol.Message;
+import org.apache.avro.ipc.RPCContext;
+import org.apache.avro.ipc.RPCPlugin;
+import org.apache.avro.ipc.stats.Stopwatch.Ticks;
+
+/**
+ * Collects count, latency and payload size statistics about RPC calls, like
+ * {@link StatsPlugin}, but without taking any lock on the calling thread. Keeps
+ * data for every method. Can be added to a Requestor (client) or Responder
+ * (server).
+ *
+ * Samples are recorded into {@link ConcurrentHistogram}s, which give
+ * percentiles with a relative error below 1%. Latencies are kept in
+ * nanoseconds and payload sizes in bytes. Statistics are read through
+ * {@link #getMessageStats()}, which can also be exposed through JMX since this
+ * class implements {@link StatsMXBean}, or rendered by a {@link StatsServlet}.
+ */
+public class ConcurrentStatsPlugin extends RPCPlugin implements StatsMXBean {
+  /** Per-method histograms. */
+  private final ConcurrentMap<Message, Recorder> recorders = new ConcurrentHashMap<>();
+
+  /** RPCs in flight, with the ticks at which they started. */
+  final ConcurrentMap<RPCContext, Long> activeRpcs = new ConcurrentHashMap<>();
+  private final Ticks ticks;
+
+  /** How long I've been alive */
+  private final Date startupTime = new Date();
+
+  /** Construct a plugin with custom Ticks. */
+  public ConcurrentStatsPlugin(Ticks ticks) {
+    this.ticks = ticks;
+  }
+
+  /** Construct a plugin with default (system) ticks. */
+  public ConcurrentStatsPlugin() {
+    this(Stopwatch.SYSTEM_TICKS);
+  }
+
+  /** The histograms of a single message. */
+  private static class Recorder {
+    final ConcurrentHistogram latency = new ConcurrentHistogram();
+    final ConcurrentHistogram sendPayload = new ConcurrentHistogram();
+    final ConcurrentHistogram receivePayload = new ConcurrentHistogram();
+  }
+
+  private Recorder recorder(RPCContext context) {
+    Message message = context.getMessage();
+    if (message == null)
+      throw new IllegalArgumentException();
+    Recorder recorder = recorders.get(message);
+    return recorder != null ? recorder : recorders.computeIfAbsent(message, m -> new Recorder());
+  }
+
+  /**
+   * Helper to get the size of an RPC payload.
+   */
+  private static int getPayloadSize(List<ByteBuffer> payload) {
+    if (payload == null) {
+      return 0;
+    }
+
+    int size = 0;
+    for (ByteBuffer bb : payload) {
+      size = size + bb.limit();
+    }
+
+    return size;
+  }
+
+  @Override
+  public void serverReceiveRequest(RPCContext context) {
+    activeRpcs.put(context, ticks.ticks());
+    recorder(context).receivePayload.record(getPayloadSize(context.getRequestPayload()));
+  }
+
+  @Override
+  public void serverSendResponse(RPCContext context) {
+    Recorder recorder = recorder(context);
+    publish(recorder, context);
+    recorder.sendPayload.record(getPayloadSize(context.getResponsePayload()));
+  }
+
+  @Override
+  public void clientSendRequest(RPCContext context) {
+    activeRpcs.put(context, ticks.ticks());
+    recorder(context).sendPayload.record(getPayloadSize(context.getRequestPayload()));
+  }
+
+  @Override
+  public void clientReceiveResponse(RPCContext context) {
+    Recorder recorder = recorder(context);
+    publish(recorder, context);
+    recorder.receivePayload.record(getPayloadSize(context.getResponsePayload()));
+  }
+
+  /** Adds timing to the histograms. */
+  private void publish(Recorder recorder, RPCContext context) {
+    Long start = activeRpcs.remove(context);
+    if (start == null)
+      throw new IllegalStateException();
+    recorder.latency.record(ticks.ticks() - start);
+  }
+
+  /** Returns how long an RPC that is still in flight has been running. */
+  long elapsedNanos(long start) {
+    return ticks.ticks() - start;
+  }
+
+  @Override
+  public Date getStartupTime() {
+    return new Date(startupTime.getTime());
+  }
+
+  @Override
+  public int getActiveRpcCount() {
+    return activeRpcs.size();
+  }
+
+  @Override
+  public Map<String, MessageStats> getMessageStats() {
+    Map<String, MessageStats> stats = new TreeMap<>();
+    for (Map.Entry<Message, Recorder> e : recorders.entrySet()) {
+      String name = e.getKey().getName();
+      Recorder r = e.getValue();
+      stats.put(name, new MessageStats(name, r.latency.snapshot(), r.sendPayload.snapshot(),
+          r.receivePayload.snapshot()));
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.ipc.stats;
+
+import org.apache.avro.ipc.stats.ConcurrentHistogram.Snapshot;
+
+/**
+ * Statistics collected by a {@link ConcurrentStatsPlugin} for a single message.
+ * Latencies are in nanoseconds, payload sizes in bytes.
+ */
+public class MessageStats {
+  private final String name;
+  private final Snapshot latency;
+  private final Snapshot sendPayload;
+  private final Snapshot receivePayload;
+
+  MessageStats(String name, Snapshot latency, Snapshot sendPayload, Snapshot receivePayload) {
+    this.name = name;
+    this.latency = latency;
+    this.sendPayload = sendPayload;
+    this.receivePayload = receivePayload;
+  }
+
+  /** Returns the name of the message. */
+  public String getName() {
+    return name;
+  }
+
+  /** Returns the number of completed calls. */
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  /** Returns the latency of completed calls, in nanoseconds. */
+  public Snapshot getLatency() {
+    return latency;
+  }
+
+  /** Returns the size of sent payloads, in bytes. */
+  public Snapshot getSendPayload() {
+    return sendPayload;
+  }
+
+  /** Returns the size of received payloads, in bytes. */
+  public Snapshot getReceivePayload() {
+    return receivePayload;
+  }
+}
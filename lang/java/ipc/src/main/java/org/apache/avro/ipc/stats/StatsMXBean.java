@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.avro.ipc.stats;
+
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Management interface of {@link ConcurrentStatsPlugin}. Register a plugin with
+ * an MBean server to expose its statistics through JMX:
+ *
+ * <pre>
+ * ManagementFactory.getPlatformMBeanServer().registerMBean(plugin,
+ *     new ObjectName("org.apache.avro.ipc:type=Stats,name=myService"));
+ * </pre>
+ */
+public interface StatsMXBean {
+  /** Returns when the plugin was created. */
+  Date getStartupTime();
+
+  /** Returns the number of RPCs currently in flight. */
+  int getActiveRpcCount();
+
+  /** Returns a snapshot of the statistics of every message, by message name. */
+  Map<String, MessageStats> getMessageStats();
+}
@@ -41,18 +41,31 @@ import org.apache.avro.Protocol.Message;
 import org.apache.avro.ipc.RPCContext;
 
 /**
- * Exposes information provided by a StatsPlugin as a web page.
+ * Exposes information provided by a StatsPlugin or a ConcurrentStatsPlugin as a
+ * web page.
  *
- * This class follows the same synchronization conventions as StatsPlugin, to
- * avoid requiring StatsPlugin to serve a copy of the data.
+ * For a StatsPlugin, this class follows the same synchronization conventions as
+ * StatsPlugin, to avoid requiring StatsPlugin to serve a copy of the data. A
+ * ConcurrentStatsPlugin is read through its snapshots instead.
  */
 public class StatsServlet extends HttpServlet {
   private final StatsPlugin statsPlugin;
+  private final ConcurrentStatsPlugin concurrentStatsPlugin;
   private VelocityEngine velocityEngine;
   private static final SimpleDateFormat FORMATTER = new SimpleDateFormat("dd-MMM-yyyy HH:mm:ss");
 
   public StatsServlet(StatsPlugin statsPlugin) throws UnavailableException {
+    this(statsPlugin, null);
+  }
+
+  public StatsServlet(ConcurrentStatsPlugin statsPlugin) throws UnavailableException {
+    this(null, statsPlugin);
+  }
+
+  private StatsServlet(StatsPlugin statsPlugin, ConcurrentStatsPlugin concurrentStatsPlugin)
+      throws UnavailableException {
     this.statsPlugin = statsPlugin;
+    this.concurrentStatsPlugin = concurrentStatsPlugin;
     this.velocityEngine = new VelocityEngine();
 
     // These two properties tell Velocity to use its own classpath-based loader
@@ -126,25 +139,38 @@ public class StatsServlet extends HttpServlet {
 
     ArrayList<RenderableMessage> messages = new ArrayList<>();
 
-    for (Entry<RPCContext, Stopwatch> rpc : this.statsPlugin.activeRpcs.entrySet()) {
-      rpcs.add(renderActiveRpc(rpc.getKey(), rpc.getValue()));
-    }
+    Date startupTime;
+    if (concurrentStatsPlugin != null) {
+      for (Entry<RPCContext, Long> rpc : this.concurrentStatsPlugin.activeRpcs.entrySet()) {
+        rpcs.add(renderActiveRpc(rpc.getKey(), this.concurrentStatsPlugin.elapsedNanos(rpc.getValue())));
+      }
 
-    // Get set of all seen messages
-    Set<Message> keys = null;
-    synchronized (this.statsPlugin.methodTimings) {
-      keys = this.statsPlugin.methodTimings.keySet();
+      for (MessageStats stats : this.concurrentStatsPlugin.getMessageStats().values()) {
+        messages.add(renderMessageStats(stats));
+      }
+      startupTime = concurrentStatsPlugin.getStartupTime();
+    } else {
+      for (Entry<RPCContext, Stopwatch> rpc : this.statsPlugin.activeRpcs.entrySet()) {
+        rpcs.add(renderActiveRpc(rpc.getKey(), rpc.getValue().elapsedNanos()));
+      }
+
+      // Get set of all seen messages
+      Set<Message> keys = null;
+      synchronized (this.statsPlugin.methodTimings) {
+        keys = this.statsPlugin.methodTimings.keySet();
 
-      for (Message m : keys) {
-        messages.add(renderMethod(m));
+        for (Message m : keys) {
+          messages.add(renderMethod(m));
+        }
       }
+      startupTime = statsPlugin.startupTime;
     }
 
     context.put("inFlightRpcs", rpcs);
     context.put("messages", messages);
 
     context.put("currTime", FORMATTER.format(new Date()));
-    context.put("startupTime", FORMATTER.format(statsPlugin.startupTime));
+    context.put("startupTime", FORMATTER.format(startupTime));
 
     Template t;
     try {
@@ -155,9 +181,9 @@ public class StatsServlet extends HttpServlet {
     t.merge(context, w);
   }
 
-  private String renderActiveRpc(RPCContext rpc, Stopwatch stopwatch) throws IOException {
+  private String renderActiveRpc(RPCContext rpc, long elapsedNanos) throws IOException {
     String out = new String();
-    out += rpc.getMessage().getName() + ": " + formatMillis(StatsPlugin.nanosToMillis(stopwatch.elapsedNanos()));
+    out += rpc.getMessage().getName() + ": " + formatMillis(StatsPlugin.nanosToMillis(elapsedNanos));
     return out;
   }
 
@@ -238,6 +264,44 @@ public class StatsServlet extends HttpServlet {
     return out;
   }
 
+  private RenderableMessage renderMessageStats(MessageStats stats) {
+    RenderableMessage out = new RenderableMessage(stats.getName());
+    out.numCalls = (int) Math.min(Integer.MAX_VALUE, stats.getCount());
+    out.charts.add(renderPercentiles("Latency", "ms", stats.getLatency(), 1e-6));
+    out.charts.add(renderPercentiles("Send Payload", "B", stats.getSendPayload(), 1));
+    out.charts.add(renderPercentiles("Receive Payload", "B", stats.getReceivePayload(), 1));
+    return out;
+  }
+
+  private static final List<String> PERCENTILE_LABELS = Arrays.asList("p50", "p90", "p99", "p99.9", "max");
+
+  /*
+   * Renders the percentiles of a snapshot as a bar chart, each value multiplied
+   * by scale.
+   */
+  private HashMap<String, String> renderPercentiles(String title, String units, ConcurrentHistogram.Snapshot hist,
+      double scale) {
+    float[] data = new float[] { (float) (hist.getP50() * scale), (float) (hist.getP90() * scale),
+        (float) (hist.getP99() * scale), (float) (hist.getP999() * scale), (float) (hist.getMax() * scale) };
+    List<String> boundaries = new ArrayList<>();
+    for (int i = 0; i < data.length; i++) {
+      boundaries.add(PERCENTILE_LABELS.get(i) + ": " + data[i] + units);
+    }
+
+    HashMap<String, String> bar = new HashMap<>();
+    // Fill in chart attributes for velocity
+    bar.put("type", "bar");
+    bar.put("title", "All-Time " + title + " Percentiles");
+    bar.put("units", units);
+    bar.put("numCalls", Long.toString(hist.getCount()));
+    bar.put("avg", Float.toString((float) (hist.getMean() * scale)));
+    bar.put("stdDev", Float.toString((float) (hist.getStdDev() * scale)));
+    bar.put("labelStr", Arrays.toString(escapeStringArray(new ArrayList<>(PERCENTILE_LABELS)).toArray()));
+    bar.put("boundaryStr", Arrays.toString(escapeStringArray(boundaries).toArray()));
+    bar.put("dataStr", Arrays.toString(data));
+    return bar;
+  }
+
   private CharSequence formatMillis(float millis) {
     return String.format("%.0fms", millis);
   }
@@ -26,6 +26,8 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
@@ -51,6 +53,12 @@ public final class Perf {
     options.addOption(
         Option.builder().argName("test").longOpt("test").hasArg().desc("The performance tests to run").build());
 
+    options.addOption(Option.builder().argName("noGc").longOpt("nogc")
+        .desc("Do not report allocation rates gathered by the GC profiler").build());
+
+    options.addOption(Option.builder().argName("resultFile").longOpt("rf").hasArg()
+        .desc("Write the results as JSON to the given file").numberOfArgs(1).build());
+
     options.addOption(Option.builder().argName("help").longOpt("help").desc("Print the help menu").build());
 
     final CommandLine cmd = new DefaultParser().parse(options, args);
@@ -75,10 +83,18 @@ public final class Perf {
         .warmupIterations(warmupIterations).measurementIterations(measurementIterations).forks(1).threads(1)
         .shouldDoGC(true);
 
-    if (cmd.hasOption("builkWarmup")) {
+    if (cmd.hasOption("bw")) {
       runOpt.warmupMode(WarmupMode.BULK);
     }
 
+    if (!cmd.hasOption("nogc")) {
+      runOpt.addProfiler(GCProfiler.class);
+    }
+
+    if (cmd.hasOption("rf")) {
+      runOpt.resultFormat(ResultFormatType.JSON).result(cmd.getOptionValue("rf"));
+    }
+
     for (final String test : tests) {
       runOpt.include(test);
     }
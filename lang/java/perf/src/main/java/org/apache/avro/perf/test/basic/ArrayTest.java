@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.basic;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicArrayState;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+public class ArrayTest {
+
+  private static final int ARRAY_SIZE = 100;
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    final int items = state.getBatchSize();
+    for (int i = 0; i < items; i++) {
+      final float[] array = state.testData[i];
+      e.writeArrayStart();
+      e.setItemCount(array.length);
+      for (int j = 0; j < array.length; j++) {
+        e.startItem();
+        e.writeFloat(array[j]);
+      }
+      e.writeArrayEnd();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public float decode(final TestStateDecode state) throws Exception {
+    final Decoder d = state.decoder;
+    float total = 0.0f;
+    final int items = state.getBatchSize();
+    for (int i = 0; i < items; i++) {
+      for (long n = d.readArrayStart(); n > 0; n = d.arrayNext()) {
+        for (long j = 0; j < n; j++) {
+          total += d.readFloat();
+        }
+      }
+    }
+    return total;
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicArrayState {
+    private float[][] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super(ARRAY_SIZE);
+    }
+
+    /**
+     * Setup each trial
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new float[getBatchSize()][];
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = randomArray(getArraySize(), getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicArrayState {
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super(ARRAY_SIZE);
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      for (int i = 0; i < getBatchSize(); i++) {
+        final float[] array = randomArray(getArraySize(), getRandom());
+        encoder.writeArrayStart();
+        encoder.setItemCount(array.length);
+        for (float f : array) {
+          encoder.startItem();
+          encoder.writeFloat(f);
+        }
+        encoder.writeArrayEnd();
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+
+  private static float[] randomArray(final int size, final Random r) {
+    final float[] array = new float[size];
+    for (int i = 0; i < size; i++) {
+      array[i] = r.nextFloat();
+    }
+    return array;
+  }
+}
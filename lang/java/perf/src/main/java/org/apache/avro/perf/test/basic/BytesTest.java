@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.basic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class BytesTest {
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    for (int i = 0; i < state.getBatchSize(); i += 4) {
+      e.writeBytes(state.testData[i + 0]);
+      e.writeBytes(state.testData[i + 1]);
+      e.writeBytes(state.testData[i + 2]);
+      e.writeBytes(state.testData[i + 3]);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    ByteBuffer bb = state.buffer;
+    for (int i = 0; i < state.getBatchSize(); i += 4) {
+      blackhole.consume(bb = d.readBytes(bb));
+      blackhole.consume(bb = d.readBytes(bb));
+      blackhole.consume(bb = d.readBytes(bb));
+      blackhole.consume(bb = d.readBytes(bb));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+    private byte[][] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super();
+    }
+
+    /**
+     * Setup each trial
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new byte[getBatchSize()][];
+      for (int i = 0; i < testData.length; i++) {
+        final byte[] data = new byte[getRandom().nextInt(70)];
+        getRandom().nextBytes(data);
+        testData[i] = data;
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+    private final ByteBuffer buffer = ByteBuffer.allocate(70);
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      for (int i = 0; i < getBatchSize(); i++) {
+        final byte[] data = new byte[getRandom().nextInt(70)];
+        getRandom().nextBytes(data);
+        encoder.writeBytes(data);
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+}
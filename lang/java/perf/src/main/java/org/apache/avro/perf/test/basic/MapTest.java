@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.basic;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicArrayState;
+import org.apache.avro.perf.test.BasicState;
+import org.apache.avro.util.Utf8;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class MapTest {
+
+  private static final int MAP_SIZE = 50;
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    final int items = state.getBatchSize();
+    for (int i = 0; i < items; i++) {
+      final float[] values = state.testData[i];
+      e.writeMapStart();
+      e.setItemCount(values.length);
+      for (int j = 0; j < values.length; j++) {
+        e.startItem();
+        e.writeString(state.keys[j]);
+        e.writeFloat(values[j]);
+      }
+      e.writeMapEnd();
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    Utf8 key = state.key;
+    final int items = state.getBatchSize();
+    for (int i = 0; i < items; i++) {
+      for (long n = d.readMapStart(); n > 0; n = d.mapNext()) {
+        for (long j = 0; j < n; j++) {
+          blackhole.consume(key = d.readString(key));
+          blackhole.consume(d.readFloat());
+        }
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicArrayState {
+    private float[][] testData;
+    private Utf8[] keys;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super(MAP_SIZE);
+    }
+
+    /**
+     * Setup each trial
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.keys = new Utf8[getArraySize()];
+      for (int i = 0; i < keys.length; i++) {
+        keys[i] = new Utf8("key" + i);
+      }
+      this.testData = new float[getBatchSize()][getArraySize()];
+      for (float[] values : testData) {
+        for (int j = 0; j < values.length; j++) {
+          values[j] = getRandom().nextFloat();
+        }
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicArrayState {
+    private final Utf8 key = new Utf8();
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super(MAP_SIZE);
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      for (int i = 0; i < getBatchSize(); i++) {
+        encoder.writeMapStart();
+        encoder.setItemCount(getArraySize());
+        for (int j = 0; j < getArraySize(); j++) {
+          encoder.startItem();
+          encoder.writeString("key" + j);
+          encoder.writeFloat(getRandom().nextFloat());
+        }
+        encoder.writeMapEnd();
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+}
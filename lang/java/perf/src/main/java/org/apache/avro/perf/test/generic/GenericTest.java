@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.generic;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes a flat record of primitives with the generic datum writer and reader.
+ */
+public class GenericTest {
+
+  private static final Schema SCHEMA = new Schema.Parser()
+      .parse("{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+          + "  { \"name\": \"f1\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f2\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f3\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f4\", \"type\": \"int\" },\n"
+          + "  { \"name\": \"f5\", \"type\": \"int\" },\n"
+          + "  { \"name\": \"f6\", \"type\": \"int\" }\n"
+          + "] }");
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    for (final GenericRecord rec : state.testData) {
+      state.writer.write(rec, e);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(state.reader.read(null, d));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+    @Param({ "false", "true" })
+    public boolean fastWriter;
+
+    private GenericDatumWriter<GenericRecord> writer;
+    private GenericRecord[] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super();
+    }
+
+    /**
+     * Setup each trial
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.writer = new GenericDatumWriter<>(SCHEMA, new GenericData().setFastWriterEnabled(fastWriter));
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new GenericRecord[getBatchSize()];
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = newRecord(getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+    @Param({ "false", "true" })
+    public boolean fastReader;
+
+    private GenericDatumReader<GenericRecord> reader;
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.reader = new GenericDatumReader<>(SCHEMA, SCHEMA, new GenericData().setFastReaderEnabled(fastReader));
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      final GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(SCHEMA);
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(newRecord(getRandom()), encoder);
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+
+  private static GenericRecord newRecord(final Random r) {
+    final GenericRecord rec = new GenericData.Record(SCHEMA);
+    rec.put(0, r.nextDouble());
+    rec.put(1, r.nextDouble());
+    rec.put(2, r.nextDouble());
+    rec.put(3, r.nextInt());
+    rec.put(4, r.nextInt());
+    rec.put(5, r.nextInt());
+    return rec;
+  }
+}
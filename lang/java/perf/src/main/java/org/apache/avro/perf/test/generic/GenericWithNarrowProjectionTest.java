@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.generic;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decodes wide generic records where the reader schema keeps 3 of the 80
+ * writer fields, so that nearly all of the work is skipping.
+ */
+public class GenericWithNarrowProjectionTest {
+
+  private static final int FIELDS = 80;
+
+  private static final String[] TYPES = { "long", "double", "string", "int", "boolean", "float", "bytes" };
+
+  private static final Schema WRITER_SCHEMA = writerSchema();
+
+  private static final Schema READER_SCHEMA = new Schema.Parser()
+      .parse("{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+          + "  { \"name\": \"f0\", \"type\": \"long\" },\n"
+          + "  { \"name\": \"f36\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f79\", \"type\": \"string\" }\n"
+          + "] }");
+
+  private static Schema writerSchema() {
+    final StringBuilder json = new StringBuilder("{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n");
+    for (int i = 0; i < FIELDS; i++) {
+      json.append(i > 0 ? ",\n" : "").append("  { \"name\": \"f").append(i).append("\", \"type\": \"")
+          .append(TYPES[i % TYPES.length]).append("\" }");
+    }
+    return new Schema.Parser().parse(json.append("\n] }").toString());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(state.reader.read(null, d));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+    @Param({ "false", "true" })
+    public boolean fastReader;
+
+    private GenericDatumReader<GenericRecord> reader;
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.reader = new GenericDatumReader<>(WRITER_SCHEMA, READER_SCHEMA,
+          new GenericData().setFastReaderEnabled(fastReader));
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      final GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(WRITER_SCHEMA);
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(newRecord(getRandom()), encoder);
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+
+  private static GenericRecord newRecord(final Random r) {
+    final GenericRecord rec = new GenericData.Record(WRITER_SCHEMA);
+    for (Schema.Field field : WRITER_SCHEMA.getFields()) {
+      final Object value;
+      switch (field.schema().getType()) {
+      case LONG:
+        value = r.nextLong();
+        break;
+      case DOUBLE:
+        value = r.nextDouble();
+        break;
+      case STRING:
+        value = "value" + r.nextInt();
+        break;
+      case INT:
+        value = r.nextInt();
+        break;
+      case BOOLEAN:
+        value = r.nextBoolean();
+        break;
+      case FLOAT:
+        value = r.nextFloat();
+        break;
+      default:
+        final byte[] bytes = new byte[r.nextInt(32)];
+        r.nextBytes(bytes);
+        value = ByteBuffer.wrap(bytes);
+      }
+      rec.put(field.pos(), value);
+    }
+    return rec;
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.ipc;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.avro.Protocol;
+import org.apache.avro.Protocol.Message;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.ipc.Callback;
+import org.apache.avro.ipc.MultiplexedSocketServer;
+import org.apache.avro.ipc.MultiplexedSocketTransceiver;
+import org.apache.avro.ipc.Responder;
+import org.apache.avro.ipc.Server;
+import org.apache.avro.ipc.Transceiver;
+import org.apache.avro.ipc.VirtualThreads;
+import org.apache.avro.ipc.generic.GenericRequestor;
+import org.apache.avro.ipc.generic.GenericResponder;
+import org.apache.avro.ipc.netty.NettyServer;
+import org.apache.avro.ipc.netty.NettyTransceiver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Load test for responders that block, such as those waiting on a database.
+ * Each invocation keeps {@value #CONCURRENT_CALLS} calls in flight on one
+ * connection, each of which sleeps for {@link TestState#blockMillis} on the
+ * server.
+ *
+ * With a thread pool, throughput is capped by the number of pool threads
+ * divided by the blocking time. With a virtual thread per request, all calls
+ * block at once, and an invocation takes little more than the blocking time.
+ * Virtual threads require running on Java 21 or later.
+ */
+public class BlockingResponderTest {
+
+  private static final int CONCURRENT_CALLS = 10000;
+
+  private static final Protocol PROTOCOL = Protocol.parse("{\"protocol\": \"Blocking\", "
+      + "\"namespace\": \"org.apache.avro.perf.test.ipc\", \"messages\": {\"call\": {"
+      + "\"request\": [{\"name\": \"id\", \"type\": \"int\"}], \"response\": \"int\"}}}");
+
+  @Benchmark
+  @OperationsPerInvocation(CONCURRENT_CALLS)
+  public void concurrentCalls(final TestState state) throws Exception {
+    final CountDownLatch done = new CountDownLatch(CONCURRENT_CALLS);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Callback<Object> callback = new Callback<Object>() {
+      @Override
+      public void handleResult(Object result) {
+        done.countDown();
+      }
+
+      @Override
+      public void handleError(Throwable error) {
+        failure.compareAndSet(null, error);
+        done.countDown();
+      }
+    };
+    for (int i = 0; i < CONCURRENT_CALLS; i++) {
+      state.requestor.request("call", state.request, callback);
+    }
+    done.await();
+    if (failure.get() != null) {
+      throw new IllegalStateException("Call failed", failure.get());
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class TestState {
+    @Param({ "multiplexed", "netty" })
+    public String server;
+
+    @Param({ "pool", "virtual" })
+    public String threads;
+
+    @Param({ "10" })
+    public int blockMillis;
+
+    private Server rpcServer;
+    private Transceiver transceiver;
+    private GenericRequestor requestor;
+    private GenericRecord request;
+
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final Responder responder = new GenericResponder(PROTOCOL) {
+        @Override
+        public Object respond(Message message, Object request) throws Exception {
+          TimeUnit.MILLISECONDS.sleep(blockMillis);
+          return ((GenericRecord) request).get("id");
+        }
+      };
+
+      ExecutorService workers = null;
+      if ("virtual".equals(threads)) {
+        if (!VirtualThreads.isAvailable()) {
+          throw new IllegalStateException("Virtual threads are not available in this JVM");
+        }
+        workers = VirtualThreads.newThreadPerTaskExecutor("responder-");
+      }
+
+      final InetSocketAddress addr = new InetSocketAddress(0);
+      if ("netty".equals(server)) {
+        rpcServer = new NettyServer(responder, addr, null, null, null, null, workers);
+      } else if (workers != null) {
+        rpcServer = new MultiplexedSocketServer(responder, addr, workers);
+      } else {
+        rpcServer = new MultiplexedSocketServer(responder, addr);
+      }
+      rpcServer.start();
+
+      final InetSocketAddress serverAddr = new InetSocketAddress(rpcServer.getPort());
+      if ("netty".equals(server)) {
+        this.transceiver = new NettyTransceiver(serverAddr);
+      } else {
+        this.transceiver = new MultiplexedSocketTransceiver(serverAddr);
+      }
+      this.requestor = new GenericRequestor(PROTOCOL, transceiver);
+
+      this.request = new GenericData.Record(PROTOCOL.getMessages().get("call").getRequest());
+      this.request.put("id", 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void doTearDownTrial() throws Exception {
+      transceiver.close();
+      rpcServer.close();
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.ipc;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.avro.Protocol;
+import org.apache.avro.Protocol.Message;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.ipc.Callback;
+import org.apache.avro.ipc.generic.GenericRequestor;
+import org.apache.avro.ipc.generic.GenericResponder;
+import org.apache.avro.ipc.netty.NettyEventLoops;
+import org.apache.avro.ipc.netty.NettyServer;
+import org.apache.avro.ipc.netty.NettyTransceiver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures Netty RPC round trips through the NIO and the native epoll
+ * transports, with requests handled either on the I/O threads or on the caller
+ * threads. The throughput of {@link #roundTrip} is the inverse of the call
+ * latency; {@link #pipelined} keeps many calls in flight on one connection.
+ *
+ * The transport is selected through the
+ * {@value NettyEventLoops#EPOLL_PROPERTY} system property, so each parameter
+ * combination must run in its own fork.
+ */
+public class NettyRpcTest {
+
+  private static final int PIPELINE_DEPTH = 100;
+
+  private static final Protocol PROTOCOL = Protocol.parse("{\"protocol\": \"Echo\", "
+      + "\"namespace\": \"org.apache.avro.perf.test.ipc\", \"messages\": {\"echo\": {"
+      + "\"request\": [{\"name\": \"payload\", \"type\": \"bytes\"}], \"response\": \"bytes\"}}}");
+
+  @Benchmark
+  public void roundTrip(final TestState state, final Blackhole blackhole) throws Exception {
+    blackhole.consume(state.requestor.request("echo", state.request));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PIPELINE_DEPTH)
+  public void pipelined(final TestState state) throws Exception {
+    final CountDownLatch done = new CountDownLatch(PIPELINE_DEPTH);
+    final Callback<Object> callback = new Callback<Object>() {
+      @Override
+      public void handleResult(Object result) {
+        done.countDown();
+      }
+
+      @Override
+      public void handleError(Throwable error) {
+        done.countDown();
+      }
+    };
+    for (int i = 0; i < PIPELINE_DEPTH; i++) {
+      state.requestor.request("echo", state.request, callback);
+    }
+    done.await();
+  }
+
+  @State(Scope.Thread)
+  public static class TestState {
+    @Param({ "nio", "epoll" })
+    public String transport;
+
+    @Param({ "false", "true" })
+    public boolean respondOnIoThread;
+
+    @Param({ "100", "10000" })
+    public int payloadSize;
+
+    private NettyServer server;
+    private NettyTransceiver transceiver;
+    private GenericRequestor requestor;
+    private GenericRecord request;
+
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      System.setProperty(NettyEventLoops.EPOLL_PROPERTY, Boolean.toString("epoll".equals(transport)));
+      if (NettyEventLoops.isEpollAvailable() != "epoll".equals(transport)) {
+        throw new IllegalStateException("The " + transport + " transport is not available in this JVM");
+      }
+
+      this.server = new NettyServer(new GenericResponder(PROTOCOL) {
+        @Override
+        public Object respond(Message message, Object request) {
+          return ((GenericRecord) request).get("payload");
+        }
+      }, new InetSocketAddress(0), null, null, null, null, null, respondOnIoThread);
+      this.transceiver = new NettyTransceiver(new InetSocketAddress(server.getPort()));
+      this.requestor = new GenericRequestor(PROTOCOL, transceiver);
+
+      final byte[] payload = new byte[payloadSize];
+      new Random(13L).nextBytes(payload);
+      this.request = new GenericData.Record(PROTOCOL.getMessages().get("echo").getRequest());
+      this.request.put("payload", ByteBuffer.wrap(payload));
+    }
+
+    @TearDown(Level.Trial)
+    public void doTearDownTrial() throws Exception {
+      transceiver.close();
+      server.close();
+    }
+  }
+}
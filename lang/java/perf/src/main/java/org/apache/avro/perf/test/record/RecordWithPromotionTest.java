@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.record;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.ResolvingDecoder;
+import org.apache.avro.perf.test.BasicRecord;
+import org.apache.avro.perf.test.BasicState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decodes a {@link BasicRecord} field by field through a
+ * {@link ResolvingDecoder} that promotes the int fields to long.
+ */
+public class RecordWithPromotionTest {
+
+  private static final Schema SCHEMA = new Schema.Parser()
+      .parse("{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+          + "  { \"name\": \"f1\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f2\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f3\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f4\", \"type\": \"int\" },\n"
+          + "  { \"name\": \"f5\", \"type\": \"int\" },\n"
+          + "  { \"name\": \"f6\", \"type\": \"int\" }\n"
+          + "] }");
+
+  private static final Schema READER_SCHEMA = new Schema.Parser()
+      .parse("{ \"type\": \"record\", \"name\": \"R\", \"fields\": [\n"
+          + "  { \"name\": \"f1\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f2\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f3\", \"type\": \"double\" },\n"
+          + "  { \"name\": \"f4\", \"type\": \"long\" },\n"
+          + "  { \"name\": \"f5\", \"type\": \"long\" },\n"
+          + "  { \"name\": \"f6\", \"type\": \"long\" }\n"
+          + "] }");
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final ResolvingDecoder d = state.decoder;
+    final BasicRecord r = new BasicRecord();
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      for (Schema.Field f : d.readFieldOrder()) {
+        switch (f.pos()) {
+        case 0:
+          r.f1 = d.readDouble();
+          break;
+        case 1:
+          r.f2 = d.readDouble();
+          break;
+        case 2:
+          r.f3 = d.readDouble();
+          break;
+        case 3:
+          r.f4 = (int) d.readLong();
+          break;
+        case 4:
+          r.f5 = (int) d.readLong();
+          break;
+        case 5:
+          r.f6 = (int) d.readLong();
+          break;
+        }
+      }
+      blackhole.consume(r);
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+    private byte[] testData;
+    private ResolvingDecoder decoder;
+
+    public TestStateDecode() {
+      super();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      for (int i = 0; i < getBatchSize(); i++) {
+        final BasicRecord r = new BasicRecord(getRandom());
+        encoder.writeDouble(r.f1);
+        encoder.writeDouble(r.f2);
+        encoder.writeDouble(r.f3);
+        encoder.writeInt(r.f4);
+        encoder.writeInt(r.f5);
+        encoder.writeInt(r.f6);
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = DecoderFactory.get().resolvingDecoder(SCHEMA, READER_SCHEMA, super.newDecoder(this.testData));
+    }
+  }
+}
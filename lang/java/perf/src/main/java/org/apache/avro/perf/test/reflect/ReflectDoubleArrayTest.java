@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicArrayState;
+import org.apache.avro.perf.test.BasicState;
+import org.apache.avro.reflect.ReflectData;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes {@code double[]} arrays, accessed through
+ * {@link org.apache.avro.reflect.ArrayAccessor}, with the reflect datum writer
+ * and reader.
+ */
+public class ReflectDoubleArrayTest {
+
+  private static final int ARRAY_SIZE = 10;
+
+  private static final Schema SCHEMA = ReflectData.get().getSchema(double[].class);
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    for (final double[] datum : state.testData) {
+      state.datumWriter.write(datum, e);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(state.datumReader.read(null, d));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicArrayState {
+    private final ReflectDatumWriter<double[]> datumWriter = new ReflectDatumWriter<>(SCHEMA);
+    private double[][] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super(ARRAY_SIZE);
+    }
+
+    /**
+     * Setup each trial
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new double[getBatchSize()][];
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = newDoubleArray(getArraySize(), getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicArrayState {
+    private final ReflectDatumReader<double[]> datumReader = new ReflectDatumReader<>(SCHEMA);
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super(ARRAY_SIZE);
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      final ReflectDatumWriter<double[]> writer = new ReflectDatumWriter<>(SCHEMA);
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(newDoubleArray(getArraySize(), getRandom()), encoder);
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+
+  private static double[] newDoubleArray(final int size, final Random r) {
+    final double[] array = new double[size];
+    for (int i = 0; i < size; i++) {
+      array[i] = r.nextDouble();
+    }
+    return array;
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.avro.perf.test.specific;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.perf.test.BasicState;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Encodes and decodes a generated {@link SpecificTestRecord} with the specific
+ * datum writer and reader. The {@code writerMode} and {@code readerMode}
+ * parameters switch between the interpreted path, the generated
+ * {@code customEncode} and {@code customDecode} methods, and the
+ * {@link org.apache.avro.io.FastWriterBuilder} and
+ * {@link org.apache.avro.io.FastReaderBuilder}.
+ */
+public class SpecificRecordTest {
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void encode(final TestStateEncode state) throws Exception {
+    final Encoder e = state.encoder;
+    for (final SpecificTestRecord rec : state.testData) {
+      state.writer.write(rec, e);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decode(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(state.reader.read(null, d));
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BasicState.BATCH_SIZE)
+  public void decodeReuse(final TestStateDecode state, final Blackhole blackhole) throws Exception {
+    final Decoder d = state.decoder;
+    SpecificTestRecord rec = state.reuse;
+    for (int i = 0; i < state.getBatchSize(); i++) {
+      blackhole.consume(rec = state.reader.read(rec, d));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateEncode extends BasicState {
+    /**
+     * One of {@code default}, {@code customCoders} or {@code fastWriter}.
+     */
+    @Param({ "default", "customCoders", "fastWriter" })
+    public String writerMode;
+
+    private SpecificDatumWriter<SpecificTestRecord> writer;
+    private SpecificTestRecord[] testData;
+    private Encoder encoder;
+
+    public TestStateEncode() {
+      super();
+    }
+
+    /**
+     * Setup each trial
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final SpecificData data = new SpecificData();
+      data.setCustomCoders("customCoders".equals(writerMode));
+      data.setFastWriterEnabled("fastWriter".equals(writerMode));
+      this.writer = new SpecificDatumWriter<>(SpecificTestRecord.getClassSchema(), data);
+      this.encoder = super.newEncoder(false, getNullOutputStream());
+      this.testData = new SpecificTestRecord[getBatchSize()];
+      for (int i = 0; i < testData.length; i++) {
+        testData[i] = newRecord(getRandom());
+      }
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class TestStateDecode extends BasicState {
+    /**
+     * One of {@code default}, {@code customCoders} or {@code fastReader}.
+     */
+    @Param({ "default", "customCoders", "fastReader" })
+    public String readerMode;
+
+    private SpecificDatumReader<SpecificTestRecord> reader;
+    private SpecificTestRecord reuse;
+    private byte[] testData;
+    private Decoder decoder;
+
+    public TestStateDecode() {
+      super();
+    }
+
+    /**
+     * Generate test data.
+     *
+     * @throws Exception Could not setup test data
+     */
+    @Setup(Level.Trial)
+    public void doSetupTrial() throws Exception {
+      final SpecificData data = new SpecificData();
+      data.setCustomCoders("customCoders".equals(readerMode));
+      data.setFastReaderEnabled("fastReader".equals(readerMode));
+      this.reader = new SpecificDatumReader<>(SpecificTestRecord.getClassSchema(), SpecificTestRecord.getClassSchema(),
+          data);
+      this.reuse = new SpecificTestRecord();
+
+      final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      final Encoder encoder = super.newEncoder(true, baos);
+      final SpecificDatumWriter<SpecificTestRecord> writer = new SpecificDatumWriter<>(SpecificTestRecord.class);
+      for (int i = 0; i < getBatchSize(); i++) {
+        writer.write(newRecord(getRandom()), encoder);
+      }
+      this.testData = baos.toByteArray();
+    }
+
+    @Setup(Level.Invocation)
+    public void doSetupInvocation() throws Exception {
+      this.decoder = super.newDecoder(this.testData);
+    }
+  }
+
+  private static SpecificTestRecord newRecord(final Random r) {
+    final List<String> tags = new ArrayList<>();
+    for (int i = r.nextInt(5); i > 0; i--) {
+      tags.add(randomString(r));
+    }
+    final Map<String, Long> scores = new HashMap<>();
+    for (int i = r.nextInt(5); i > 0; i--) {
+      scores.put(randomString(r), r.nextLong());
+    }
+    return new SpecificTestRecord(r.nextDouble(), r.nextDouble(), r.nextDouble(), r.nextInt(), r.nextInt(),
+        r.nextInt(), r.nextLong(), randomString(r), r.nextBoolean() ? randomString(r) : null,
+        SpecificTestKind.values()[r.nextInt(SpecificTestKind.values().length)], tags, scores);
+  }
+
+  private static String randomString(final Random r) {
+    final char[] data = new char[r.nextInt(20)];
+    for (int j = 0; j < data.length; j++) {
+      data[j] = (char) ('a' + r.nextInt('z' - 'a'));
+    }
+    return new String(data);
+  }
+}
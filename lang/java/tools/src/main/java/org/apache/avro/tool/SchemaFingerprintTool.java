@@ -28,7 +28,6 @@ import joptsimple.OptionSet;
 import joptsimple.OptionSpec;
 
 import org.apache.avro.Schema;
-import org.apache.avro.SchemaNormalization;
 
 /**
  * Utility to generate fingerprint(s) from a schema.
@@ -57,7 +56,7 @@ public class SchemaFingerprintTool implements Tool {
       final InputStream input = Util.fileOrStdin(fileOrStdin, in);
       try {
         final Schema schema = parser.parse(input);
-        final byte[] fingerprint = SchemaNormalization.parsingFingerprint(opts.valueOf(fingerprintOpt), schema);
+        final byte[] fingerprint = schema.getParsingFingerprint(opts.valueOf(fingerprintOpt));
         out.format("%s %s%n", Util.encodeHex(fingerprint), fileOrStdin);
       } finally {
         Util.close(input);
@@ -28,7 +28,6 @@ import joptsimple.OptionParser;
 
 import joptsimple.OptionSet;
 import org.apache.avro.Schema;
-import org.apache.avro.SchemaNormalization;
 
 /**
  * Utility to convert an Avro @{Schema} to its canonical form.
@@ -60,7 +59,7 @@ public class SchemaNormalizationTool implements Tool {
 
     Schema schema = new Schema.Parser().parse(inStream);
 
-    String canonicalForm = SchemaNormalization.toParsingForm(schema);
+    String canonicalForm = schema.getParsingForm();
 
     outStream.write(canonicalForm.getBytes(StandardCharsets.UTF_8));
 
@@ -23,9 +23,12 @@ import java.io.Closeable;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 import org.apache.trevni.ColumnMetaData;
 import org.apache.trevni.ColumnFileReader;
@@ -43,7 +46,8 @@ import static org.apache.trevni.avro.AvroColumnator.isSimple;
 /**
  * Read files written with {@link AvroColumnWriter}. A subset of the schema used
  * for writing may be specified when reading. In this case only columns of the
- * subset schema are read.
+ * subset schema are read. A {@link ColumnFilter} may be specified to only read
+ * the rows that match it.
  */
 public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable {
 
@@ -58,11 +62,24 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
 
   private Map<String, Map<String, Object>> defaults = new HashMap<>();
 
+  private ColumnFilter.Bound filter;
+  private FilterRow filterRow;
+  private long[] ranges; // rows that may match, as start and end pairs
+  private int range; // current index in ranges
+  private long nextRow; // next row to test
+  private boolean matched; // whether nextRow matches
+  private boolean flat; // whether values may seek to a row
+  private long position; // next row of values
+
   /** Parameters for reading an Avro column file. */
   public static class Params {
     Input input;
     Schema schema;
     GenericData model = GenericData.get();
+    long cacheBytes = -1;
+    int prefetchThreads;
+    int blocksAhead;
+    ColumnFilter filter;
 
     /** Construct reading from a file. */
     public Params(File file) throws IOException {
@@ -85,15 +102,41 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
       this.model = model;
       return this;
     }
+
+    /**
+     * Cache decompressed column blocks and read them ahead in parallel.
+     *
+     * @see ColumnFileReader#setBlockCache(long, int, int)
+     */
+    public Params setBlockCache(long maxBytes, int threads, int blocksAhead) {
+      this.cacheBytes = maxBytes;
+      this.prefetchThreads = threads;
+      this.blocksAhead = blocksAhead;
+      return this;
+    }
+
+    /**
+     * Only read rows that match a filter. Rows excluded by the value index of a
+     * filtered column are not read. Unless the subset schema read has arrays or
+     * maps, the columns read seek directly to each matching row.
+     */
+    public Params setFilter(ColumnFilter filter) {
+      this.filter = filter;
+      return this;
+    }
   }
 
   /** Construct a reader for a file. */
   public AvroColumnReader(Params params) throws IOException {
     this.reader = new ColumnFileReader(params.input);
+    if (params.cacheBytes >= 0)
+      reader.setBlockCache(params.cacheBytes, params.prefetchThreads, params.blocksAhead);
     this.model = params.model;
     this.fileSchema = new Schema.Parser().parse(reader.getMetaData().getString(AvroColumnWriter.SCHEMA_KEY));
     this.readSchema = params.schema == null ? fileSchema : params.schema;
     initialize();
+    if (params.filter != null)
+      initializeFilter(params.filter);
   }
 
   /** Return the schema for data in this file. */
@@ -114,14 +157,33 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
     ColumnMetaData[] readColumns = readColumnator.getColumns();
     this.values = new ColumnValues[readColumns.length];
     int j = 0;
+    this.flat = true;
     for (ColumnMetaData c : readColumns) {
       Integer n = fileColumnNumbers.get(c.getName());
-      if (n != null)
+      if (n != null) {
         values[j++] = reader.getValues(n);
+        // columns of arrays can not seek to a row: their rows are skipped
+        if (c.isArray() || c.getParent() != null)
+          flat = false;
+      }
     }
     findDefaults(readSchema, fileSchema);
   }
 
+  private void initializeFilter(ColumnFilter filter) throws IOException {
+    Set<String> columns = new LinkedHashSet<>();
+    filter.addColumns(columns);
+    for (String name : columns) {
+      ColumnMetaData c = reader.getColumnMetaData(name);
+      if (c.isArray() || c.getParent() != null)
+        throw new TrevniRuntimeException("Can not filter array column: " + name);
+    }
+    this.filterRow = new FilterRow();
+    this.filter = filter.bind(filterRow, reader.getRowCount());
+    this.ranges = this.filter.rows();
+    this.nextRow = ranges.length > 0 ? ranges[0] : 0;
+  }
+
   // get defaults for fields in read that are not in write
   private void findDefaults(Schema read, Schema write) {
     switch (read.getType()) {
@@ -179,7 +241,23 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
 
   @Override
   public boolean hasNext() {
-    return values[0].hasNext();
+    if (filter == null)
+      return values[0].hasNext();
+    try {
+      while (!matched && range < ranges.length) {
+        if (nextRow < ranges[range])
+          nextRow = ranges[range];
+        if (nextRow >= ranges[range + 1])
+          range += 2;
+        else if (filter.matches(filterRow))
+          matched = true;
+        else
+          nextRow++;
+      }
+      return matched;
+    } catch (IOException e) {
+      throw new TrevniRuntimeException(e);
+    }
   }
 
   /** Return the number of rows in this file. */
@@ -190,6 +268,8 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
   @Override
   public D next() {
     try {
+      if (filter != null)
+        seekMatch();
       for (ColumnValues value : values)
         if (value != null)
           value.startRow();
@@ -200,6 +280,28 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
     }
   }
 
+  // positions values at the next row that matches the filter
+  private void seekMatch() throws IOException {
+    if (!hasNext())
+      throw new NoSuchElementException();
+    if (flat) {
+      for (ColumnValues value : values)
+        if (value != null)
+          value.seek(nextRow);
+    } else {
+      for (; position < nextRow; position++) {
+        for (ColumnValues value : values)
+          if (value != null)
+            value.startRow();
+        this.column = 0;
+        skip(readSchema);
+      }
+      position++;
+    }
+    matched = false;
+    nextRow++;
+  }
+
   private Object read(Schema s) throws IOException {
     if (isSimple(s))
       return nextValue(s, column++);
@@ -260,6 +362,60 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
     }
   }
 
+  // moves past a value as read() would, without decoding it
+  private void skip(Schema s) throws IOException {
+    if (isSimple(s)) {
+      values[column++].skipValue();
+      return;
+    }
+
+    final int startColumn = column;
+
+    switch (s.getType()) {
+    case MAP:
+      int size = values[column].nextLength();
+      for (int i = 0; i < size; i++) {
+        this.column = startColumn;
+        values[column++].skipValue(); // null in parent
+        values[column++].skipValue(); // key
+        skip(s.getValueType()); // value
+      }
+      column = startColumn + arrayWidths[startColumn];
+      break;
+    case RECORD:
+      Map<String, Object> rDefaults = defaults.get(s.getFullName());
+      for (Field f : s.getFields())
+        if (rDefaults == null || !rDefaults.containsKey(f.name()))
+          skip(f.schema());
+      break;
+    case ARRAY:
+      int length = values[column].nextLength();
+      for (int i = 0; i < length; i++) {
+        this.column = startColumn;
+        values[column++].skipValue();
+        if (!isSimple(s.getElementType()))
+          skip(s.getElementType());
+      }
+      column = startColumn + arrayWidths[startColumn];
+      break;
+    case UNION:
+      for (Schema branch : s.getTypes()) {
+        if (branch.getType() == Schema.Type.NULL)
+          continue;
+        if (values[column].nextLength() == 1) {
+          values[column++].skipValue();
+          if (!isSimple(branch))
+            skip(branch);
+        } else {
+          column += arrayWidths[column];
+        }
+      }
+      break;
+    default:
+      throw new TrevniRuntimeException("Unknown schema: " + s);
+    }
+  }
+
   private Object nextValue(Schema s, int column) throws IOException {
     Object v = values[column].nextValue();
 
@@ -273,6 +429,40 @@ public class AvroColumnReader<D> implements Iterator<D>, Iterable<D>, Closeable
     return v;
   }
 
+  /** Reads the values of the filtered columns, at most once per row. */
+  private class FilterRow implements ColumnFilter.Row {
+    private final Map<String, ColumnValues> columns = new HashMap<>();
+    private final Map<String, Long> rows = new HashMap<>();
+    private final Map<String, Comparable> rowValues = new HashMap<>();
+
+    @Override
+    public Comparable value(String column) throws IOException {
+      Long row = rows.get(column);
+      if (row == null || row != nextRow) {
+        ColumnValues v = values(column);
+        v.seek(nextRow);
+        rowValues.put(column, v.next());
+        rows.put(column, nextRow);
+      }
+      return rowValues.get(column);
+    }
+
+    @Override
+    public ColumnMetaData metaData(String column) {
+      return reader.getColumnMetaData(column);
+    }
+
+    @Override
+    public ColumnValues values(String column) throws IOException {
+      ColumnValues v = columns.get(column);
+      if (v == null) {
+        v = reader.getValues(column);
+        columns.put(column, v);
+      }
+      return v;
+    }
+  }
+
   @Override
   public void remove() {
     throw new UnsupportedOperationException();
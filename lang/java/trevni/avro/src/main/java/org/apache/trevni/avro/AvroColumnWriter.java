@@ -25,6 +25,7 @@ import java.util.Map;
 
 import org.apache.trevni.ColumnFileMetaData;
 import org.apache.trevni.ColumnFileWriter;
+import org.apache.trevni.ColumnMetaData;
 import org.apache.trevni.TrevniRuntimeException;
 
 import org.apache.avro.Schema;
@@ -44,7 +45,9 @@ import static org.apache.trevni.avro.AvroColumnator.isSimple;
  * <p>
  * Output is buffered until {@link #writeTo(OutputStream)} is called. The
  * {@link #sizeEstimate()} indicates both the amount of data buffered and the
- * size of the file that will be written.
+ * size of the file that will be written, unless
+ * {@link #setSpillDirectory(File)} is used to buffer completed blocks in
+ * temporary files.
  */
 public class AvroColumnWriter<D> {
   private Schema schema;
@@ -59,10 +62,34 @@ public class AvroColumnWriter<D> {
   }
 
   public AvroColumnWriter(Schema s, ColumnFileMetaData meta, GenericData model) throws IOException {
+    this(s, meta, model, new String[0]);
+  }
+
+  /**
+   * Construct a writer that also indexes the first value of each block of the
+   * named columns, e.g. "id" or "address#zip", so that a {@link ColumnFilter}
+   * may skip the rows that do not match it. Rows must be added in increasing
+   * order of the values of each indexed column, which may be neither an array
+   * nor within one.
+   */
+  public AvroColumnWriter(Schema s, ColumnFileMetaData meta, GenericData model, String... indexedColumns)
+      throws IOException {
     this.schema = s;
     AvroColumnator columnator = new AvroColumnator(s);
+    ColumnMetaData[] columns = columnator.getColumns();
+    for (String name : indexedColumns) {
+      ColumnMetaData column = null;
+      for (ColumnMetaData c : columns)
+        if (c.getName().equals(name))
+          column = c;
+      if (column == null)
+        throw new TrevniRuntimeException("No column named: " + name);
+      if (column.isArray() || column.getParent() != null)
+        throw new TrevniRuntimeException("Can not index array column: " + name);
+      column.hasIndexValues(true);
+    }
     meta.set(SCHEMA_KEY, s.toString()); // save schema in file
-    this.writer = new ColumnFileWriter(meta, columnator.getColumns());
+    this.writer = new ColumnFileWriter(meta, columns);
     this.arrayWidths = columnator.getArrayWidths();
     this.model = model;
   }
@@ -77,6 +104,21 @@ public class AvroColumnWriter<D> {
     return writer.sizeEstimate();
   }
 
+  /**
+   * Buffer completed column blocks in temporary files in a directory rather than
+   * in memory. Must be called before rows are added.
+   *
+   * @see ColumnFileWriter#setSpillDirectory(File)
+   */
+  public void setSpillDirectory(File directory) throws IOException {
+    writer.setSpillDirectory(directory);
+  }
+
+  /** Remove any temporary files buffering the rows added. */
+  public void close() throws IOException {
+    writer.close();
+  }
+
   /** Write all rows added to the named output stream. */
   public void writeTo(OutputStream out) throws IOException {
     writer.writeTo(out);
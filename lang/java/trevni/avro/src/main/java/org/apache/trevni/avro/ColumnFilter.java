@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.trevni.avro;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.apache.trevni.ColumnMetaData;
+import org.apache.trevni.ColumnValues;
+import org.apache.trevni.TrevniRuntimeException;
+
+/**
+ * An immutable predicate on the values of columns, passed to
+ * {@link AvroColumnReader.Params#setFilter(ColumnFilter)} so that only rows
+ * that match it are read.
+ *
+ * <p>
+ * Comparisons name a column that is neither an array nor within one, e.g.
+ * "id" or "address#zip", and values are converted to the column's type. On
+ * columns written with index values, which must be sorted, the rows that can
+ * not match are skipped as a whole, without reading their blocks. Each other
+ * row is tested before the columns read are decoded. A filter may be shared by
+ * readers of different files, at once.
+ */
+public abstract class ColumnFilter {
+
+  /** Access to the values of a row of the columns of a file. */
+  interface Row {
+    /** Returns the value of a column in the current row. */
+    Comparable value(String column) throws IOException;
+
+    /** Returns the metadata of a column. */
+    ColumnMetaData metaData(String column);
+
+    /** Returns the values of a column, for access to its value index. */
+    ColumnValues values(String column) throws IOException;
+  }
+
+  ColumnFilter() {
+  }
+
+  /** Matches rows whose column equals a value. */
+  public static ColumnFilter eq(String column, Object value) {
+    return new Comparison(column, value, false, true, false);
+  }
+
+  /** Matches rows whose column is less than a value. */
+  public static ColumnFilter lt(String column, Object value) {
+    return new Comparison(column, value, true, false, false);
+  }
+
+  /** Matches rows whose column is less than or equal to a value. */
+  public static ColumnFilter le(String column, Object value) {
+    return new Comparison(column, value, true, true, false);
+  }
+
+  /** Matches rows whose column is greater than a value. */
+  public static ColumnFilter gt(String column, Object value) {
+    return new Comparison(column, value, false, false, true);
+  }
+
+  /** Matches rows whose column is greater than or equal to a value. */
+  public static ColumnFilter ge(String column, Object value) {
+    return new Comparison(column, value, false, true, true);
+  }
+
+  /** Matches rows whose column lies between two values, inclusive. */
+  public static ColumnFilter between(String column, Object low, Object high) {
+    return and(ge(column, low), le(column, high));
+  }
+
+  /** Matches rows matched by every one of some filters. */
+  public static ColumnFilter and(ColumnFilter... filters) {
+    return new Combination(true, filters);
+  }
+
+  /** Matches rows matched by any one of some filters. */
+  public static ColumnFilter or(ColumnFilter... filters) {
+    return new Combination(false, filters);
+  }
+
+  /** A filter applied to the columns of a file, as kept by one reader. */
+  abstract static class Bound {
+    private final long[] rows;
+
+    Bound(long[] rows) {
+      this.rows = rows;
+    }
+
+    /**
+     * Returns the ranges of rows that may match, as pairs of start and end rows,
+     * sorted and disjoint.
+     */
+    long[] rows() {
+      return rows;
+    }
+
+    /** Tests the current row. */
+    abstract boolean matches(Row row) throws IOException;
+  }
+
+  /** Adds the names of the columns tested. */
+  abstract void addColumns(Set<String> columns);
+
+  /** Applies this filter to the columns of a file with a number of rows. */
+  abstract Bound bind(Row row, long rowCount) throws IOException;
+
+  /** A comparison of a column with a value. */
+  private static class Comparison extends ColumnFilter {
+    private final String column;
+    private final Object value;
+    private final boolean less; // matches values less than the value
+    private final boolean equal; // matches values equal to the value
+    private final boolean greater; // matches values greater than the value
+
+    Comparison(String column, Object value, boolean less, boolean equal, boolean greater) {
+      if (value == null)
+        throw new IllegalArgumentException("Null value for column " + column);
+      this.column = column;
+      this.value = value;
+      this.less = less;
+      this.equal = equal;
+      this.greater = greater;
+    }
+
+    @Override
+    void addColumns(Set<String> columns) {
+      columns.add(column);
+    }
+
+    @Override
+    Bound bind(Row row, long rowCount) throws IOException {
+      ColumnMetaData meta = row.metaData(column);
+      // the value, as a value of the column filtered in this file
+      Comparable converted = convert(value, meta);
+      return new Bound(rows(row, meta, converted, rowCount)) {
+        @Override
+        boolean matches(Row row) throws IOException {
+          int c = row.value(column).compareTo(converted);
+          return c < 0 ? less : c > 0 ? greater : equal;
+        }
+      };
+    }
+
+    private long[] rows(Row row, ColumnMetaData meta, Comparable converted, long rowCount) throws IOException {
+      if (!meta.hasIndexValues())
+        return new long[] { 0, rowCount };
+      ColumnValues values = row.values(column);
+      long start = less ? 0 : values.getFirstRow(converted, equal);
+      long end = greater ? rowCount : values.getEndRow(converted, equal);
+      return start < end ? new long[] { start, end } : new long[0];
+    }
+
+    private static Comparable convert(Object value, ColumnMetaData meta) {
+      try {
+        switch (meta.getType()) {
+        case INT:
+        case FIXED32:
+          return ((Number) value).intValue();
+        case LONG:
+        case FIXED64:
+          return ((Number) value).longValue();
+        case FLOAT:
+          return ((Number) value).floatValue();
+        case DOUBLE:
+          return ((Number) value).doubleValue();
+        case STRING:
+          return value.toString();
+        case BYTES:
+          return value instanceof byte[] ? ByteBuffer.wrap((byte[]) value) : (ByteBuffer) value;
+        case BOOLEAN:
+          return (Boolean) value;
+        default:
+          throw new TrevniRuntimeException("Can not compare column " + meta.getName());
+        }
+      } catch (ClassCastException e) {
+        throw new TrevniRuntimeException("Can not compare column " + meta.getName() + " with " + value);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return column + (less ? "<" : greater ? ">" : "") + (equal ? "=" : "") + value;
+    }
+  }
+
+  /** A conjunction or disjunction of filters. */
+  private static class Combination extends ColumnFilter {
+    private final boolean and;
+    private final ColumnFilter[] filters;
+
+    Combination(boolean and, ColumnFilter... filters) {
+      if (filters.length == 0)
+        throw new IllegalArgumentException("No filters");
+      this.and = and;
+      this.filters = filters.clone();
+    }
+
+    @Override
+    void addColumns(Set<String> columns) {
+      for (ColumnFilter filter : filters)
+        filter.addColumns(columns);
+    }
+
+    @Override
+    Bound bind(Row row, long rowCount) throws IOException {
+      Bound[] bound = new Bound[filters.length];
+      long[] rows = null;
+      for (int i = 0; i < filters.length; i++) {
+        bound[i] = filters[i].bind(row, rowCount);
+        rows = i == 0 ? bound[i].rows() : combine(rows, bound[i].rows());
+      }
+      return new Bound(rows) {
+        @Override
+        boolean matches(Row row) throws IOException {
+          for (Bound filter : bound)
+            if (filter.matches(row) != and)
+              return !and;
+          return and;
+        }
+      };
+    }
+
+    // intersects or unites two sorted lists of disjoint ranges
+    private long[] combine(long[] a, long[] b) {
+      long[] result = new long[a.length + b.length];
+      int n = 0;
+      int i = 0;
+      int j = 0;
+      if (and) {
+        while (i < a.length && j < b.length) {
+          long start = Math.max(a[i], b[j]);
+          long end = Math.min(a[i + 1], b[j + 1]);
+          if (start < end) {
+            result[n++] = start;
+            result[n++] = end;
+          }
+          if (a[i + 1] < b[j + 1])
+            i += 2;
+          else
+            j += 2;
+        }
+      } else {
+        while (i < a.length || j < b.length) {
+          long[] next;
+          if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+            next = new long[] { a[i], a[i + 1] };
+            i += 2;
+          } else {
+            next = new long[] { b[j], b[j + 1] };
+            j += 2;
+          }
+          if (n > 0 && next[0] <= result[n - 1]) {
+            result[n - 1] = Math.max(result[n - 1], next[1]);
+          } else {
+            result[n++] = next[0];
+            result[n++] = next[1];
+          }
+        }
+      }
+      return Arrays.copyOf(result, n);
+    }
+
+    @Override
+    public String toString() {
+      return (and ? "and" : "or") + Arrays.toString(filters);
+    }
+  }
+}
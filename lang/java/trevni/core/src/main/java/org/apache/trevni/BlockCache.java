@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.trevni;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded, least-recently-used cache of the decompressed blocks of the
+ * columns of a file, shared by all {@link ColumnValues} of a
+ * {@link ColumnFileReader}. Optionally reads blocks ahead of those requested on
+ * a pool of threads, with positioned reads of the input.
+ */
+class BlockCache {
+  private final long maxBytes;
+  private final int blocksAhead;
+  private final ExecutorService prefetcher;
+
+  // blocks by column number and block number, in access order
+  private final LinkedHashMap<Long, Entry> blocks = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  // codecs are not thread safe: each thread has its own, by codec name
+  private final ThreadLocal<Map<String, Codec>> codecs = ThreadLocal.withInitial(HashMap::new);
+  private final ThreadLocal<Map<String, Checksum>> checksums = ThreadLocal.withInitial(HashMap::new);
+
+  private static class Entry {
+    private final FutureTask<ByteBuffer> data;
+    private final int size;
+
+    Entry(FutureTask<ByteBuffer> data, int size) {
+      this.data = data;
+      this.size = size;
+    }
+  }
+
+  /**
+   * @param maxBytes    the most decompressed bytes to keep
+   * @param threads     the number of threads reading ahead, or zero to only read
+   *                    blocks when they are requested
+   * @param blocksAhead the number of blocks of a column to read ahead of the one
+   *                    requested
+   */
+  BlockCache(long maxBytes, int threads, int blocksAhead) {
+    this.maxBytes = maxBytes;
+    this.blocksAhead = threads > 0 ? blocksAhead : 0;
+    if (threads > 0) {
+      AtomicInteger count = new AtomicInteger();
+      this.prefetcher = Executors.newFixedThreadPool(threads, r -> {
+        Thread thread = new Thread(r, "trevni-prefetch-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.prefetcher = null;
+    }
+  }
+
+  /** Returns a decompressed block, reading it now if it is not cached. */
+  ByteBuffer get(ColumnDescriptor column, int block) throws IOException {
+    FutureTask<ByteBuffer> data;
+    synchronized (this) {
+      Entry entry = blocks.get(key(column, block));
+      if (entry == null)
+        entry = add(column, block);
+      data = entry.data;
+      prefetch(column, block + 1);
+    }
+    // read it here unless done or under way, rather than wait for a thread
+    data.run();
+    try {
+      return data.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading block", e);
+    } catch (ExecutionException e) {
+      synchronized (this) { // don't keep the failure
+        Entry entry = blocks.get(key(column, block));
+        if (entry != null && entry.data == data)
+          remove(key(column, block));
+      }
+      if (e.getCause() instanceof IOException)
+        throw (IOException) e.getCause();
+      throw new TrevniRuntimeException(e.getCause());
+    }
+  }
+
+  /** Starts reading blocks of a column ahead, from one on. */
+  synchronized void prefetch(ColumnDescriptor column, int from) {
+    int end = Math.min(from + blocksAhead, column.blockCount());
+    for (int block = from; block < end; block++) {
+      if (!blocks.containsKey(key(column, block)))
+        prefetcher.execute(add(column, block).data);
+    }
+  }
+
+  /** Stops reading ahead. */
+  void close() {
+    if (prefetcher != null)
+      prefetcher.shutdownNow();
+  }
+
+  private Entry add(ColumnDescriptor column, int block) {
+    int size = column.blocks[block].uncompressedSize;
+    Entry entry = new Entry(new FutureTask<>(() -> read(column, block)), size);
+    blocks.put(key(column, block), entry);
+    bytes += size;
+    // keep at least the newest, as it is about to be read
+    Iterator<Entry> eldest = blocks.values().iterator();
+    while (bytes > maxBytes && blocks.size() > 1) {
+      bytes -= eldest.next().size;
+      eldest.remove();
+    }
+    return entry;
+  }
+
+  private void remove(long key) {
+    bytes -= blocks.remove(key).size;
+  }
+
+  private ByteBuffer read(ColumnDescriptor column, int block) throws IOException {
+    ColumnMetaData meta = column.metaData;
+    String codec = meta.getCodec() == null ? "null" : meta.getCodec();
+    String checksum = meta.getChecksum() == null ? "null" : meta.getChecksum();
+    return column.readBlock(block, codecs.get().computeIfAbsent(codec, name -> Codec.get(meta)),
+        checksums.get().computeIfAbsent(checksum, name -> Checksum.get(meta)));
+  }
+
+  private static long key(ColumnDescriptor column, int block) {
+    return ((long) column.metaData.getNumber() << 32) | block;
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.trevni;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A batch of string or bytes values, as read by
+ * {@link ColumnValues#nextBytes(BytesVector, int)}: the bytes of all values,
+ * end to end, and the offset of each within them. Strings are held as their
+ * UTF-8 bytes. May be cleared and reused to read further batches without
+ * allocation.
+ */
+public class BytesVector {
+  private int count;
+  private int[] offsets = new int[17];
+  private byte[] bytes = new byte[1024];
+
+  /** Return the number of values held. */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Return the offsets of the values held: value <i>i</i> starts at offset
+   * <i>i</i> and ends at offset <i>i + 1</i>, for <i>i</i> less than
+   * {@link #getCount()}.
+   */
+  public int[] getOffsets() {
+    return offsets;
+  }
+
+  /** Return the bytes of the values held. */
+  public byte[] getBytes() {
+    return bytes;
+  }
+
+  /** Return the length of a value. */
+  public int getLength(int i) {
+    return offsets[i + 1] - offsets[i];
+  }
+
+  /** Return a copy of the bytes of a value. */
+  public byte[] get(int i) {
+    return Arrays.copyOfRange(bytes, offsets[i], offsets[i + 1]);
+  }
+
+  /** Return a value decoded from UTF-8. */
+  public String getString(int i) {
+    return new String(bytes, offsets[i], getLength(i), StandardCharsets.UTF_8);
+  }
+
+  /** Remove all values held. */
+  public void clear() {
+    count = 0;
+  }
+
+  /** Make room for a value of a length, returning the offset to write it to. */
+  int add(int length) {
+    if (count + 1 == offsets.length)
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    int start = offsets[count];
+    if (start + length > bytes.length)
+      bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, start + length));
+    offsets[++count] = start + length;
+    return start;
+  }
+}
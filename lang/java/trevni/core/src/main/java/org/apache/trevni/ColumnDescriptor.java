@@ -17,8 +17,9 @@
  */
 package org.apache.trevni;
 
+import java.io.EOFException;
 import java.io.IOException;
-
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 class ColumnDescriptor<T extends Comparable> {
@@ -53,6 +54,24 @@ class ColumnDescriptor<T extends Comparable> {
     return block;
   }
 
+  /**
+   * Returns the last block whose first value is less than, or if
+   * <i>inclusive</i> equal to, a value, or -1 if there is none.
+   */
+  public int lastBlockBefore(T value, boolean inclusive) {
+    int low = 0;
+    int high = firstValues.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int c = firstValues[mid].compareTo(value);
+      if (c < 0 || (inclusive && c == 0))
+        low = mid + 1;
+      else
+        high = mid - 1;
+    }
+    return high;
+  }
+
   public int blockCount() {
     return blocks.length;
   }
@@ -63,6 +82,26 @@ class ColumnDescriptor<T extends Comparable> {
     return firstRows[block] + blocks[block].rowCount;
   }
 
+  /**
+   * Reads, checks and decompresses a block. Uses positioned reads only, so may
+   * be called from several threads with their own codec and checksum.
+   */
+  ByteBuffer readBlock(int block, Codec codec, Checksum checksum) throws IOException {
+    int end = blocks[block].compressedSize;
+    byte[] raw = new byte[end + checksum.size()];
+    long position = blockStarts[block];
+    for (int n = 0; n < raw.length;) {
+      int read = file.read(position + n, raw, n, raw.length - n);
+      if (read < 0)
+        throw new EOFException();
+      n += read;
+    }
+    ByteBuffer data = codec.decompress(ByteBuffer.wrap(raw, 0, end));
+    if (!checksum.compute(data).equals(ByteBuffer.wrap(raw, end, checksum.size())))
+      throw new IOException("Checksums mismatch.");
+    return data;
+  }
+
   public void ensureBlocksRead() throws IOException {
     if (blocks != null)
       return;
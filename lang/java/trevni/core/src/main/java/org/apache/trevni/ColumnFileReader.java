@@ -35,6 +35,8 @@ public class ColumnFileReader implements Closeable {
   private ColumnFileMetaData metaData;
   private ColumnDescriptor[] columns;
   private Map<String, ColumnDescriptor> columnsByName;
+  private BlockCache cache;
+  private boolean valuesCreated;
 
   /** Construct reading from the named file. */
   public ColumnFileReader(File file) throws IOException {
@@ -47,6 +49,29 @@ public class ColumnFileReader implements Closeable {
     readHeader();
   }
 
+  /**
+   * Keep up to <i>maxBytes</i> of decompressed column blocks in a cache shared by
+   * all values returned by this reader, evicting the least recently used, and
+   * read up to <i>blocksAhead</i> blocks of each column ahead of those in use, in
+   * parallel on <i>threads</i> threads. Scans of many columns then overlap their
+   * reads of the input, which must support concurrent positioned reads. Must be
+   * called before any values are returned.
+   *
+   * @param maxBytes    the size of the cache, in uncompressed bytes
+   * @param threads     the number of threads reading ahead, or zero to read
+   *                    blocks only when needed
+   * @param blocksAhead the number of blocks of each column to read ahead
+   */
+  public void setBlockCache(long maxBytes, int threads, int blocksAhead) {
+    if (maxBytes < 0 || threads < 0 || blocksAhead < 0)
+      throw new IllegalArgumentException("Invalid cache: " + maxBytes + " bytes, " + threads + " threads");
+    if (valuesCreated)
+      throw new TrevniRuntimeException("Values have already been returned");
+    if (cache != null)
+      cache.close();
+    cache = new BlockCache(maxBytes, threads, blocksAhead);
+  }
+
   /** Return the number of rows in this file. */
   public long getRowCount() {
     return rowCount;
@@ -139,16 +164,20 @@ public class ColumnFileReader implements Closeable {
 
   /** Return an iterator over values in the named column. */
   public <T extends Comparable> ColumnValues<T> getValues(String columnName) throws IOException {
-    return new ColumnValues<>(getColumn(columnName));
+    valuesCreated = true;
+    return new ColumnValues<>(getColumn(columnName), cache);
   }
 
   /** Return an iterator over values in a column. */
   public <T extends Comparable> ColumnValues<T> getValues(int column) throws IOException {
-    return new ColumnValues<>(columns[column]);
+    valuesCreated = true;
+    return new ColumnValues<>(columns[column], cache);
   }
 
   @Override
   public void close() throws IOException {
+    if (cache != null)
+      cache.close();
     file.close();
   }
 
@@ -26,7 +26,8 @@ import java.util.HashSet;
 
 /**
  * Writes data to a column file. All data is buffered until
- * {@link #writeTo(File)} is called.
+ * {@link #writeTo(File)} is called, in memory unless
+ * {@link #setSpillDirectory(File)} is used.
  */
 public class ColumnFileWriter {
 
@@ -40,6 +41,7 @@ public class ColumnFileWriter {
   private long rowCount;
   private int columnCount;
   private long size;
+  private File spillDirectory;
 
   /** Construct given metadata for each column in the file. */
   public ColumnFileWriter(ColumnFileMetaData fileMeta, ColumnMetaData... columnMeta) throws IOException {
@@ -68,15 +70,55 @@ public class ColumnFileWriter {
     }
   }
 
+  /**
+   * Write the data of each column block, once complete, to a temporary file per
+   * column in a directory, rather than keeping it in memory until
+   * {@link #writeTo(OutputStream)}. Memory use is then bounded by a block per
+   * column, plus a few bytes per block, so files of any size may be written.
+   * The temporary files are removed by {@link #writeTo(OutputStream)}, whether or
+   * not it succeeds, which may then only be called once, or by {@link #close()}.
+   * Must be called before rows are added.
+   *
+   * @param directory the directory for the temporary files, or null for the
+   *                  default temporary-file directory
+   */
+  public void setSpillDirectory(File directory) throws IOException {
+    if (rowCount > 0 || spillDirectory != null)
+      throw new TrevniRuntimeException("Spilling must be set before rows are added");
+    this.spillDirectory = directory != null ? directory : new File(System.getProperty("java.io.tmpdir"));
+    for (ColumnOutputBuffer column : columns)
+      column.spillTo(spillDirectory);
+  }
+
+  /**
+   * Remove any temporary files written by {@link #setSpillDirectory(File)}. The
+   * rows added can no longer be written.
+   */
+  public void close() throws IOException {
+    IOException failure = null;
+    for (ColumnOutputBuffer column : columns) {
+      try {
+        column.delete();
+      } catch (IOException e) {
+        if (failure == null)
+          failure = e;
+        else
+          failure.addSuppressed(e);
+      }
+    }
+    if (failure != null)
+      throw failure;
+  }
+
   void incrementSize(int n) {
     size += n;
   }
 
   /**
    * Return the approximate size of the file that will be written. Tries to
-   * slightly over-estimate. Indicates both the size in memory of the buffered
-   * data as well as the size of the file that will be written by
-   * {@link #writeTo(OutputStream)}.
+   * slightly over-estimate. Unless spilling to temporary files, indicates both
+   * the size in memory of the buffered data as well as the size of the file that
+   * will be written by {@link #writeTo(OutputStream)}.
    */
   public long sizeEstimate() {
     return size;
@@ -140,10 +182,15 @@ public class ColumnFileWriter {
 
   /** Write all rows added to the named output stream. */
   public void writeTo(OutputStream out) throws IOException {
-    writeHeader(out);
-
-    for (int column = 0; column < columnCount; column++)
-      columns[column].writeTo(out);
+    try {
+      writeHeader(out);
+
+      for (int column = 0; column < columnCount; column++)
+        columns[column].writeTo(out);
+    } finally {
+      if (spillDirectory != null)
+        close();
+    }
   }
 
   private void writeHeader(OutputStream out) throws IOException {
@@ -17,9 +17,13 @@
  */
 package org.apache.trevni;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -32,6 +36,8 @@ class ColumnOutputBuffer {
   private List<BlockDescriptor> blockDescriptors;
   private List<byte[]> blockData;
   private List<byte[]> firstValues;
+  private File spillFile;
+  private OutputStream spill;
   private int rowCount;
   private long size = 4; // room for block count
 
@@ -47,6 +53,15 @@ class ColumnOutputBuffer {
       this.firstValues = new ArrayList<>();
   }
 
+  /**
+   * Writes the data of blocks, once they are complete, to a temporary file in a
+   * directory rather than keeping it in memory.
+   */
+  void spillTo(File directory) throws IOException {
+    spillFile = File.createTempFile("trevni", ".column", directory);
+    spill = new BufferedOutputStream(new FileOutputStream(spillFile));
+  }
+
   public ColumnMetaData getMeta() {
     return meta;
   }
@@ -85,7 +100,10 @@ class ColumnOutputBuffer {
     ByteBuffer data = ByteBuffer.allocate(c.remaining() + checksum.size());
     data.put(c);
     data.put(checksum.compute(raw));
-    blockData.add(data.array());
+    if (spill != null)
+      spill.write(data.array());
+    else
+      blockData.add(data.array());
 
     int sizeIncrement = (4 * 3) // descriptor
         + (firstValues != null // firstValue
@@ -115,8 +133,31 @@ class ColumnOutputBuffer {
     }
     header.writeTo(out);
 
-    for (byte[] data : blockData)
-      out.write(data);
+    if (spillFile != null) {
+      if (spill == null)
+        throw new TrevniRuntimeException("Spilled column already written or closed: " + meta);
+      try {
+        spill.close();
+        spill = null;
+        Files.copy(spillFile.toPath(), out);
+      } finally {
+        delete();
+      }
+    } else {
+      for (byte[] data : blockData)
+        out.write(data);
+    }
+  }
+
+  /** Removes the temporary file the data of blocks was written to, if any. */
+  void delete() throws IOException {
+    if (spill != null) {
+      spill.close();
+      spill = null;
+    }
+    if (spillFile != null) {
+      Files.deleteIfExists(spillFile.toPath());
+    }
   }
 
 }
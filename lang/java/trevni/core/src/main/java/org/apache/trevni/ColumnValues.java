@@ -25,10 +25,10 @@ import java.util.Iterator;
 public class ColumnValues<T extends Comparable> implements Iterator<T>, Iterable<T> {
 
   private final ColumnDescriptor column;
+  private final BlockCache cache;
   private final ValueType type;
   private final Codec codec;
   private final Checksum checksum;
-  private final InputBuffer in;
 
   private InputBuffer values;
   private int block = -1;
@@ -37,14 +37,16 @@ public class ColumnValues<T extends Comparable> implements Iterator<T>, Iterable
 
   private int arrayLength;
 
-  ColumnValues(ColumnDescriptor column) throws IOException {
+  ColumnValues(ColumnDescriptor column, BlockCache cache) throws IOException {
     this.column = column;
+    this.cache = cache;
     this.type = column.metaData.getType();
     this.codec = Codec.get(column.metaData);
     this.checksum = Checksum.get(column.metaData);
-    this.in = new InputBuffer(column.file);
 
     column.ensureBlocksRead();
+    if (cache != null)
+      cache.prefetch(column, 0);
   }
 
   /** Return the current row number within this file. */
@@ -85,17 +87,38 @@ public class ColumnValues<T extends Comparable> implements Iterator<T>, Iterable
     }
   }
 
+  /**
+   * Return the first row of a sorted column that may hold a value greater than,
+   * or if <i>inclusive</i> equal to, a value, as shown by its value index,
+   * without reading any block.
+   */
+  public long getFirstRow(T v, boolean inclusive) {
+    checkIndexValues();
+    // all values of the block before are at most this block's first one
+    int block = column.lastBlockBefore(v, !inclusive);
+    return block < 0 ? 0 : column.firstRows[block];
+  }
+
+  /**
+   * Return the end, exclusive, of the rows of a sorted column that may hold a
+   * value less than, or if <i>inclusive</i> equal to, a value, as shown by its
+   * value index, without reading any block.
+   */
+  public long getEndRow(T v, boolean inclusive) {
+    checkIndexValues();
+    return column.lastRow(column.lastBlockBefore(v, inclusive));
+  }
+
+  private void checkIndexValues() {
+    if (!column.metaData.hasIndexValues())
+      throw new TrevniRuntimeException("Column does not have value index: " + column.metaData.getName());
+  }
+
   private void startBlock(int block) throws IOException {
     this.block = block;
     this.row = column.firstRows[block];
 
-    in.seek(column.blockStarts[block]);
-    int end = column.blocks[block].compressedSize;
-    byte[] raw = new byte[end + checksum.size()];
-    in.readFully(raw);
-    ByteBuffer data = codec.decompress(ByteBuffer.wrap(raw, 0, end));
-    if (!checksum.compute(data).equals(ByteBuffer.wrap(raw, end, checksum.size())))
-      throw new IOException("Checksums mismatch.");
+    ByteBuffer data = cache != null ? cache.get(column, block) : column.readBlock(block, codec, checksum);
     values = new InputBuffer(new InputBytes(data));
   }
 
@@ -148,6 +171,112 @@ public class ColumnValues<T extends Comparable> implements Iterator<T>, Iterable
     return previous = values.readValue(type);
   }
 
+  /** Expert: Moves past the next value in a column without reading it. */
+  public void skipValue() throws IOException {
+    arrayLength--;
+    values.skipValue(type);
+    previous = null;
+  }
+
+  /**
+   * Read up to <i>max</i> values of an INT or FIXED32 column into an array,
+   * from a start index on, without boxing them. Returns the number of values
+   * read, which is less than <i>max</i> only at the end of the column.
+   */
+  public int nextInts(int[] to, int start, int max) throws IOException {
+    checkBatchType(ValueType.INT, ValueType.FIXED32);
+    int count = 0;
+    for (int n; count < max && (n = startBatch(max - count)) > 0; count += n)
+      values.readInts(type, to, start + count, n);
+    return count;
+  }
+
+  /**
+   * Read up to <i>max</i> values of a LONG or FIXED64 column into an array.
+   *
+   * @see #nextInts(int[], int, int)
+   */
+  public int nextLongs(long[] to, int start, int max) throws IOException {
+    checkBatchType(ValueType.LONG, ValueType.FIXED64);
+    int count = 0;
+    for (int n; count < max && (n = startBatch(max - count)) > 0; count += n)
+      values.readLongs(type, to, start + count, n);
+    return count;
+  }
+
+  /**
+   * Read up to <i>max</i> values of a FLOAT column into an array.
+   *
+   * @see #nextInts(int[], int, int)
+   */
+  public int nextFloats(float[] to, int start, int max) throws IOException {
+    checkBatchType(ValueType.FLOAT, ValueType.FLOAT);
+    int count = 0;
+    for (int n; count < max && (n = startBatch(max - count)) > 0; count += n)
+      values.readFloats(to, start + count, n);
+    return count;
+  }
+
+  /**
+   * Read up to <i>max</i> values of a DOUBLE column into an array.
+   *
+   * @see #nextInts(int[], int, int)
+   */
+  public int nextDoubles(double[] to, int start, int max) throws IOException {
+    checkBatchType(ValueType.DOUBLE, ValueType.DOUBLE);
+    int count = 0;
+    for (int n; count < max && (n = startBatch(max - count)) > 0; count += n)
+      values.readDoubles(to, start + count, n);
+    return count;
+  }
+
+  /**
+   * Read up to <i>max</i> values of a BOOLEAN column into an array.
+   *
+   * @see #nextInts(int[], int, int)
+   */
+  public int nextBooleans(boolean[] to, int start, int max) throws IOException {
+    checkBatchType(ValueType.BOOLEAN, ValueType.BOOLEAN);
+    int count = 0;
+    for (int n; count < max && (n = startBatch(max - count)) > 0; count += n)
+      values.readBooleans(to, start + count, n);
+    return count;
+  }
+
+  /**
+   * Add up to <i>max</i> values of a STRING or BYTES column to a vector, without
+   * decoding strings.
+   *
+   * @see #nextInts(int[], int, int)
+   */
+  public int nextBytes(BytesVector to, int max) throws IOException {
+    checkBatchType(ValueType.STRING, ValueType.BYTES);
+    int count = 0;
+    for (int n; count < max && (n = startBatch(max - count)) > 0; count += n)
+      values.readBytes(to, n);
+    return count;
+  }
+
+  private void checkBatchType(ValueType type1, ValueType type2) {
+    if (column.metaData.isArray() || column.metaData.getParent() != null)
+      throw new TrevniRuntimeException("Column is array: " + column.metaData.getName());
+    if (type != type1 && type != type2)
+      throw new TrevniRuntimeException("Column is " + type + ": " + column.metaData.getName());
+  }
+
+  // moves past the rows of the next run of values within a block
+  private int startBatch(int max) throws IOException {
+    while (row >= column.lastRow(block)) {
+      if (!hasNext())
+        return 0;
+      startBlock(block + 1);
+    }
+    int n = (int) Math.min(max, column.lastRow(block) - row);
+    row += n;
+    previous = null;
+    return n;
+  }
+
   @Override
   public void remove() {
     throw new UnsupportedOperationException();
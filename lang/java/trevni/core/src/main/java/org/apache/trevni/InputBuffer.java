@@ -21,6 +21,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 
@@ -137,6 +138,68 @@ class InputBuffer {
     }
   }
 
+  /** Reads a run of INT or FIXED32 values. */
+  public void readInts(ValueType type, int[] to, int start, int n) throws IOException {
+    if (type == ValueType.FIXED32 && (limit - pos) >= 4 * n) { // in buffer
+      littleEndian(n * 4).asIntBuffer().get(to, start, n);
+      return;
+    }
+    for (int i = start; i < start + n; i++)
+      to[i] = type == ValueType.FIXED32 ? readFixed32() : readInt();
+  }
+
+  /** Reads a run of LONG or FIXED64 values. */
+  public void readLongs(ValueType type, long[] to, int start, int n) throws IOException {
+    if (type == ValueType.FIXED64 && (limit - pos) >= 8 * n) { // in buffer
+      littleEndian(n * 8).asLongBuffer().get(to, start, n);
+      return;
+    }
+    for (int i = start; i < start + n; i++)
+      to[i] = type == ValueType.FIXED64 ? readFixed64() : readLong();
+  }
+
+  /** Reads a run of FLOAT values. */
+  public void readFloats(float[] to, int start, int n) throws IOException {
+    if ((limit - pos) >= 4 * n) { // in buffer
+      littleEndian(n * 4).asFloatBuffer().get(to, start, n);
+      return;
+    }
+    for (int i = start; i < start + n; i++)
+      to[i] = readFloat();
+  }
+
+  /** Reads a run of DOUBLE values. */
+  public void readDoubles(double[] to, int start, int n) throws IOException {
+    if ((limit - pos) >= 8 * n) { // in buffer
+      littleEndian(n * 8).asDoubleBuffer().get(to, start, n);
+      return;
+    }
+    for (int i = start; i < start + n; i++)
+      to[i] = readDouble();
+  }
+
+  // a view of buffered bytes, consumed
+  private ByteBuffer littleEndian(int length) {
+    ByteBuffer result = ByteBuffer.wrap(buf, pos, length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    pos += length;
+    return result;
+  }
+
+  /** Reads a run of BOOLEAN values. */
+  public void readBooleans(boolean[] to, int start, int n) throws IOException {
+    for (int i = start; i < start + n; i++)
+      to[i] = readBoolean();
+  }
+
+  /** Reads a run of STRING or BYTES values. */
+  public void readBytes(BytesVector to, int n) throws IOException {
+    for (int i = 0; i < n; i++) {
+      int length = readInt();
+      int offset = to.add(length); // may grow its bytes
+      readFully(to.getBytes(), offset, length);
+    }
+  }
+
   public boolean readBoolean() throws IOException {
     if (bitCount == 0)
       read();